@@ -0,0 +1,56 @@
+#!/bin/bash
+# Gera a imagem JVM com checkpoint CRaC: sobe a aplicação até o refresh do contexto (beans criados,
+# nenhuma conexão com o Redis nem porta aberta), grava o checkpoint e congela o container numa imagem
+# que restaura dele em vez de iniciar a JVM.
+#
+# Uso: ./build-jvm-crac.sh [arquivo.env]
+#   arquivo.env: variáveis da aplicação (REDIS_HOST, QUEUE_PUBLISHER...). Os valores ficam
+#   gravados no checkpoint, então devem ser os mesmos do deploy.
+#
+# Variáveis: CRAC_JDK_IMAGE (JDK 24 com CRaC), CRAC_IMAGE (imagem gerada),
+#            CRAC_DOCKER_FLAGS (capabilities do CRIU no checkpoint e na restauração)
+#
+# O checkpoint e a imagem gerada rodam como appuser: o Dockerfile.jvm grava no binário do CRIU as
+# capabilities CHECKPOINT_RESTORE e SYS_PTRACE, que o container recebe de CRAC_DOCKER_FLAGS.
+
+set -euo pipefail
+
+CRAC_JDK_IMAGE="${CRAC_JDK_IMAGE:-azul/zulu-openjdk:24-jdk-crac-latest}"
+CRAC_IMAGE="${CRAC_IMAGE:-api-payment-processor:jvm-crac}"
+CRAC_DOCKER_FLAGS="${CRAC_DOCKER_FLAGS:---cap-add CHECKPOINT_RESTORE --cap-add SYS_PTRACE}"
+BASE_IMAGE="${CRAC_IMAGE}-base"
+CONTAINER="api-payment-processor-crac-checkpoint"
+
+env_args=()
+if [ $# -gt 0 ]; then
+    env_args=(--env-file "$1")
+fi
+
+echo "→ Build da imagem JVM com ${CRAC_JDK_IMAGE}..."
+docker build -f Dockerfile.jvm \
+    --build-arg JDK_IMAGE="${CRAC_JDK_IMAGE}" \
+    --build-arg JRE_IMAGE="${CRAC_JDK_IMAGE}" \
+    -t "${BASE_IMAGE}" .
+
+echo "→ Checkpoint no refresh do contexto..."
+docker rm -f "${CONTAINER}" >/dev/null 2>&1 || true
+# shellcheck disable=SC2086
+docker run --name "${CONTAINER}" ${CRAC_DOCKER_FLAGS} ${env_args[@]+"${env_args[@]}"} \
+    --entrypoint sh "${BASE_IMAGE}" -c \
+    'exec java -XX:CRaCCheckpointTo=/app/crac -Dspring.context.checkpoint=onRefresh $JAVA_OPTS --sun-misc-unsafe-memory-access=allow --enable-native-access=ALL-UNNAMED -jar app.jar' \
+    || true
+
+# Com o checkpoint gravado a JVM é encerrada; sem imagens do CRIU o checkpoint falhou
+if ! docker cp "${CONTAINER}:/app/crac" - 2>/dev/null | tar -t 2>/dev/null | grep -q '\.img$'; then
+    echo "Checkpoint não gerado; veja 'docker logs ${CONTAINER}'."
+    exit 1
+fi
+
+docker commit \
+    --change 'USER appuser' \
+    --change 'ENTRYPOINT ["java", "-XX:CRaCRestoreFrom=/app/crac"]' \
+    "${CONTAINER}" "${CRAC_IMAGE}"
+docker rm "${CONTAINER}" >/dev/null
+
+echo "Imagem '${CRAC_IMAGE}' gerada. Restaure com:"
+echo "  docker run ${CRAC_DOCKER_FLAGS} ${CRAC_IMAGE}"
@@ -3,6 +3,7 @@ plugins {
     id("org.springframework.boot") version "3.5.3"
     id("io.spring.dependency-management") version "1.1.7"
     id("org.graalvm.buildtools.native") version "0.10.6"
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "com.maal"
@@ -24,6 +25,15 @@ repositories {
     mavenCentral()
 }
 
+// Teste de carga offline (src/loadtest/java), executado com ./gradlew loadTest
+val loadtest: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[loadtest.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[loadtest.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
 dependencies {
     implementation("org.springframework.boot:spring-boot-starter-data-redis") {
         exclude(group = "io.netty")
@@ -32,8 +42,15 @@ dependencies {
         exclude(group = "io.netty")
     }
     implementation("io.netty:netty-all:4.2.3.Final")
+    implementation("org.hdrhistogram:HdrHistogram:2.2.2")
+    // Checkpoint/restore (CRaC) da imagem JVM; sem efeito fora de um JDK com CRaC
+    implementation("org.crac:crac:1.5.0")
     compileOnly("org.projectlombok:lombok")
     annotationProcessor("org.projectlombok:lombok")
+    testImplementation("org.springframework.boot:spring-boot-starter-test")
+    // Redis real nos testes de resumo; os testes são pulados sem Docker
+    testImplementation("org.testcontainers:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
 
 tasks.withType<Test> {
@@ -69,3 +86,27 @@ tasks.withType<Test> {
         "--enable-native-access=ALL-UNNAMED"
     )
 }
+
+// ./gradlew loadTest -PloadArgs="--rate=1000 --duration-seconds=60 --p99-target-millis=10"
+tasks.register<JavaExec>("loadTest") {
+    group = "verification"
+    description = "Carga em malha aberta contra a aplicação em processo e um Redis simulado"
+    classpath = loadtest.runtimeClasspath
+    mainClass = "com.maal.apipaymentprocessor.loadtest.LoadHarness"
+    args = (findProperty("loadArgs") as String?)?.split(" ")?.filter { it.isNotBlank() } ?: emptyList()
+}
+
+// Benchmarks JMH (src/jmh/java): ./gradlew jmh  ou  ./gradlew jmh -PjmhIncludes=SummaryScan
+jmh {
+    jmhVersion = "1.37"
+    warmupIterations = 3
+    iterations = 5
+    fork = 1
+    jvmArgs = listOf(
+        "-Xmx2g",
+        "--sun-misc-unsafe-memory-access=allow",
+        "--enable-native-access=ALL-UNNAMED"
+    )
+    resultFormat = "JSON"
+    (findProperty("jmhIncludes") as String?)?.let { includes = listOf(it) }
+}
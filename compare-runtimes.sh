@@ -0,0 +1,123 @@
+#!/bin/bash
+# Compara tempo de subida e vazão em regime das imagens nativa, JVM (AppCDS) e JVM com CRaC.
+# Cada imagem sobe sozinha contra um Redis limpo, com os limites de CPU/memória do docker-compose
+# e as variáveis de compare-runtimes.env.
+#
+# A imagem CRaC restaura as propriedades gravadas no checkpoint e ignora as variáveis do docker run,
+# então é gerada aqui com build-jvm-crac.sh e compare-runtimes.env. Com CRAC_BUILD=0 o script usa a
+# CRAC_IMAGE existente, que deve ter sido gerada com o mesmo arquivo.
+#
+# Uso: ./compare-runtimes.sh
+# Variáveis: NATIVE_IMAGE, JVM_IMAGE, CRAC_IMAGE (vazia = pula), CRAC_BUILD, CPUS, MEMORY,
+#            WARMUP_SECONDS, DURATION_SECONDS, CONNECTIONS, STARTUP_TIMEOUT_SECONDS, CRAC_DOCKER_FLAGS
+# Requer docker, curl e wrk.
+
+set -euo pipefail
+
+NATIVE_IMAGE="${NATIVE_IMAGE:-api-payment-processor:latest}"
+JVM_IMAGE="${JVM_IMAGE:-api-payment-processor:jvm}"
+CRAC_IMAGE="${CRAC_IMAGE:-}"
+CRAC_BUILD="${CRAC_BUILD:-1}"
+CPUS="${CPUS:-0.35}"
+MEMORY="${MEMORY:-65m}"
+WARMUP_SECONDS="${WARMUP_SECONDS:-30}"
+DURATION_SECONDS="${DURATION_SECONDS:-60}"
+CONNECTIONS="${CONNECTIONS:-32}"
+STARTUP_TIMEOUT_SECONDS="${STARTUP_TIMEOUT_SECONDS:-60}"
+CRAC_DOCKER_FLAGS="${CRAC_DOCKER_FLAGS:---cap-add CHECKPOINT_RESTORE --cap-add SYS_PTRACE}"
+
+NETWORK="api-payment-processor-compare"
+# Mesmo nome de REDIS_HOST em compare-runtimes.env
+REDIS="api-payment-processor-compare-redis"
+APP_ENV="$(dirname "$0")/compare-runtimes.env"
+APP="api-payment-processor-compare-app"
+PORT=18089
+BASE_URL="http://127.0.0.1:${PORT}"
+
+for tool in docker curl wrk; do
+    command -v "$tool" >/dev/null || { echo "$tool não encontrado"; exit 1; }
+done
+
+# POST /payments com correlationId único por requisição (a deduplicação responderia 409)
+WRK_SCRIPT="$(mktemp)"
+cat > "$WRK_SCRIPT" <<'EOF'
+math.randomseed(os.time())
+wrk.method = "POST"
+wrk.headers["Content-Type"] = "application/json"
+local function uuid()
+    return (string.gsub("xxxxxxxx-xxxx-4xxx-yxxx-xxxxxxxxxxxx", "[xy]", function(c)
+        local v = (c == "x") and math.random(0, 15) or math.random(8, 11)
+        return string.format("%x", v)
+    end))
+end
+request = function()
+    return wrk.format(nil, "/payments", nil,
+        string.format('{"correlationId":"%s","amount":19.90}', uuid()))
+end
+EOF
+
+cleanup() {
+    docker rm -f "$APP" "$REDIS" >/dev/null 2>&1 || true
+    docker network rm "$NETWORK" >/dev/null 2>&1 || true
+    rm -f "$WRK_SCRIPT"
+}
+trap cleanup EXIT
+
+docker network create "$NETWORK" >/dev/null
+docker run -d --name "$REDIS" --network "$NETWORK" redis:7-alpine >/dev/null
+
+now_millis() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+# Mede do docker run até o primeiro GET /payments-summary com 200 e depois a vazão de POST /payments
+# extra_flags: flags do docker run; a imagem CRaC não recebe --env-file (usa o do checkpoint)
+measure() {
+    local label="$1" image="$2" extra_flags="$3"
+    docker exec "$REDIS" redis-cli FLUSHALL >/dev/null
+
+    local start ready deadline
+    start=$(now_millis)
+    deadline=$(( start + STARTUP_TIMEOUT_SECONDS * 1000 ))
+    # shellcheck disable=SC2086
+    docker run -d --name "$APP" --network "$NETWORK" -p "127.0.0.1:${PORT}:8089" \
+        --cpus "$CPUS" --memory "$MEMORY" $extra_flags \
+        "$image" >/dev/null
+    until curl -sf -o /dev/null "${BASE_URL}/payments-summary"; do
+        if [ "$(docker inspect -f '{{.State.Running}}' "$APP")" != "true" ]; then
+            echo "[$label] container encerrado na subida:"
+            docker logs --tail 20 "$APP"
+            docker rm -f "$APP" >/dev/null
+            return
+        fi
+        if [ "$(now_millis)" -ge "$deadline" ]; then
+            echo "[$label] sem resposta em ${STARTUP_TIMEOUT_SECONDS}s:"
+            docker logs --tail 20 "$APP"
+            docker rm -f "$APP" >/dev/null
+            return
+        fi
+        sleep 0.01
+    done
+    ready=$(now_millis)
+
+    wrk -t2 -c"$CONNECTIONS" -d"${WARMUP_SECONDS}s" -s "$WRK_SCRIPT" "$BASE_URL" >/dev/null
+    local result
+    result=$(wrk -t2 -c"$CONNECTIONS" -d"${DURATION_SECONDS}s" --latency -s "$WRK_SCRIPT" "$BASE_URL")
+
+    echo "=== $label ($image)"
+    echo "primeira resposta: $(( ready - start )) ms após o docker run"
+    docker logs "$APP" 2>&1 | grep -m1 -E "Started|Restored|restored" || true
+    echo "$result" | grep -E "Requests/sec|Non-2xx|Socket errors|^ +(50|99)%"
+    echo "memória: $(docker stats --no-stream --format '{{.MemUsage}}' "$APP")"
+    docker rm -f "$APP" >/dev/null
+}
+
+measure "nativa" "$NATIVE_IMAGE" "--env-file $APP_ENV"
+measure "jvm+appcds" "$JVM_IMAGE" "--env-file $APP_ENV"
+if [ -n "$CRAC_IMAGE" ]; then
+    if [ "$CRAC_BUILD" = "1" ]; then
+        CRAC_IMAGE="$CRAC_IMAGE" CRAC_DOCKER_FLAGS="$CRAC_DOCKER_FLAGS" \
+            "$(dirname "$0")/build-jvm-crac.sh" "$APP_ENV"
+    fi
+    measure "jvm+crac" "$CRAC_IMAGE" "$CRAC_DOCKER_FLAGS"
+fi
@@ -0,0 +1,117 @@
+package com.maal.apipaymentprocessor.adapter.out.redis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maal.apipaymentprocessor.domain.model.Payment;
+import com.maal.apipaymentprocessor.domain.model.PaymentStatus;
+import com.maal.apipaymentprocessor.domain.model.PaymentProcessorType;
+import com.maal.apipaymentprocessor.domain.model.SummaryWindow;
+import com.maal.apipaymentprocessor.infrastructure.codec.PaymentBinaryCodec;
+import com.maal.apipaymentprocessor.infrastructure.config.redis.RedisConfig;
+import com.maal.apipaymentprocessor.infrastructure.json.PaymentJsonCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodificação + filtro por janela + soma do resumo sobre listas de histórico pré-montadas em
+ * memória (o mesmo conteúdo que o LRANGE devolveria), sem Redis.
+ *
+ * {@code jacksonBigDecimal} reproduz o caminho original (ObjectMapper, stream e BigDecimal::add)
+ * como referência para os caminhos atuais em centavos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SummaryScanBenchmark {
+
+    private static final long HISTORY_START_MILLIS = Instant.parse("2025-07-15T12:00:00Z").toEpochMilli();
+    private static final long HISTORY_SPAN_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    @Param({"10000", "100000", "1000000"})
+    public int entries;
+
+    private List<byte[]> jsonEntries;
+    private List<byte[]> binaryEntries;
+    private SummaryWindow window;
+    private ObjectMapper objectMapper;
+    private PaymentHistoryDecoder decoder;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        jsonEntries = new ArrayList<>(entries);
+        binaryEntries = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++) {
+            Payment payment = new Payment(new UUID(random.nextLong(), random.nextLong()),
+                    random.nextLong(1, 100_000),
+                    Instant.ofEpochMilli(HISTORY_START_MILLIS + random.nextLong(HISTORY_SPAN_MILLIS)),
+                    random.nextBoolean() ? PaymentProcessorType.DEFAULT : PaymentProcessorType.FALLBACK,
+                    PaymentStatus.SUCCESS);
+            jsonEntries.add(PaymentJsonCodec.writePayment(payment).getBytes(StandardCharsets.UTF_8));
+            binaryEntries.add(PaymentBinaryCodec.encode(payment));
+        }
+        // Metade central da hora de histórico
+        window = new SummaryWindow(HISTORY_START_MILLIS + HISTORY_SPAN_MILLIS / 4,
+                HISTORY_START_MILLIS + 3 * HISTORY_SPAN_MILLIS / 4);
+        objectMapper = new RedisConfig().objectMapper();
+        decoder = new PaymentHistoryDecoder(objectMapper);
+    }
+
+    @Benchmark
+    public long[] codecJson() {
+        return sumCents(jsonEntries);
+    }
+
+    @Benchmark
+    public long[] codecBinary() {
+        return sumCents(binaryEntries);
+    }
+
+    @Benchmark
+    public BigDecimal jacksonBigDecimal() {
+        return jsonEntries.stream()
+                .map(this::readWithJackson)
+                .filter(Objects::nonNull)
+                .filter(p -> window.contains(p.getRequestedAt().toEpochMilli()))
+                .map(Payment::getAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    /** Mesmo laço de RedisPaymentHistoryScanReader: decodifica, filtra e soma sem reter pagamentos */
+    private long[] sumCents(List<byte[]> history) {
+        long[] totals = new long[2];
+        for (byte[] entry : history) {
+            Payment payment = decoder.decode(entry);
+            if (payment != null && window.contains(payment.getRequestedAt().toEpochMilli())) {
+                totals[0]++;
+                totals[1] += payment.getAmountCents();
+            }
+        }
+        return totals;
+    }
+
+    private Payment readWithJackson(byte[] json) {
+        try {
+            return objectMapper.readValue(json, Payment.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
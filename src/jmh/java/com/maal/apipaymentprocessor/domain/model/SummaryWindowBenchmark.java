@@ -0,0 +1,39 @@
+package com.maal.apipaymentprocessor.domain.model;
+
+import com.maal.apipaymentprocessor.infrastructure.json.PaymentJsonCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversão dos parâmetros from/to de GET /payments-summary e dos requestedAt do histórico.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SummaryWindowBenchmark {
+
+    private final String from = "2025-07-15T12:34:56.000Z";
+    private final String to = "2025-07-15T12:35:56.000Z";
+
+    @Benchmark
+    public SummaryWindow summaryWindowParse() {
+        return SummaryWindow.parse(from, to);
+    }
+
+    @Benchmark
+    public Instant instantParse() {
+        return Instant.parse(from);
+    }
+
+    @Benchmark
+    public Instant codecParseInstant() {
+        return PaymentJsonCodec.parseInstant(from, 0, from.length());
+    }
+}
@@ -0,0 +1,45 @@
+package com.maal.apipaymentprocessor.infrastructure.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maal.apipaymentprocessor.entrypoint.web.dto.PaymentRequest;
+import com.maal.apipaymentprocessor.infrastructure.config.redis.RedisConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leitura do corpo de POST /payments: codec escrito à mão x ObjectMapper da aplicação.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PaymentRequestParsingBenchmark {
+
+    private byte[] body;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        body = "{\"correlationId\":\"4a7901b8-7d26-4d9d-aa19-4dc1c7cf60b3\",\"amount\":19.90}"
+                .getBytes(StandardCharsets.UTF_8);
+        objectMapper = new RedisConfig().objectMapper();
+    }
+
+    @Benchmark
+    public PaymentRequest codec() {
+        return PaymentJsonCodec.readPaymentRequest(body);
+    }
+
+    @Benchmark
+    public PaymentRequest jackson() throws IOException {
+        return objectMapper.readValue(body, PaymentRequest.class);
+    }
+}
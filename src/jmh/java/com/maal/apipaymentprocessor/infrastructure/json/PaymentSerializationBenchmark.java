@@ -0,0 +1,58 @@
+package com.maal.apipaymentprocessor.infrastructure.json;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maal.apipaymentprocessor.domain.model.Payment;
+import com.maal.apipaymentprocessor.infrastructure.codec.PaymentBinaryCodec;
+import com.maal.apipaymentprocessor.infrastructure.codec.PaymentPayloadFormat;
+import com.maal.apipaymentprocessor.infrastructure.config.redis.RedisConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização do payload publicado na fila pelos publicadores (RedisPaymentQueuePublisher e afins):
+ * formatos JSON e binário da aplicação x ObjectMapper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PaymentSerializationBenchmark {
+
+    private Payment payment;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        payment = new Payment(UUID.randomUUID(), 1990, Instant.parse("2025-07-15T12:34:56.789Z"));
+        objectMapper = new RedisConfig().objectMapper();
+    }
+
+    @Benchmark
+    public byte[] jsonPayload() {
+        return PaymentPayloadFormat.JSON.encode(payment);
+    }
+
+    @Benchmark
+    public byte[] binaryPayload() {
+        return PaymentBinaryCodec.encode(payment);
+    }
+
+    @Benchmark
+    public String codecString() {
+        return PaymentJsonCodec.writePayment(payment);
+    }
+
+    @Benchmark
+    public String jackson() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(payment);
+    }
+}
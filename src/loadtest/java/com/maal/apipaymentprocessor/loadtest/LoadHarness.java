@@ -0,0 +1,261 @@
+package com.maal.apipaymentprocessor.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maal.apipaymentprocessor.ApiPaymentProcessorApplication;
+import com.maal.apipaymentprocessor.domain.model.Money;
+import com.maal.apipaymentprocessor.infrastructure.json.PaymentJsonCodec;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Teste de carga offline: sobe a aplicação em processo contra o {@link RespStandIn}, dispara
+ * POST /payments em malha aberta na taxa configurada, intercala auditorias de GET /payments-summary
+ * e, ao final, confere que o resumo bate com o que foi aceito.
+ *
+ * Malha aberta: cada requisição tem um instante de envio planejado e a latência é medida a partir
+ * dele, não do envio efetivo - se a aplicação travar, as requisições atrasadas contam o tempo de
+ * espera (sem "coordinated omission").
+ *
+ * Opções (além de qualquer propriedade da aplicação, ex.: --rinha.queue.publisher=batch):
+ * <pre>
+ *   --rate=500                    pagamentos por segundo
+ *   --duration-seconds=30         duração da carga
+ *   --audit-interval-millis=1000  intervalo entre auditorias do resumo (0 desabilita)
+ *   --fallback-ratio=0.1          fração dos pagamentos que o "worker" envia ao fallback
+ *   --replay=arquivo.jsonl        corpos de POST /payments (um JSON por linha) em vez de pagamentos aleatórios
+ *   --p99-target-millis=10        falha (exit 1) se o p99 dos pagamentos passar do alvo
+ * </pre>
+ */
+public final class LoadHarness {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final Options options;
+    private final HttpClient httpClient;
+    private final URI paymentsUri;
+    private final URI summaryUri;
+
+    private final Recorder paymentLatency = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+    private final Recorder summaryLatency = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder acceptedPayments = new LongAdder();
+    private final LongAdder acceptedCents = new LongAdder();
+    private final Map<String, LongAdder> failuresByStatus = new ConcurrentHashMap<>();
+
+    private LoadHarness(Options options, int serverPort) {
+        this.options = options;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.paymentsUri = URI.create("http://127.0.0.1:" + serverPort + "/payments");
+        this.summaryUri = URI.create("http://127.0.0.1:" + serverPort + "/payments-summary");
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        int exitCode;
+        try (RespStandIn redis = new RespStandIn(options.queueKey(), options.fallbackRatio());
+             ConfigurableApplicationContext application = new SpringApplicationBuilder(ApiPaymentProcessorApplication.class)
+                     .properties(
+                             "server.port=0",
+                             "spring.data.redis.host=127.0.0.1",
+                             "spring.data.redis.port=" + redis.port(),
+                             "rinha.queue.payments-main=" + options.queueKey(),
+                             "rinha.summary.mode=scan")
+                     .run(args)) {
+            int serverPort = Integer.parseInt(application.getEnvironment().getRequiredProperty("local.server.port"));
+            exitCode = new LoadHarness(options, serverPort).run();
+        }
+        System.exit(exitCode);
+    }
+
+    private int run() throws Exception {
+        List<String> bodies = options.replay() == null ? null : Files.readAllLines(options.replay(), StandardCharsets.UTF_8);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate();
+        long auditIntervalNanos = TimeUnit.MILLISECONDS.toNanos(options.auditIntervalMillis());
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(options.durationSeconds());
+        long nextAudit = auditIntervalNanos > 0 ? start + auditIntervalNanos : Long.MAX_VALUE;
+
+        System.out.printf("Carga: %d pagamentos/s por %ds%n", options.rate(), options.durationSeconds());
+        for (long sent = 0; ; sent++) {
+            long intended = start + sent * intervalNanos;
+            if (intended >= end || (bodies != null && sent >= bodies.size())) {
+                break;
+            }
+            while (nextAudit <= intended) {
+                sleepUntil(nextAudit);
+                sendSummaryAudit(nextAudit);
+                nextAudit += auditIntervalNanos;
+            }
+            sleepUntil(intended);
+            sendPayment(bodies == null ? randomPaymentBody() : bodies.get((int) sent), intended);
+        }
+
+        long drainDeadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+
+        Histogram payments = paymentLatency.getIntervalHistogram();
+        Histogram audits = summaryLatency.getIntervalHistogram();
+        printLatency("POST /payments", payments);
+        printLatency("GET /payments-summary", audits);
+        failuresByStatus.forEach((status, count) -> System.out.printf("Falhas %s: %d%n", status, count.sum()));
+
+        boolean consistent = checkConsistency();
+        boolean withinTarget = options.p99TargetMillis() <= 0
+                || payments.getValueAtPercentile(99) <= TimeUnit.MILLISECONDS.toMicros(options.p99TargetMillis());
+        if (!withinTarget) {
+            System.out.printf("p99 acima do alvo de %dms%n", options.p99TargetMillis());
+        }
+        return consistent && withinTarget ? 0 : 1;
+    }
+
+    private void sendPayment(String body, long intendedNanos) {
+        long cents = expectedCents(body);
+        HttpRequest request = HttpRequest.newBuilder(paymentsUri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        inFlight.incrementAndGet();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            paymentLatency.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, elapsedMicros(intendedNanos)));
+            if (error == null && response.statusCode() == 200) {
+                acceptedPayments.increment();
+                acceptedCents.add(cents);
+            } else {
+                countFailure(error == null ? Integer.toString(response.statusCode()) : error.getClass().getSimpleName());
+            }
+            inFlight.decrementAndGet();
+        });
+    }
+
+    private void sendSummaryAudit(long intendedNanos) {
+        HttpRequest request = HttpRequest.newBuilder(summaryUri).GET().build();
+        inFlight.incrementAndGet();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            summaryLatency.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, elapsedMicros(intendedNanos)));
+            if (error != null || response.statusCode() != 200) {
+                countFailure("summary " + (error == null ? response.statusCode() : error.getClass().getSimpleName()));
+            }
+            inFlight.decrementAndGet();
+        });
+    }
+
+    /**
+     * Compara o resumo final (default + fallback, sem janela) com os pagamentos que receberam 200.
+     */
+    private boolean checkConsistency() throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(summaryUri).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        JsonNode summary = new ObjectMapper().readTree(response.body());
+        long summaryRequests = 0;
+        long summaryCents = 0;
+        for (String processor : List.of("default", "fallback")) {
+            summaryRequests += summary.path(processor).path("totalRequests").asLong();
+            summaryCents += Money.toCents(new BigDecimal(summary.path(processor).path("totalAmount").asText("0")));
+        }
+        boolean consistent = summaryRequests == acceptedPayments.sum() && summaryCents == acceptedCents.sum();
+        System.out.printf("Consistência: aceitos=%d (%s) resumo=%d (%s) -> %s%n",
+                acceptedPayments.sum(), Money.toBigDecimal(acceptedCents.sum()),
+                summaryRequests, Money.toBigDecimal(summaryCents), consistent ? "OK" : "DIVERGENTE");
+        return consistent;
+    }
+
+    /** Valor que o resumo deve somar se o pagamento for aceito; corpos inválidos não devem ser aceitos */
+    private static long expectedCents(String body) {
+        try {
+            return PaymentJsonCodec.readPaymentRequest(body.getBytes(StandardCharsets.UTF_8)).getAmountCents();
+        } catch (RuntimeException e) {
+            return 0;
+        }
+    }
+
+    private void countFailure(String reason) {
+        failuresByStatus.computeIfAbsent(reason, r -> new LongAdder()).increment();
+    }
+
+    private static String randomPaymentBody() {
+        // Mesmo perfil do test_load.py: valores entre 10 e 1000 com duas casas
+        long cents = ThreadLocalRandom.current().nextLong(1_000, 100_001);
+        return "{\"correlationId\":\"" + UUID.randomUUID() + "\",\"amount\":"
+                + Money.appendDecimal(new StringBuilder(), cents) + "}";
+    }
+
+    private static void printLatency(String label, Histogram histogram) {
+        System.out.printf("%-22s n=%d p50=%.3fms p99=%.3fms p99.9=%.3fms max=%.3fms%n", label,
+                histogram.getTotalCount(),
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    private static long elapsedMicros(long sinceNanos) {
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sinceNanos);
+    }
+
+    private static void sleepUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    record Options(int rate, int durationSeconds, long auditIntervalMillis, double fallbackRatio,
+                   Path replay, long p99TargetMillis, String queueKey) {
+
+        static Options parse(String[] args) {
+            Map<String, String> values = new HashMap<>();
+            List<String> unknown = new ArrayList<>();
+            for (String arg : args) {
+                int separator = arg.indexOf('=');
+                if (arg.startsWith("--") && separator > 2) {
+                    values.put(arg.substring(2, separator), arg.substring(separator + 1));
+                } else {
+                    unknown.add(arg);
+                }
+            }
+            if (!unknown.isEmpty()) {
+                throw new IllegalArgumentException("Argumentos inválidos (use --chave=valor): " + unknown);
+            }
+            return new Options(
+                    Integer.parseInt(values.getOrDefault("rate", "500")),
+                    Integer.parseInt(values.getOrDefault("duration-seconds", "30")),
+                    Long.parseLong(values.getOrDefault("audit-interval-millis", "1000")),
+                    Double.parseDouble(values.getOrDefault("fallback-ratio", "0.1")),
+                    values.containsKey("replay") ? Path.of(values.get("replay")) : null,
+                    Long.parseLong(values.getOrDefault("p99-target-millis", "0")),
+                    values.getOrDefault("rinha.queue.payments-main", "rinha-payments-main-queue"));
+        }
+    }
+}
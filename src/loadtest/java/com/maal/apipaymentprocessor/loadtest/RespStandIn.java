@@ -0,0 +1,378 @@
+package com.maal.apipaymentprocessor.loadtest;
+
+import com.maal.apipaymentprocessor.infrastructure.codec.PaymentBinaryCodec;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Servidor em processo que fala o protocolo do Redis (RESP2) com o subconjunto de comandos usado
+ * pela API nos modos padrão (publicação direct/batch/async e resumo scan).
+ *
+ * Também faz o papel do async-worker: cada pagamento publicado na fila é imediatamente marcado
+ * como processado (SUCCESS, DEFAULT ou FALLBACK conforme {@code fallbackRatio}) e acrescentado à
+ * lista de histórico correspondente, então o resumo deve refletir tudo o que a API aceitou.
+ *
+ * EVAL/EVALSHA só emulam o script de enfileiramento com deduplicação (scripts/enqueue-payments.lua),
+ * reconhecido pelo conteúdo ou pelo SHA1; qualquer outro script responde NOSCRIPT/erro.
+ * MULTI/EXEC (sem WATCH) enfileira os comandos da conexão e os executa juntos, sem intercalar outras.
+ */
+final class RespStandIn implements AutoCloseable {
+
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final String ENQUEUE_SCRIPT = loadScript("scripts/enqueue-payments.lua");
+    private static final String ENQUEUE_SCRIPT_SHA = sha1(ENQUEUE_SCRIPT);
+
+    private final String queueKey;
+    private final double fallbackRatio;
+    private final ServerSocket serverSocket;
+    private final Map<String, List<byte[]>> lists = new HashMap<>();
+    private final Map<String, byte[]> strings = new HashMap<>();
+    private final Map<String, Set<String>> sets = new HashMap<>();
+
+    private volatile boolean running = true;
+
+    RespStandIn(String queueKey, double fallbackRatio) throws IOException {
+        this.queueKey = queueKey;
+        this.fallbackRatio = fallbackRatio;
+        this.serverSocket = new ServerSocket(0, 128, InetAddress.getLoopbackAddress());
+        Thread.ofPlatform().name("resp-stand-in-acceptor").daemon(true).start(this::acceptLoop);
+    }
+
+    int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverSocket.close();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Thread.ofVirtual().name("resp-stand-in-connection").start(() -> serve(socket));
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("Stand-in Redis: falha no accept: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             InputStream in = new BufferedInputStream(socket.getInputStream());
+             OutputStream out = new BufferedOutputStream(socket.getOutputStream())) {
+            List<List<byte[]>> transaction = null;
+            while (running) {
+                List<byte[]> command = readCommand(in);
+                if (command == null) {
+                    return;
+                }
+                String name = text(command.get(0)).toUpperCase(Locale.ROOT);
+                boolean keepOpen = true;
+                if (name.equals("MULTI")) {
+                    transaction = new ArrayList<>();
+                    writeSimple(out, "OK");
+                } else if (name.equals("EXEC") && transaction != null) {
+                    exec(transaction, out);
+                    transaction = null;
+                } else if (name.equals("DISCARD") && transaction != null) {
+                    transaction = null;
+                    writeSimple(out, "OK");
+                } else if (transaction != null) {
+                    transaction.add(command);
+                    writeSimple(out, "QUEUED");
+                } else {
+                    keepOpen = execute(command, out);
+                }
+                // Responde comandos em pipeline num único write
+                if (!keepOpen || in.available() == 0) {
+                    out.flush();
+                }
+                if (!keepOpen) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            // Conexão encerrada pelo cliente
+        }
+    }
+
+    private boolean execute(List<byte[]> command, OutputStream out) throws IOException {
+        String name = text(command.get(0)).toUpperCase(Locale.ROOT);
+        switch (name) {
+            case "PING" -> writeSimple(out, "PONG");
+            case "QUIT" -> {
+                writeSimple(out, "OK");
+                return false;
+            }
+            case "CLIENT", "SELECT" -> writeSimple(out, "OK");
+            case "RPUSH" -> writeInteger(out, rightPush(text(command.get(1)), command.subList(2, command.size())));
+            case "LLEN" -> writeInteger(out, length(text(command.get(1))));
+            case "LRANGE" -> writeArray(out, range(text(command.get(1)),
+                    Long.parseLong(text(command.get(2))), Long.parseLong(text(command.get(3)))));
+            case "GET" -> writeBulk(out, get(text(command.get(1))));
+            case "SET" -> {
+                set(text(command.get(1)), command.get(2));
+                writeSimple(out, "OK");
+            }
+            case "INCR" -> writeInteger(out, increment(text(command.get(1))));
+            case "DEL", "UNLINK" -> writeInteger(out, delete(command.subList(1, command.size())));
+            case "EVAL", "EVALSHA" -> {
+                String script = text(command.get(1));
+                if (name.equals("EVAL") ? !script.equals(ENQUEUE_SCRIPT) : !script.equalsIgnoreCase(ENQUEUE_SCRIPT_SHA)) {
+                    writeError(out, name.equals("EVAL") ? "ERR script não emulado" : "NOSCRIPT No matching script. Please use EVAL.");
+                } else {
+                    // EVAL script 3 fila ids-atuais ids-anteriores expiração pares...
+                    writeInteger(out, enqueueDeduplicated(text(command.get(3)), text(command.get(4)),
+                            text(command.get(5)), command.subList(7, command.size())));
+                }
+            }
+            // HELLO sem suporte faz o Lettuce cair para RESP2
+            default -> writeError(out, "ERR unknown command '" + name + "'");
+        }
+        return true;
+    }
+
+    /** Resposta do EXEC: os comandos enfileirados rodam sem intercalar com as outras conexões */
+    private synchronized void exec(List<List<byte[]>> transaction, OutputStream out) throws IOException {
+        out.write(('*' + Integer.toString(transaction.size()) + "\r\n").getBytes(StandardCharsets.UTF_8));
+        for (List<byte[]> command : transaction) {
+            execute(command, out);
+        }
+    }
+
+    private synchronized long rightPush(String key, List<byte[]> values) {
+        String shardSuffix = queueShardSuffix(key);
+        if (shardSuffix == null) {
+            List<byte[]> list = lists.computeIfAbsent(key, k -> new ArrayList<>());
+            list.addAll(values);
+            return list.size();
+        }
+        // Fila principal (ou uma partição dela): o "worker" consome na hora, então a fila fica sempre vazia
+        for (byte[] payment : values) {
+            boolean fallback = ThreadLocalRandom.current().nextDouble() < fallbackRatio;
+            String historyKey = (fallback ? "payments:history:fallback" : "payments:history:default") + shardSuffix;
+            lists.computeIfAbsent(historyKey, k -> new ArrayList<>()).add(processed(payment, fallback));
+        }
+        return values.size();
+    }
+
+    /**
+     * "" para a fila principal, ":{i}" para a partição i (rinha.queue.shards) e null para outras chaves.
+     */
+    private String queueShardSuffix(String key) {
+        if (key.equals(queueKey)) {
+            return "";
+        }
+        if (key.length() > queueKey.length() + 1 && key.startsWith(queueKey + ":")
+                && key.chars().skip(queueKey.length() + 1).allMatch(Character::isDigit)) {
+            return key.substring(queueKey.length());
+        }
+        return null;
+    }
+
+    /**
+     * Semântica de enqueue-payments.lua: SADD do correlationId na geração atual e RPUSH só quando ele
+     * não está em nenhuma das duas gerações (a expiração dos sets não é emulada).
+     */
+    private synchronized long enqueueDeduplicated(String queue, String acceptedIds, String previousIds,
+                                                  List<byte[]> arguments) {
+        Set<String> accepted = sets.computeIfAbsent(acceptedIds, k -> new HashSet<>());
+        Set<String> previous = sets.getOrDefault(previousIds, Set.of());
+        long duplicates = 0;
+        for (int i = 0; i + 1 < arguments.size(); i += 2) {
+            String correlationId = new String(arguments.get(i), StandardCharsets.ISO_8859_1);
+            if (!previous.contains(correlationId) && accepted.add(correlationId)) {
+                rightPush(queue, List.of(arguments.get(i + 1)));
+            } else {
+                duplicates++;
+            }
+        }
+        return duplicates;
+    }
+
+    private static byte[] processed(byte[] payment, boolean fallback) {
+        if (PaymentBinaryCodec.isBinary(payment)) {
+            byte[] copy = payment.clone();
+            copy[33] = (byte) (fallback ? 2 : 1);
+            copy[34] = 2;
+            return copy;
+        }
+        return text(payment)
+                .replace("\"paymentProcessorType\":null", "\"paymentProcessorType\":\"" + (fallback ? "FALLBACK" : "DEFAULT") + "\"")
+                .replace("\"status\":\"PENDING\"", "\"status\":\"SUCCESS\"")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private synchronized long length(String key) {
+        List<byte[]> list = lists.get(key);
+        return (list == null) ? 0 : list.size();
+    }
+
+    private synchronized List<byte[]> range(String key, long start, long end) {
+        List<byte[]> list = lists.get(key);
+        if (list == null) {
+            return List.of();
+        }
+        int size = list.size();
+        long from = Math.max(0, (start < 0) ? size + start : start);
+        long to = Math.min(size - 1L, (end < 0) ? size + end : end);
+        if (from > to) {
+            return List.of();
+        }
+        return new ArrayList<>(list.subList((int) from, (int) to + 1));
+    }
+
+    private synchronized byte[] get(String key) {
+        return strings.get(key);
+    }
+
+    private synchronized void set(String key, byte[] value) {
+        strings.put(key, value);
+    }
+
+    private synchronized long increment(String key) {
+        byte[] current = strings.get(key);
+        long value = (current == null) ? 1 : Long.parseLong(text(current)) + 1;
+        strings.put(key, Long.toString(value).getBytes(StandardCharsets.US_ASCII));
+        return value;
+    }
+
+    private synchronized long delete(List<byte[]> keys) {
+        long deleted = 0;
+        for (byte[] key : keys) {
+            String name = text(key);
+            if (lists.remove(name) != null | strings.remove(name) != null | sets.remove(name) != null) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    private static List<byte[]> readCommand(InputStream in) throws IOException {
+        int type = in.read();
+        if (type == -1) {
+            return null;
+        }
+        if (type != '*') {
+            throw new IOException("Comando RESP inesperado: " + (char) type);
+        }
+        int count = (int) readNumber(in);
+        List<byte[]> arguments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (in.read() != '$') {
+                throw new IOException("Argumento RESP inesperado");
+            }
+            int length = (int) readNumber(in);
+            byte[] argument = in.readNBytes(length);
+            if (argument.length != length) {
+                throw new EOFException();
+            }
+            in.skipNBytes(2);
+            arguments.add(argument);
+        }
+        return arguments;
+    }
+
+    private static long readNumber(InputStream in) throws IOException {
+        long value = 0;
+        boolean negative = false;
+        int c;
+        while ((c = in.read()) != '\r') {
+            if (c == -1) {
+                throw new EOFException();
+            }
+            if (c == '-') {
+                negative = true;
+            } else {
+                value = value * 10 + (c - '0');
+            }
+        }
+        in.read(); // '\n'
+        return negative ? -value : value;
+    }
+
+    private static void writeSimple(OutputStream out, String value) throws IOException {
+        out.write('+');
+        out.write(value.getBytes(StandardCharsets.UTF_8));
+        out.write(CRLF);
+    }
+
+    private static void writeError(OutputStream out, String message) throws IOException {
+        out.write('-');
+        out.write(message.getBytes(StandardCharsets.UTF_8));
+        out.write(CRLF);
+    }
+
+    private static void writeInteger(OutputStream out, long value) throws IOException {
+        out.write(':');
+        out.write(Long.toString(value).getBytes(StandardCharsets.UTF_8));
+        out.write(CRLF);
+    }
+
+    private static void writeBulk(OutputStream out, byte[] value) throws IOException {
+        if (value == null) {
+            out.write("$-1\r\n".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        out.write(('$' + Integer.toString(value.length) + "\r\n").getBytes(StandardCharsets.UTF_8));
+        out.write(value);
+        out.write(CRLF);
+    }
+
+    private static void writeArray(OutputStream out, List<byte[]> values) throws IOException {
+        out.write(('*' + Integer.toString(values.size()) + "\r\n").getBytes(StandardCharsets.UTF_8));
+        for (byte[] value : values) {
+            writeBulk(out, value);
+        }
+    }
+
+    private static String loadScript(String resource) {
+        try (InputStream in = RespStandIn.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Script não encontrado no classpath: " + resource);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String sha1(String script) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1").digest(script.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String text(byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -20,7 +20,8 @@ public class PaymentRequestMapperImpl implements PaymentRequestMapper {
         
         return new Payment(
                 request.getCorrelationId(),
-                request.getAmount(),
+                request.getAmountCents(),
+                request.getAmountScale(),
                 timestamp
         );
     }
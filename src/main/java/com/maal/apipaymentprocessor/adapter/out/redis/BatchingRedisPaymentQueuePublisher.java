@@ -0,0 +1,294 @@
+package com.maal.apipaymentprocessor.adapter.out.redis;
+
+import com.maal.apipaymentprocessor.domain.exception.PaymentProcessingException;
+import com.maal.apipaymentprocessor.domain.model.Payment;
+import com.maal.apipaymentprocessor.domain.port.out.OperationMetrics;
+import com.maal.apipaymentprocessor.domain.port.out.PaymentQueuePublisher;
+import com.maal.apipaymentprocessor.infrastructure.codec.PaymentPayloadFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Publicador em lote: o pagamento é serializado na thread da requisição e colocado num buffer
+ * local limitado e sem locks; uma única thread de flush esvazia o buffer a cada
+ * {@code max-size} itens ou {@code max-delay-micros} microssegundos com um único RPUSH de
+ * múltiplos valores, reduzindo as operações no Redis em uma ordem de grandeza sob rajadas.
+ *
+ * Quando o buffer está cheio a política configurada decide: BLOCK (espera espaço até o timeout),
+ * REJECT (falha a requisição com 503) ou CALLER_RUNS (publica direto na thread da requisição).
+ * No desligamento da aplicação o buffer é esvaziado antes da conexão com o Redis ser fechada;
+ * uma publicação que chega depois disso vai direto ao Redis, na thread da requisição.
+ *
+ * A deduplicação (rinha.dedupe.enabled) não é suportada: a requisição é confirmada antes de o
+ * lote chegar ao Redis, então uma repetição enviada à outra instância receberia 200 e seria
+ * descartada depois, e uma repetição publicada na hora poderia ultrapassar o original ainda no
+ * buffer. A subida falha se as duas opções estiverem ligadas.
+ *
+ * Com o journal local ligado (rinha.queue.spill.enabled) um lote que esgota as tentativas vai
+ * para o journal em vez de ser descartado, e enquanto houver pendências nele os lotes seguem
+ * direto para lá.
+ */
+@Component
+@ConditionalOnProperty(name = "rinha.queue.publisher", havingValue = "batch")
+public class BatchingRedisPaymentQueuePublisher implements PaymentQueuePublisher, SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchingRedisPaymentQueuePublisher.class);
+
+    private static final int FLUSH_ATTEMPTS = 3;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5_000;
+
+    /** Comportamento quando o buffer local está cheio */
+    public enum OverflowPolicy { BLOCK, REJECT, CALLER_RUNS }
+
+    private final PaymentPayloadFormat payloadFormat;
+    private final OperationMetrics operationMetrics;
+    private final RedisListPaymentQueueWriter queueWriter;
+    private final RedisPaymentSpillover spillover;
+    private final int capacity;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutNanos;
+
+    private final ConcurrentLinkedQueue<QueuedPayment> buffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger buffered = new AtomicInteger();
+    private final AtomicLong lostPayments = new AtomicLong();
+
+    private volatile boolean running;
+    private volatile Thread flusher;
+
+    public BatchingRedisPaymentQueuePublisher(@Value("${rinha.queue.format:json}") String payloadFormat,
+                                              @Value("${rinha.queue.batch.capacity:8192}") int capacity,
+                                              @Value("${rinha.queue.batch.max-size:64}") int maxBatchSize,
+                                              @Value("${rinha.queue.batch.max-delay-micros:500}") long maxDelayMicros,
+                                              @Value("${rinha.queue.batch.overflow-policy:CALLER_RUNS}") String overflowPolicy,
+                                              @Value("${rinha.queue.batch.block-timeout-millis:50}") long blockTimeoutMillis,
+                                              OperationMetrics operationMetrics,
+                                              RedisPaymentDeduplicator deduplicator,
+                                              RedisListPaymentQueueWriter queueWriter,
+                                              RedisPaymentSpillover spillover) {
+        if (deduplicator.isEnabled()) {
+            throw new IllegalStateException(
+                    "rinha.dedupe.enabled=true não é suportado com rinha.queue.publisher batch ou stream");
+        }
+        this.payloadFormat = PaymentPayloadFormat.fromProperty(payloadFormat);
+        this.queueWriter = queueWriter;
+        this.spillover = spillover;
+        this.capacity = capacity;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = TimeUnit.MICROSECONDS.toNanos(maxDelayMicros);
+        this.overflowPolicy = OverflowPolicy.valueOf(overflowPolicy.trim().toUpperCase(Locale.ROOT));
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMillis);
+        this.operationMetrics = operationMetrics;
+        // Reenvio do journal pelo mesmo caminho dos lotes (a subclasse do stream sobrescreve writeBatch)
+        spillover.replayWith(this::writeBatch);
+    }
+
+    @Override
+    public void publish(Payment payment) {
+        UUID correlationId = payment.getCorrelationId();
+        QueuedPayment queuedPayment = new QueuedPayment(correlationId, payloadFormat.encode(payment));
+        if (!running || !tryReserveSlot()) {
+            handleOverflow(queuedPayment);
+            return;
+        }
+        offerReserved(queuedPayment);
+        if (buffered.get() >= maxBatchSize) {
+            LockSupport.unpark(flusher);
+        }
+    }
+
+    /**
+     * Quantidade de pagamentos aceitos que não puderam ser enviados ao Redis.
+     */
+    public long getLostPayments() {
+        return lostPayments.get();
+    }
+
+    private boolean tryReserveSlot() {
+        int current;
+        do {
+            current = buffered.get();
+            if (current >= capacity) {
+                return false;
+            }
+        } while (!buffered.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private void handleOverflow(QueuedPayment queuedPayment) {
+        if (!running || overflowPolicy == OverflowPolicy.CALLER_RUNS) {
+            pushDirect(queuedPayment.correlationId(), queuedPayment.payload());
+            return;
+        }
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            long deadline = System.nanoTime() + blockTimeoutNanos;
+            while (System.nanoTime() < deadline) {
+                LockSupport.unpark(flusher);
+                LockSupport.parkNanos(this, maxDelayNanos);
+                if (tryReserveSlot()) {
+                    offerReserved(queuedPayment);
+                    return;
+                }
+            }
+        }
+        throw new PaymentProcessingException("Payment buffer is full (" + capacity + " pending payments)");
+    }
+
+    /**
+     * Coloca no buffer um pagamento com vaga já reservada. A reserva vem antes da nova leitura de
+     * {@code running}: se o flush ainda está ativo, o esvaziamento final espera a vaga reservada
+     * chegar ao buffer; se já parou, a vaga é devolvida e o pagamento vai direto ao Redis.
+     */
+    private void offerReserved(QueuedPayment queuedPayment) {
+        if (!running) {
+            buffered.decrementAndGet();
+            pushDirect(queuedPayment.correlationId(), queuedPayment.payload());
+            return;
+        }
+        buffer.offer(queuedPayment);
+    }
+
+    private void pushDirect(UUID correlationId, byte[] paymentPayload) {
+        try {
+            long start = System.nanoTime();
+            if (spillover.isEnabled()) {
+                spillover.writeOrSpill(correlationId, paymentPayload, () -> writeOne(correlationId, paymentPayload));
+            } else {
+                writeOne(correlationId, paymentPayload);
+            }
+            operationMetrics.recordNanos(OperationMetrics.Timer.REDIS_COMMAND, System.nanoTime() - start);
+        } catch (PaymentProcessingException e) {
+            // Redis fora e journal local cheio
+            operationMetrics.increment(OperationMetrics.Counter.PUBLISH_FAILURES, 1);
+            throw e;
+        } catch (Exception e) {
+            operationMetrics.increment(OperationMetrics.Counter.PUBLISH_FAILURES, 1);
+            logger.warn("Payment publishing failed", e);
+            throw new PaymentProcessingException("Failed to publish payment to Redis queue: " + e.getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Escreve um pagamento na fila, na thread da requisição.
+     */
+    void writeOne(UUID correlationId, byte[] paymentPayload) {
+        queueWriter.writeOne(correlationId, paymentPayload);
+    }
+
+    /**
+     * Escreve um lote na fila com um único comando (um por partição, com a fila particionada).
+     */
+    void writeBatch(List<QueuedPayment> batch) {
+        queueWriter.writeBatch(batch);
+    }
+
+    private void flushLoop() {
+        while (running) {
+            if (buffered.get() < maxBatchSize) {
+                LockSupport.parkNanos(this, maxDelayNanos);
+            }
+            flushAvailable();
+        }
+        // Desligamento: esvazia o que restou no buffer, inclusive vagas reservadas antes da parada
+        while (buffered.get() > 0) {
+            flushAvailable();
+        }
+    }
+
+    private void flushAvailable() {
+        List<QueuedPayment> batch = new ArrayList<>(maxBatchSize);
+        QueuedPayment queuedPayment;
+        while (batch.size() < maxBatchSize && (queuedPayment = buffer.poll()) != null) {
+            batch.add(queuedPayment);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        buffered.addAndGet(-batch.size());
+
+        if (spillover.hasBacklog()) {
+            // Redis ainda não drenou o journal: não espera o timeout de novo
+            spillToJournal(batch);
+            return;
+        }
+        for (int attempt = 1; attempt <= FLUSH_ATTEMPTS; attempt++) {
+            try {
+                long start = System.nanoTime();
+                writeBatch(batch);
+                operationMetrics.recordNanos(OperationMetrics.Timer.REDIS_COMMAND, System.nanoTime() - start);
+                return;
+            } catch (Exception e) {
+                logger.warn("Batch publishing failed (attempt {}/{}): {}", attempt, FLUSH_ATTEMPTS, e.getMessage());
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10L * attempt));
+            }
+        }
+        if (spillover.isEnabled()) {
+            spillToJournal(batch);
+            return;
+        }
+        lostPayments.addAndGet(batch.size());
+        operationMetrics.increment(OperationMetrics.Counter.PUBLISH_FAILURES, batch.size());
+        logger.error("Descartando lote de {} pagamentos após {} tentativas", batch.size(), FLUSH_ATTEMPTS);
+    }
+
+    private void spillToJournal(List<QueuedPayment> batch) {
+        int rejected = spillover.spillAll(batch);
+        if (rejected > 0) {
+            lostPayments.addAndGet(rejected);
+            operationMetrics.increment(OperationMetrics.Counter.PUBLISH_FAILURES, rejected);
+            logger.error("Journal local cheio: descartando {} pagamentos", rejected);
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        flusher = Thread.ofPlatform().name("payment-batch-flusher").daemon(true).start(this::flushLoop);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread current = flusher;
+        if (current == null) {
+            return;
+        }
+        LockSupport.unpark(current);
+        try {
+            current.join(SHUTDOWN_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (buffered.get() > 0) {
+            logger.error("{} pagamentos ficaram no buffer após o desligamento", buffered.get());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Para depois do servidor web (sem novas requisições) e antes da fábrica de conexões do Redis.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
@@ -0,0 +1,124 @@
+package com.maal.apipaymentprocessor.adapter.out.redis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maal.apipaymentprocessor.domain.model.Payment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incorpora de forma incremental as entradas novas das listas "payments:history:*"
+ * (escritas pelo async-worker) em uma estrutura derivada (buckets agregados, índice temporal...).
+ *
+ * Um cursor no Redis guarda quantas entradas da lista já foram incorporadas. Cada lote é lido
+ * sob WATCH do cursor e aplicado junto com o avanço do cursor em MULTI/EXEC, então duas instâncias
+ * da API incorporando ao mesmo tempo nunca aplicam o mesmo lote duas vezes.
+ */
+final class HistoryListTailFolder {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoryListTailFolder.class);
+
+    private static final int MAX_FOLD_CONFLICTS = 3;
+
+    /**
+     * Escreve na estrutura derivada os pagamentos de um lote. Chamado dentro de MULTI,
+     * portanto os comandos são apenas enfileirados e os retornos são nulos.
+     * {@code positions[i]} é a posição na lista da entrada de {@code payments.get(i)}.
+     */
+    @FunctionalInterface
+    interface BatchWriter {
+        void write(RedisOperations<String, String> operations, List<Payment> payments, long[] positions);
+    }
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final PaymentHistoryDecoder decoder;
+    private final int batchSize;
+
+    HistoryListTailFolder(RedisTemplate<String, String> redisTemplate, ObjectMapper objectMapper, int batchSize) {
+        this.redisTemplate = redisTemplate;
+        this.decoder = new PaymentHistoryDecoder(objectMapper);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Incorpora todas as entradas pendentes de uma lista de histórico.
+     * @param historyKey lista de histórico (do processador ou de uma partição dele)
+     * @param cursorKey chave do cursor da estrutura derivada
+     * @param writer escrita dos pagamentos de cada lote
+     */
+    void fold(String historyKey, String cursorKey, BatchWriter writer) {
+        int conflicts = 0;
+        while (conflicts < MAX_FOLD_CONFLICTS) {
+            FoldResult result = redisTemplate.execute(new FoldBatchCallback(historyKey, cursorKey, writer));
+            if (result == FoldResult.DONE) {
+                return;
+            }
+            if (result == FoldResult.CONFLICT) {
+                // Outra instância avançou o cursor ao mesmo tempo; tenta de novo a partir do novo valor
+                conflicts++;
+            }
+        }
+        logger.warn("Incorporação do histórico de {} em {} não convergiu após {} conflitos; resumo pode estar defasado",
+                historyKey, cursorKey, MAX_FOLD_CONFLICTS);
+    }
+
+    private enum FoldResult { DONE, FOLDED, CONFLICT }
+
+    private final class FoldBatchCallback implements SessionCallback<FoldResult> {
+
+        private final byte[] historyKey;
+        private final String cursorKey;
+        private final BatchWriter writer;
+
+        private FoldBatchCallback(String historyKey, String cursorKey, BatchWriter writer) {
+            this.historyKey = historyKey.getBytes(StandardCharsets.UTF_8);
+            this.cursorKey = cursorKey;
+            this.writer = writer;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <K, V> FoldResult execute(RedisOperations<K, V> operations) throws DataAccessException {
+            RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+
+            ops.watch(cursorKey);
+            String cursorValue = ops.opsForValue().get(cursorKey);
+            long cursor = (cursorValue == null) ? 0 : Long.parseLong(cursorValue);
+            // Lê as entradas brutas: o histórico pode conter JSON e payloads binários
+            List<byte[]> entries = ops.execute((RedisCallback<List<byte[]>>) connection ->
+                    connection.listCommands().lRange(historyKey, cursor, cursor + batchSize - 1));
+            if (entries == null || entries.isEmpty()) {
+                ops.unwatch();
+                return FoldResult.DONE;
+            }
+
+            List<Payment> payments = new ArrayList<>(entries.size());
+            long[] positions = new long[entries.size()];
+            for (int i = 0; i < entries.size(); i++) {
+                Payment payment = decoder.decode(entries.get(i));
+                if (payment != null) {
+                    positions[payments.size()] = cursor + i;
+                    payments.add(payment);
+                }
+            }
+
+            ops.multi();
+            writer.write(ops, payments, positions);
+            ops.opsForValue().set(cursorKey, Long.toString(cursor + entries.size()));
+            List<Object> committed = ops.exec();
+
+            if (committed == null || committed.isEmpty()) {
+                return FoldResult.CONFLICT;
+            }
+            return entries.size() < batchSize ? FoldResult.DONE : FoldResult.FOLDED;
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.maal.apipaymentprocessor.adapter.out.redis;
+
+import com.maal.apipaymentprocessor.domain.exception.DuplicatePaymentException;
+import com.maal.apipaymentprocessor.domain.exception.PaymentProcessingException;
+import com.maal.apipaymentprocessor.domain.model.Payment;
+import com.maal.apipaymentprocessor.domain.port.out.OperationMetrics;
+import com.maal.apipaymentprocessor.domain.port.out.PaymentQueuePublisher;
+import com.maal.apipaymentprocessor.infrastructure.codec.PaymentPayloadFormat;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publicador assíncrono usando a API async do Lettuce numa conexão dedicada.
+ *
+ * O RPUSH é despachado sem esperar a resposta do Redis: a requisição é confirmada assim que o
+ * comando entra na fila de escrita do Lettuce (que o reenvia após reconexões). A resposta é
+ * tratada em callback, contabilizando sucessos e falhas. Um semáforo limita a quantidade de
+ * comandos em voo; esgotado o limite por mais que {@code acquire-timeout-millis}, a requisição
+ * falha com 503 em vez de acumular memória sem limite.
+ *
+ * Com a deduplicação ligada o publicador deixa de confirmar antes do Redis: cada requisição
+ * espera a resposta do script de enfileiramento (EVALSHA, com EVAL se o Redis perdeu o script),
+ * enviado pela mesma conexão dedicada, e uma repetição responde 409. O caminho sem espera só
+ * existe com a deduplicação desligada.
+ *
+ * O journal local (rinha.queue.spill.enabled=true) é obrigatório neste modo, e a subida falha sem
+ * ele: o 200 sai antes de o Redis confirmar, então um comando que falha depois disso, o limite de
+ * comandos em voo esgotado e pendências ainda não drenadas levam o pagamento ao journal em vez de
+ * perdê-lo ou responder 503. Só uma queda da instância com comandos ainda em voo (no máximo
+ * {@code max-in-flight}) perde pagamentos confirmados. Como a gravação no journal pode esperar o
+ * arquivo, o publicador sempre informa que bloqueia quem chama.
+ *
+ * A conexão é aberta no start e fechada no stop do ciclo de vida, depois dos comandos em voo: num
+ * checkpoint CRaC nenhum socket fica aberto e a conexão é refeita na restauração.
+ */
+@Component
+@ConditionalOnProperty(name = "rinha.queue.publisher", havingValue = "async")
+public class LettuceAsyncPaymentQueuePublisher implements PaymentQueuePublisher, SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(LettuceAsyncPaymentQueuePublisher.class);
+
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5_000;
+
+    private final RedisClient ingestRedisClient;
+    private volatile StatefulRedisConnection<String, byte[]> connection;
+    private volatile RedisAsyncCommands<String, byte[]> asyncCommands;
+    private final PaymentPayloadFormat payloadFormat;
+    private final OperationMetrics operationMetrics;
+    private final RedisPaymentDeduplicator deduplicator;
+    private final RedisPaymentSpillover spillover;
+    private final PaymentQueueShards queueShards;
+    private final String dedupeScript;
+    private final String dedupeScriptSha;
+    private final int maxInFlight;
+    private final long acquireTimeoutMillis;
+    private final Semaphore inFlight;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private volatile boolean running;
+
+    public LettuceAsyncPaymentQueuePublisher(RedisClient ingestRedisClient,
+                                             @Value("${rinha.queue.format:json}") String payloadFormat,
+                                             @Value("${rinha.queue.async.max-in-flight:1024}") int maxInFlight,
+                                             @Value("${rinha.queue.async.acquire-timeout-millis:20}") long acquireTimeoutMillis,
+                                             OperationMetrics operationMetrics,
+                                             RedisPaymentDeduplicator deduplicator,
+                                             RedisPaymentSpillover spillover,
+                                             PaymentQueueShards queueShards) {
+        if (!spillover.isEnabled()) {
+            throw new IllegalStateException(
+                    "rinha.queue.publisher=async exige o journal local (rinha.queue.spill.enabled=true)");
+        }
+        this.ingestRedisClient = ingestRedisClient;
+        this.payloadFormat = PaymentPayloadFormat.fromProperty(payloadFormat);
+        this.maxInFlight = maxInFlight;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.operationMetrics = operationMetrics;
+        this.deduplicator = deduplicator;
+        this.spillover = spillover;
+        this.queueShards = queueShards;
+        this.dedupeScript = deduplicator.script().getScriptAsString();
+        this.dedupeScriptSha = deduplicator.script().getSha1();
+    }
+
+    @Override
+    public void publish(Payment payment) {
+        UUID correlationId = payment.getCorrelationId();
+        byte[] paymentPayload = payloadFormat.encode(payment);
+        int shard = queueShards.shardOf(correlationId);
+
+        if (deduplicator.isEnabled()) {
+            enqueueNow(shard, correlationId, paymentPayload);
+            return;
+        }
+        if (spillover.hasBacklog()) {
+            spill(correlationId, paymentPayload);
+            return;
+        }
+        if (!acquireInFlightSlot()) {
+            spill(correlationId, paymentPayload);
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            asyncCommands.rpush(queueShards.queueKey(shard), paymentPayload).whenComplete((queueLength, error) -> {
+                inFlight.release();
+                operationMetrics.recordNanos(OperationMetrics.Timer.REDIS_COMMAND, System.nanoTime() - start);
+                if (error == null) {
+                    published.increment();
+                } else if (!spillAfterFailure(correlationId, paymentPayload)) {
+                    failed.increment();
+                    operationMetrics.increment(OperationMetrics.Counter.PUBLISH_FAILURES, 1);
+                    logger.error("Pagamento {} confirmado e perdido: o Redis falhou ({}) e o journal local está cheio",
+                            correlationId, error.getMessage());
+                }
+            });
+        } catch (Exception e) {
+            inFlight.release();
+            failed.increment();
+            operationMetrics.increment(OperationMetrics.Counter.PUBLISH_FAILURES, 1);
+            throw new PaymentProcessingException("Failed to publish payment to Redis queue: " + e.getMessage(), e);
+        }
+    }
+
+    private CompletionStage<Long> enqueueDeduplicated(int shard, UUID correlationId, byte[] paymentPayload) {
+        String[] keys = deduplicator.scriptKeys(queueShards.queueKey(shard));
+        byte[][] arguments = {deduplicator.ttlArgument(), RedisPaymentDeduplicator.correlationIdBytes(correlationId), paymentPayload};
+        return asyncCommands.<Long>evalsha(dedupeScriptSha, ScriptOutputType.INTEGER, keys, arguments)
+                .exceptionallyCompose(error -> isNoScript(error)
+                        ? asyncCommands.<Long>eval(dedupeScript, ScriptOutputType.INTEGER, keys, arguments)
+                        : CompletableFuture.failedFuture(error));
+    }
+
+    private static boolean isNoScript(Throwable error) {
+        Throwable cause = (error instanceof CompletionException && error.getCause() != null) ? error.getCause() : error;
+        return cause.getMessage() != null && cause.getMessage().startsWith("NOSCRIPT");
+    }
+
+    /**
+     * Caminho síncrono da deduplicação: espera a resposta do script, enviado pela conexão dedicada.
+     * Com o Redis fora o pagamento vai para o journal e a repetição só é descartada no reenvio.
+     */
+    private void enqueueNow(int shard, UUID correlationId, byte[] paymentPayload) {
+        Runnable write = () -> deduplicator.rejectIfDuplicate(correlationId,
+                await(enqueueDeduplicated(shard, correlationId, paymentPayload)));
+        try {
+            long start = System.nanoTime();
+            if (spillover.writeOrSpill(correlationId, paymentPayload, write)) {
+                published.increment();
+            }
+            operationMetrics.recordNanos(OperationMetrics.Timer.REDIS_COMMAND, System.nanoTime() - start);
+        } catch (DuplicatePaymentException e) {
+            throw e;
+        } catch (PaymentProcessingException e) {
+            // Redis fora e journal local cheio
+            failed.increment();
+            operationMetrics.increment(OperationMetrics.Counter.PUBLISH_FAILURES, 1);
+            throw e;
+        } catch (Exception e) {
+            failed.increment();
+            operationMetrics.increment(OperationMetrics.Counter.PUBLISH_FAILURES, 1);
+            throw new PaymentProcessingException("Failed to publish payment to Redis queue: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Espera a resposta de um comando; o timeout da conexão de ingestão limita a espera.
+     */
+    private static Long await(CompletionStage<Long> command) {
+        try {
+            return command.toCompletableFuture().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void spill(UUID correlationId, byte[] paymentPayload) {
+        try {
+            spillover.spill(correlationId, paymentPayload);
+        } catch (PaymentProcessingException e) {
+            failed.increment();
+            operationMetrics.increment(OperationMetrics.Counter.PUBLISH_FAILURES, 1);
+            throw e;
+        }
+    }
+
+    /**
+     * Leva ao journal um pagamento cujo comando falhou depois de a requisição ter sido confirmada.
+     * @return false se o journal estiver cheio
+     */
+    private boolean spillAfterFailure(UUID correlationId, byte[] paymentPayload) {
+        try {
+            spillover.spill(correlationId, paymentPayload);
+            return true;
+        } catch (PaymentProcessingException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return false se o limite de comandos em voo continuou esgotado por {@code acquire-timeout-millis}
+     */
+    private boolean acquireInFlightSlot() {
+        if (acquireTimeoutMillis <= 0) {
+            return inFlight.tryAcquire();
+        }
+        try {
+            return inFlight.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentProcessingException("Interrupted while waiting for Redis capacity", e);
+        }
+    }
+
+    /** Pagamentos confirmados pelo Redis */
+    public long getPublished() {
+        return published.sum();
+    }
+
+    /** Pagamentos aceitos cuja escrita no Redis falhou */
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    /** Comandos despachados aguardando resposta do Redis */
+    public int getInFlight() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    @Override
+    public void start() {
+        connection = ingestRedisClient.connect(RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE));
+        asyncCommands = connection.async();
+        running = true;
+    }
+
+    /**
+     * Aguarda as respostas dos comandos em voo e fecha a conexão dedicada.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            if (inFlight.tryAcquire(maxInFlight, SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                inFlight.release(maxInFlight);
+            } else {
+                logger.error("{} pagamentos ainda em voo para o Redis no desligamento", getInFlight());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        StatefulRedisConnection<String, byte[]> current = connection;
+        if (current != null) {
+            current.close();
+            connection = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
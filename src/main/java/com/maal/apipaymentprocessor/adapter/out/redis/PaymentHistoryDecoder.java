@@ -0,0 +1,57 @@
+package com.maal.apipaymentprocessor.adapter.out.redis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maal.apipaymentprocessor.domain.model.Payment;
+import com.maal.apipaymentprocessor.infrastructure.codec.PaymentBinaryCodec;
+import com.maal.apipaymentprocessor.infrastructure.json.PaymentJsonCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+
+/**
+ * Decodifica entradas do histórico de pagamentos nos dois formatos aceitos durante a migração:
+ * binário versionado ({@link PaymentBinaryCodec}) e JSON ({@link PaymentJsonCodec}).
+ * Entradas JSON que o codec não reconhece (formato inesperado gravado pelo async-worker)
+ * ainda passam pelo ObjectMapper antes de serem descartadas.
+ */
+final class PaymentHistoryDecoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentHistoryDecoder.class);
+
+    private final ObjectMapper objectMapper;
+
+    PaymentHistoryDecoder(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @return o pagamento, ou null se a entrada não puder ser lida
+     */
+    Payment decode(byte[] entry) {
+        if (PaymentBinaryCodec.isBinary(entry)) {
+            try {
+                return PaymentBinaryCodec.decode(entry);
+            } catch (IllegalArgumentException e) {
+                logger.error("Falha ao decodificar pagamento binário ({} bytes): {}", entry.length, e.getMessage());
+                return null;
+            }
+        }
+        try {
+            return PaymentJsonCodec.readPayment(entry);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            return decodeWithJackson(entry);
+        }
+    }
+
+    private Payment decodeWithJackson(byte[] json) {
+        try {
+            return objectMapper.readValue(json, Payment.class);
+        } catch (IOException e) {
+            logger.error("Falha ao deserializar pagamento do JSON: {}", new String(json, StandardCharsets.UTF_8), e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.maal.apipaymentprocessor.adapter.out.redis;
+
+import com.maal.apipaymentprocessor.domain.model.PaymentProcessorType;
+
+import java.util.Locale;
+
+/**
+ * Nomes das chaves Redis do histórico de pagamentos e das estruturas derivadas.
+ * As listas "payments:history:*" são escritas pelo async-worker (RPUSH, append-only).
+ */
+final class PaymentHistoryKeys {
+
+    private PaymentHistoryKeys() {
+    }
+
+    static String processorName(PaymentProcessorType processorType) {
+        return processorType.name().toLowerCase(Locale.ROOT);
+    }
+
+    /** Lista bruta com o JSON de cada pagamento processado */
+    static String historyList(PaymentProcessorType processorType) {
+        return "payments:history:" + processorName(processorType);
+    }
+
+    /** Set com os correlationIds (16 bytes) aceitos por POST /payments numa geração da deduplicação */
+    static String acceptedCorrelationIds(long generation) {
+        return "payments:correlation-ids:" + generation;
+    }
+
+    /** Contador incrementado a cada purge do histórico; invalida os caches locais de todas as instâncias */
+    static String purgeEpoch() {
+        return "payments:purge:epoch";
+    }
+
+    /** Sorted set do histórico indexado por tempo (score = requestedAt em epoch millis) */
+    static String timeIndex(PaymentProcessorType processorType) {
+        return historyList(processorType) + ":by-time";
+    }
+
+    /** Quantidade de entradas da lista já copiadas para o índice temporal */
+    static String timeIndexCursor(PaymentProcessorType processorType) {
+        return timeIndex(processorType) + ":cursor";
+    }
+
+    /** Quantidade de entradas da lista já incorporadas aos buckets agregados */
+    static String aggregateCursor(PaymentProcessorType processorType) {
+        return "payments:summary:" + processorName(processorType) + ":cursor";
+    }
+
+    /** Sorted set com os segundos (epoch) que possuem bucket agregado */
+    static String aggregateSeconds(PaymentProcessorType processorType) {
+        return "payments:summary:" + processorName(processorType) + ":seconds";
+    }
+
+    /** Hash com os totais de um segundo e de cada milissegundo dentro dele */
+    static String aggregateBucket(PaymentProcessorType processorType, long epochSecond) {
+        return "payments:summary:" + processorName(processorType) + ":s:" + epochSecond;
+    }
+
+    /** Sorted set com os segundos (epoch) que possuem rollup do histórico compactado */
+    static String rollupSeconds(PaymentProcessorType processorType) {
+        return "payments:rollup:" + processorName(processorType) + ":seconds";
+    }
+
+    /** Hash com os totais compactados de um segundo e de cada milissegundo dentro dele */
+    static String rollupBucket(PaymentProcessorType processorType, long epochSecond) {
+        return rollupBucketPrefix(processorType) + epochSecond;
+    }
+
+    static String rollupBucketPrefix(PaymentProcessorType processorType) {
+        return "payments:rollup:" + processorName(processorType) + ":s:";
+    }
+
+    /** Contador incrementado a cada lote compactado; o resumo o usa para detectar compactações concorrentes */
+    static String rollupVersion() {
+        return "payments:rollup:version";
+    }
+
+    /** Lease da instância líder da compactação (valor = token da instância) */
+    static String compactionLeader() {
+        return "payments:history:compaction:leader";
+    }
+
+    /** Lease de quem está calculando o resumo da janela (valor = token do cálculo) */
+    static String summaryFlightLease(long fromMillis, long toMillis) {
+        return "payments:summary:flight:" + fromMillis + ":" + toMillis;
+    }
+
+    /** Resultado publicado pelo cálculo identificado pelo token */
+    static String summaryFlightResult(String token) {
+        return "payments:summary:flight-result:" + token;
+    }
+}
@@ -0,0 +1,126 @@
+package com.maal.apipaymentprocessor.adapter.out.redis;
+
+import com.maal.apipaymentprocessor.domain.model.PaymentProcessorType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Particionamento da fila principal em N listas (rinha.queue.shards), para que vários
+ * async-workers consumam partições disjuntas em vez de disputarem uma única chave.
+ *
+ * Com uma partição (padrão) as chaves são as de sempre. Com N > 1 a partição i usa a fila
+ * "{fila principal}:{i}" e o worker que a consome grava o histórico em
+ * "payments:history:{processador}:{i}"; os leitores do resumo somam as N listas de cada processador.
+ * A quantidade de partições é gravada na subida em "{fila principal}:shards" para os workers.
+ *
+ * A partição sai do hash do correlationId (mesmo id, mesma fila) ou de um round-robin.
+ * Só vale para as filas em lista: o modo stream escala com o grupo de consumidores.
+ */
+@Component
+public class PaymentQueueShards implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentQueueShards.class);
+
+    /** Escolha da partição de cada pagamento */
+    public enum Strategy { HASH, ROUND_ROBIN }
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final String shardCountKey;
+    private final String[] queueKeys;
+    private final Strategy strategy;
+    private final AtomicInteger nextShard = new AtomicInteger();
+
+    public PaymentQueueShards(RedisTemplate<String, String> redisTemplate,
+                              @Value("${rinha.queue.payments-main}") String paymentsMainQueueName,
+                              @Value("${rinha.queue.shards:1}") int shards,
+                              @Value("${rinha.queue.shard-strategy:hash}") String strategy) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("rinha.queue.shards deve ser >= 1: " + shards);
+        }
+        this.redisTemplate = redisTemplate;
+        this.shardCountKey = paymentsMainQueueName + ":shards";
+        this.strategy = Strategy.valueOf(strategy.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        this.queueKeys = new String[shards];
+        for (int shard = 0; shard < shards; shard++) {
+            queueKeys[shard] = shardKey(paymentsMainQueueName, shard, shards);
+        }
+    }
+
+    public int count() {
+        return queueKeys.length;
+    }
+
+    /** Fila em que o pagamento deve ser publicado */
+    public String queueKey(UUID correlationId) {
+        return queueKeys[shardOf(correlationId)];
+    }
+
+    public String queueKey(int shard) {
+        return queueKeys[shard];
+    }
+
+    int shardOf(UUID correlationId) {
+        if (queueKeys.length == 1) {
+            return 0;
+        }
+        if (strategy == Strategy.ROUND_ROBIN) {
+            return Math.floorMod(nextShard.getAndIncrement(), queueKeys.length);
+        }
+        return Math.floorMod(mix(correlationId.getMostSignificantBits() ^ correlationId.getLeastSignificantBits()),
+                queueKeys.length);
+    }
+
+    /** Listas de histórico do processador, uma por partição */
+    List<String> historyLists(PaymentProcessorType processorType) {
+        List<String> lists = new ArrayList<>(queueKeys.length);
+        for (int shard = 0; shard < queueKeys.length; shard++) {
+            lists.add(shardKey(PaymentHistoryKeys.historyList(processorType), shard));
+        }
+        return lists;
+    }
+
+    /** Chave derivada da partição (fila, histórico ou cursor); sem particionamento é a própria chave */
+    String shardKey(String baseKey, int shard) {
+        return shardKey(baseKey, shard, queueKeys.length);
+    }
+
+    private static String shardKey(String baseKey, int shard, int shards) {
+        return (shards == 1) ? baseKey : baseKey + ":" + shard;
+    }
+
+    /** Finalizador do MurmurHash3: espalha bem mesmo ids com bits pouco variados */
+    private static int mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return (int) value;
+    }
+
+    /**
+     * Publica a quantidade de partições para os workers. Falhas não impedem a subida.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            redisTemplate.opsForValue().set(shardCountKey, Integer.toString(queueKeys.length));
+            if (queueKeys.length > 1) {
+                logger.info("Fila de pagamentos particionada em {} filas ({})", queueKeys.length, strategy);
+            }
+        } catch (Exception e) {
+            logger.warn("Não foi possível gravar {} no Redis: {}", shardCountKey, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.maal.apipaymentprocessor.adapter.out.redis;
+
+import com.maal.apipaymentprocessor.domain.model.Payment;
+import com.maal.apipaymentprocessor.domain.model.PaymentProcessorType;
+import com.maal.apipaymentprocessor.domain.model.PaymentTotals;
+import com.maal.apipaymentprocessor.domain.model.SummaryWindow;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Totais de pagamentos agrupados por segundo, usados pelos agregados (rinha.summary.mode=aggregate)
+ * e pelas rollups da compactação do histórico.
+ *
+ * Cada segundo com pagamentos tem um hash com os totais do segundo (campos "c" e "a", quantidade
+ * e valor em centavos) e os totais de cada milissegundo dentro dele ("c{ms}" e "a{ms}"). Os
+ * segundos existentes ficam indexados num sorted set, então uma consulta [from, to) soma os
+ * segundos inteiros contidos na janela e só olha os milissegundos dos (no máximo dois) segundos
+ * de borda: O(buckets na janela), com precisão de milissegundo.
+ */
+final class PaymentSecondBuckets {
+
+    static final String COUNT_FIELD = "c";
+    static final String AMOUNT_FIELD = "a";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final Function<PaymentProcessorType, String> secondsKey;
+    private final BiFunction<PaymentProcessorType, Long, String> bucketKey;
+
+    /**
+     * @param secondsKey sorted set com os segundos que possuem bucket
+     * @param bucketKey hash de um segundo do processador
+     */
+    PaymentSecondBuckets(RedisTemplate<String, String> redisTemplate,
+                         Function<PaymentProcessorType, String> secondsKey,
+                         BiFunction<PaymentProcessorType, Long, String> bucketKey) {
+        this.redisTemplate = redisTemplate;
+        this.secondsKey = secondsKey;
+        this.bucketKey = bucketKey;
+    }
+
+    String secondsKey(PaymentProcessorType processorType) {
+        return secondsKey.apply(processorType);
+    }
+
+    String bucketKey(PaymentProcessorType processorType, long second) {
+        return bucketKey.apply(processorType, second);
+    }
+
+    PaymentTotals summarize(PaymentProcessorType processorType, SummaryWindow window) {
+        if (window.isEmpty()) {
+            return PaymentTotals.EMPTY;
+        }
+
+        long firstSecond = Math.floorDiv(window.fromMillis(), 1000L);
+        long lastSecond = Math.floorDiv(window.toMillis() - 1, 1000L);
+        Set<String> seconds = redisTemplate.opsForZSet()
+                .rangeByScore(secondsKey(processorType), firstSecond, lastSecond);
+        if (seconds == null || seconds.isEmpty()) {
+            return PaymentTotals.EMPTY;
+        }
+
+        List<Long> bucketSeconds = seconds.stream().map(Long::parseLong).toList();
+        List<Object> buckets = readBuckets(processorType, window, bucketSeconds);
+
+        long totalRequests = 0;
+        long totalCents = 0;
+        for (int i = 0; i < bucketSeconds.size(); i++) {
+            long second = bucketSeconds.get(i);
+            Object bucket = buckets.get(i);
+            if (bucket instanceof List<?> secondTotals) {
+                totalRequests += parseLong(secondTotals.get(0));
+                totalCents += parseLong(secondTotals.get(1));
+            } else if (bucket instanceof Map<?, ?> millisTotals) {
+                for (Map.Entry<?, ?> entry : millisTotals.entrySet()) {
+                    String field = (String) entry.getKey();
+                    if (field.length() <= 1 || !field.startsWith(COUNT_FIELD)) {
+                        continue;
+                    }
+                    String offset = field.substring(1);
+                    if (window.contains(second * 1000L + Long.parseLong(offset))) {
+                        totalRequests += parseLong(entry.getValue());
+                        totalCents += parseLong(millisTotals.get(AMOUNT_FIELD + offset));
+                    }
+                }
+            }
+        }
+        return new PaymentTotals(totalRequests, totalCents);
+    }
+
+    /**
+     * Chaves de todos os buckets do processador, incluindo o índice de segundos.
+     */
+    List<String> keys(PaymentProcessorType processorType) {
+        List<String> keys = new ArrayList<>();
+        String secondsKey = secondsKey(processorType);
+        Set<String> seconds = redisTemplate.opsForZSet().range(secondsKey, 0, -1);
+        if (seconds != null) {
+            seconds.forEach(second -> keys.add(bucketKey(processorType, Long.parseLong(second))));
+        }
+        keys.add(secondsKey);
+        return keys;
+    }
+
+    /**
+     * Agrupa os pagamentos por segundo. Dentro de cada segundo o campo "" acumula o total do
+     * segundo e o campo "{ms}" o total daquele milissegundo; cada valor é {quantidade, centavos}.
+     */
+    static Map<Long, Map<String, long[]>> group(List<Payment> payments) {
+        Map<Long, Map<String, long[]>> buckets = new HashMap<>();
+        for (Payment payment : payments) {
+            long millis = payment.getRequestedAt().toEpochMilli();
+            long cents = payment.getAmountCents();
+            Map<String, long[]> bucket = buckets.computeIfAbsent(Math.floorDiv(millis, 1000L), s -> new HashMap<>());
+            accumulate(bucket.computeIfAbsent("", f -> new long[2]), cents);
+            accumulate(bucket.computeIfAbsent(Long.toString(Math.floorMod(millis, 1000L)), f -> new long[2]), cents);
+        }
+        return buckets;
+    }
+
+    /**
+     * Busca em um único pipeline os buckets da janela: HMGET dos totais para segundos
+     * inteiramente contidos e HGETALL para os segundos de borda.
+     */
+    private List<Object> readBuckets(PaymentProcessorType processorType, SummaryWindow window, List<Long> bucketSeconds) {
+        return redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                for (long second : bucketSeconds) {
+                    String key = bucketKey(processorType, second);
+                    if (isFullyCovered(window, second)) {
+                        ops.<String, String>opsForHash().multiGet(key, List.of(COUNT_FIELD, AMOUNT_FIELD));
+                    } else {
+                        ops.opsForHash().entries(key);
+                    }
+                }
+                return null;
+            }
+        });
+    }
+
+    private static boolean isFullyCovered(SummaryWindow window, long second) {
+        long secondStart = second * 1000L;
+        return secondStart >= window.fromMillis() && secondStart + 999L < window.toMillis();
+    }
+
+    private static void accumulate(long[] totals, long cents) {
+        totals[0]++;
+        totals[1] += cents;
+    }
+
+    private static long parseLong(Object value) {
+        return (value == null) ? 0 : Long.parseLong(value.toString());
+    }
+}
@@ -0,0 +1,215 @@
+package com.maal.apipaymentprocessor.adapter.out.redis;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Journal local de pagamentos num arquivo mapeado em memória, usado quando a escrita na fila
+ * do Redis falha ou passa do prazo.
+ *
+ * Layout: cabeçalho de 64 bytes (magic, versão e offset de leitura) seguido de registros
+ * [tamanho int][crc32 int][correlationId 16 bytes][payload]. O tamanho é gravado por último,
+ * então um registro interrompido no meio tem tamanho zero ou CRC inválido e é descartado na
+ * recuperação. O offset de leitura só avança depois que o lote foi confirmado pelo Redis: após
+ * um crash o lote é reenviado (os repetidos são descartados pela deduplicação, se ligada).
+ *
+ * Quando tudo foi drenado o arquivo volta ao início. Os dados ficam no page cache a cada
+ * escrita e sobrevivem à queda do processo; {@link #force()} os leva ao disco.
+ */
+final class PaymentSpillJournal implements AutoCloseable {
+
+    private static final int MAGIC = 0x52505331;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int READ_OFFSET_POSITION = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int ID_SIZE = 16;
+    private static final byte[] ZEROS = new byte[4096];
+
+    /** Lote lido do journal; {@code endOffset} é o offset de leitura após confirmá-lo */
+    record Batch(List<QueuedPayment> payments, int endOffset) {
+
+        boolean isEmpty() {
+            return payments.isEmpty();
+        }
+    }
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+
+    private int readOffset;
+    private int writeOffset;
+    private volatile int pendingRecords;
+    private boolean dirty;
+
+    private PaymentSpillJournal(Path path, FileChannel channel, MappedByteBuffer buffer, int capacity) {
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Abre (ou cria) o journal e recupera os registros ainda não drenados.
+     * Um arquivo existente maior que {@code capacity} é mapeado inteiro, para não perder registros.
+     */
+    static PaymentSpillJournal open(Path path, int capacity) throws IOException {
+        if (capacity <= HEADER_SIZE + RECORD_HEADER_SIZE + ID_SIZE) {
+            throw new IllegalArgumentException("Capacidade do journal muito pequena: " + capacity);
+        }
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            int size = (int) Math.max(capacity, Math.min(channel.size(), Integer.MAX_VALUE));
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            PaymentSpillJournal journal = new PaymentSpillJournal(path, channel, buffer, size);
+            journal.recover();
+            return journal;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    Path path() {
+        return path;
+    }
+
+    int pendingRecords() {
+        return pendingRecords;
+    }
+
+    /**
+     * Acrescenta um pagamento ao fim do journal.
+     * @return false se não houver espaço
+     */
+    synchronized boolean append(UUID correlationId, byte[] payload) {
+        int bodyLength = ID_SIZE + payload.length;
+        int recordEnd = writeOffset + RECORD_HEADER_SIZE + bodyLength;
+        // Sempre sobra espaço para o tamanho zero que marca o fim dos registros
+        if (recordEnd < 0 || recordEnd > capacity - Integer.BYTES) {
+            return false;
+        }
+        int body = writeOffset + RECORD_HEADER_SIZE;
+        buffer.putLong(body, correlationId.getMostSignificantBits());
+        buffer.putLong(body + Long.BYTES, correlationId.getLeastSignificantBits());
+        buffer.put(body + ID_SIZE, payload);
+        buffer.putInt(writeOffset + Integer.BYTES, crc(body, bodyLength));
+        buffer.putInt(writeOffset, bodyLength);
+        writeOffset = recordEnd;
+        pendingRecords++;
+        dirty = true;
+        return true;
+    }
+
+    /**
+     * Lê, sem consumir, até {@code maxRecords} registros a partir do offset de leitura.
+     */
+    synchronized Batch read(int maxRecords) {
+        List<QueuedPayment> payments = new ArrayList<>(Math.min(maxRecords, pendingRecords));
+        int position = readOffset;
+        while (payments.size() < maxRecords && position < writeOffset) {
+            int bodyLength = buffer.getInt(position);
+            int body = position + RECORD_HEADER_SIZE;
+            UUID correlationId = new UUID(buffer.getLong(body), buffer.getLong(body + Long.BYTES));
+            byte[] payload = new byte[bodyLength - ID_SIZE];
+            buffer.get(body + ID_SIZE, payload);
+            payments.add(new QueuedPayment(correlationId, payload));
+            position = body + bodyLength;
+        }
+        return new Batch(payments, position);
+    }
+
+    /**
+     * Marca o lote como entregue. Com o journal vazio o arquivo volta ao início.
+     */
+    synchronized void commit(Batch batch) {
+        readOffset = batch.endOffset();
+        pendingRecords -= batch.payments().size();
+        if (readOffset == writeOffset) {
+            // Zera os registros antes de voltar o offset: uma queda no meio recupera um journal vazio
+            buffer.putLong(READ_OFFSET_POSITION, readOffset);
+            zero(HEADER_SIZE, writeOffset);
+            readOffset = HEADER_SIZE;
+            writeOffset = HEADER_SIZE;
+        }
+        buffer.putLong(READ_OFFSET_POSITION, readOffset);
+        dirty = true;
+    }
+
+    /**
+     * Grava no disco as páginas alteradas desde a última chamada.
+     */
+    void force() {
+        synchronized (this) {
+            if (!dirty) {
+                return;
+            }
+            dirty = false;
+        }
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private void recover() {
+        long storedReadOffset = buffer.getLong(READ_OFFSET_POSITION);
+        if (buffer.getInt(0) != MAGIC || storedReadOffset < HEADER_SIZE || storedReadOffset >= capacity) {
+            zero(0, capacity);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(Integer.BYTES, VERSION);
+            buffer.putLong(READ_OFFSET_POSITION, HEADER_SIZE);
+            storedReadOffset = HEADER_SIZE;
+        }
+        readOffset = (int) storedReadOffset;
+
+        int position = readOffset;
+        int records = 0;
+        while (position <= capacity - RECORD_HEADER_SIZE) {
+            int bodyLength = buffer.getInt(position);
+            int body = position + RECORD_HEADER_SIZE;
+            if (bodyLength < ID_SIZE || bodyLength > capacity - Integer.BYTES - body
+                    || buffer.getInt(position + Integer.BYTES) != crc(body, bodyLength)) {
+                break;
+            }
+            position = body + bodyLength;
+            records++;
+        }
+        writeOffset = position;
+        pendingRecords = records;
+        // Descarta o que sobrou de um registro interrompido
+        if (position <= capacity - Integer.BYTES && buffer.getInt(position) != 0) {
+            zero(position, capacity);
+        }
+        dirty = true;
+    }
+
+    private int crc(int position, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(position, length));
+        return (int) crc.getValue();
+    }
+
+    private void zero(int from, int to) {
+        for (int position = from; position < to; position += ZEROS.length) {
+            buffer.put(position, ZEROS, 0, Math.min(ZEROS.length, to - position));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.maal.apipaymentprocessor.adapter.out.redis;
+
+import com.maal.apipaymentprocessor.domain.model.SummaryWindow;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache local (LRU limitado) dos totais já calculados por lista de histórico e janela.
+ *
+ * Cada entrada guarda a marca d'água da lista de histórico no momento do cálculo: quantas
+ * entradas da lista já foram consideradas. Como o async-worker só acrescenta no fim da lista,
+ * uma consulta repetida precisa ler apenas as entradas depois da marca d'água. A entrada também
+ * guarda a época de purge compartilhada no Redis: depois de um purge feito por qualquer instância
+ * a lista é outra, mesmo que volte a ter o mesmo tamanho.
+ */
+final class PaymentSummaryCache {
+
+    record Key(String historyKey, long fromMillis, long toMillis) {
+
+        static Key of(String historyKey, SummaryWindow window) {
+            return new Key(historyKey, window.fromMillis(), window.toMillis());
+        }
+    }
+
+    /**
+     * @param purgeEpoch época de purge em que a lista foi lida
+     * @param watermark tamanho da lista de histórico já incorporado aos totais
+     */
+    record Entry(long purgeEpoch, long watermark, long totalRequests, long totalCents) {
+
+        boolean isNewerThan(Entry other) {
+            return purgeEpoch != other.purgeEpoch ? purgeEpoch > other.purgeEpoch : watermark >= other.watermark;
+        }
+    }
+
+    private final int maxEntries;
+    private final Map<Key, Entry> entries;
+
+    PaymentSummaryCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > PaymentSummaryCache.this.maxEntries;
+            }
+        };
+    }
+
+    boolean isEnabled() {
+        return maxEntries > 0;
+    }
+
+    synchronized Entry get(Key key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Guarda os totais, sem sobrescrever uma entrada de época ou marca d'água mais recente
+     * calculada por outra requisição concorrente.
+     */
+    synchronized void put(Key key, Entry entry) {
+        if (isEnabled()) {
+            entries.merge(key, entry, (current, candidate) -> candidate.isNewerThan(current) ? candidate : current);
+        }
+    }
+
+    synchronized void clear() {
+        entries.clear();
+    }
+}
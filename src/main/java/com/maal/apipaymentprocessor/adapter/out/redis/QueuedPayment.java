@@ -0,0 +1,9 @@
+package com.maal.apipaymentprocessor.adapter.out.redis;
+
+import java.util.UUID;
+
+/**
+ * Pagamento já serializado aguardando escrita na fila (buffer em lote ou journal local).
+ */
+record QueuedPayment(UUID correlationId, byte[] payload) {
+}
@@ -0,0 +1,86 @@
+package com.maal.apipaymentprocessor.adapter.out.redis;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Escrita síncrona de pagamentos já serializados nas filas em lista, compartilhada pelos
+ * publicadores e pela reposição do journal local: escolhe a partição da fila
+ * ({@link PaymentQueueShards}) e usa o script de enfileiramento quando a deduplicação está ligada.
+ */
+@Component
+class RedisListPaymentQueueWriter {
+
+    private final RedisTemplate<String, byte[]> ingestRedisTemplate;
+    private final RedisPaymentDeduplicator deduplicator;
+    private final PaymentQueueShards queueShards;
+
+    RedisListPaymentQueueWriter(@Qualifier("ingestRedisTemplate") RedisTemplate<String, byte[]> ingestRedisTemplate,
+                                RedisPaymentDeduplicator deduplicator,
+                                PaymentQueueShards queueShards) {
+        this.ingestRedisTemplate = ingestRedisTemplate;
+        this.deduplicator = deduplicator;
+        this.queueShards = queueShards;
+    }
+
+    /**
+     * Escreve um pagamento na fila.
+     * @throws com.maal.apipaymentprocessor.domain.exception.DuplicatePaymentException se a
+     *         deduplicação encontrar o correlationId já aceito
+     */
+    void writeOne(UUID correlationId, byte[] paymentPayload) {
+        String queueKey = queueShards.queueKey(correlationId);
+        if (deduplicator.isEnabled()) {
+            deduplicator.enqueue(queueKey, correlationId, paymentPayload);
+        } else {
+            ingestRedisTemplate.opsForList().rightPush(queueKey, paymentPayload);
+        }
+    }
+
+    /**
+     * Escreve um lote com um único comando (um por partição, com a fila particionada).
+     * Uma nova tentativa após falha parcial não duplica com a deduplicação ligada: os ids já
+     * gravados são descartados pelo script.
+     */
+    void writeBatch(List<QueuedPayment> batch) {
+        if (queueShards.count() == 1) {
+            writeBatch(queueShards.queueKey(0), batch);
+            return;
+        }
+        Map<String, List<QueuedPayment>> batchesByQueue = new HashMap<>();
+        for (QueuedPayment queuedPayment : batch) {
+            batchesByQueue.computeIfAbsent(queueShards.queueKey(queuedPayment.correlationId()), k -> new ArrayList<>())
+                    .add(queuedPayment);
+        }
+        batchesByQueue.forEach(this::writeBatch);
+    }
+
+    private void writeBatch(String queueKey, List<QueuedPayment> batch) {
+        if (deduplicator.isEnabled()) {
+            deduplicator.enqueueAll(queueKey, deduplicationArguments(batch));
+            return;
+        }
+        List<byte[]> payloads = new ArrayList<>(batch.size());
+        for (QueuedPayment queuedPayment : batch) {
+            payloads.add(queuedPayment.payload());
+        }
+        ingestRedisTemplate.opsForList().rightPushAll(queueKey, payloads);
+    }
+
+    /** Pares (correlationId, payload) na ordem da fila, como esperado pelos scripts de enfileiramento */
+    static List<byte[]> deduplicationArguments(List<QueuedPayment> batch) {
+        List<byte[]> arguments = new ArrayList<>(batch.size() * 2);
+        for (QueuedPayment queuedPayment : batch) {
+            arguments.add(RedisPaymentDeduplicator.correlationIdBytes(queuedPayment.correlationId()));
+            arguments.add(queuedPayment.payload());
+        }
+        return arguments;
+    }
+}
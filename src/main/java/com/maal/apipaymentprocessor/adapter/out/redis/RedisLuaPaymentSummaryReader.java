@@ -0,0 +1,142 @@
+package com.maal.apipaymentprocessor.adapter.out.redis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maal.apipaymentprocessor.domain.model.PaymentProcessorType;
+import com.maal.apipaymentprocessor.domain.model.PaymentTotals;
+import com.maal.apipaymentprocessor.domain.model.SummaryWindow;
+import com.maal.apipaymentprocessor.domain.port.out.OperationMetrics;
+import com.maal.apipaymentprocessor.domain.port.out.PaymentHistoryReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resumo calculado no próprio Redis pelo script "scripts/payment-summary.lua".
+ *
+ * Um único EVALSHA varre as listas de histórico dos dois processadores (de todas as partições
+ * da fila, ver {@link PaymentQueueShards}) e devolve apenas quatro números (quantidade e centavos
+ * de cada processador), em vez de trafegar todo o JSON para a API.
+ * O script é carregado na inicialização (ver RedisConfig); se ele não estiver disponível no Redis
+ * (NOSCRIPT após restart ou SCRIPT FLUSH) é recarregado uma vez e, persistindo a falha, a consulta
+ * cai para a varredura em Java.
+ *
+ * Atenção: o script roda de forma atômica e bloqueia o Redis enquanto varre as listas.
+ */
+@Component
+@ConditionalOnProperty(name = "rinha.summary.mode", havingValue = "lua")
+public class RedisLuaPaymentSummaryReader implements PaymentHistoryReader {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisLuaPaymentSummaryReader.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisScript<List<Long>> paymentSummaryScript;
+    private final RedisPaymentHistoryScanReader javaFallback;
+    private final PaymentQueueShards queueShards;
+
+    public RedisLuaPaymentSummaryReader(RedisTemplate<String, String> redisTemplate,
+                                        RedisTemplate<String, byte[]> binaryRedisTemplate,
+                                        ObjectMapper objectMapper,
+                                        RedisScript<List<Long>> paymentSummaryScript,
+                                        OperationMetrics operationMetrics,
+                                        PaymentQueueShards queueShards) {
+        this.redisTemplate = redisTemplate;
+        this.paymentSummaryScript = paymentSummaryScript;
+        this.queueShards = queueShards;
+        // Fallback sem cache local e sem prefetch: usado apenas quando o script falha
+        this.javaFallback = new RedisPaymentHistoryScanReader(binaryRedisTemplate, objectMapper, 0, 1000, false,
+                operationMetrics, queueShards, false);
+    }
+
+    @Override
+    public PaymentTotals summarize(PaymentProcessorType processorType, SummaryWindow window) {
+        return summarizeAll(window).get(processorType);
+    }
+
+    @Override
+    public Map<PaymentProcessorType, PaymentTotals> summarizeAll(SummaryWindow window) {
+        List<Object> result;
+        try {
+            result = evalSummaryScript(window);
+        } catch (Exception e) {
+            if (!isNoScript(e)) {
+                logger.warn("Script de resumo falhou, usando varredura em Java: {}", e.getMessage());
+                return javaFallback.summarizeAll(window);
+            }
+            try {
+                loadScript();
+                result = evalSummaryScript(window);
+            } catch (Exception retryFailure) {
+                logger.warn("Script de resumo indisponível no Redis, usando varredura em Java: {}", retryFailure.getMessage());
+                return javaFallback.summarizeAll(window);
+            }
+        }
+
+        Map<PaymentProcessorType, PaymentTotals> totals = new EnumMap<>(PaymentProcessorType.class);
+        totals.put(PaymentProcessorType.DEFAULT, toTotals(result.get(0), result.get(1)));
+        totals.put(PaymentProcessorType.FALLBACK, toTotals(result.get(2), result.get(3)));
+        return totals;
+    }
+
+    @Override
+    public boolean readsAllProcessorsAtOnce() {
+        return true;
+    }
+
+    @Override
+    public void purge() {
+        javaFallback.purge();
+    }
+
+    /**
+     * Executa SCRIPT LOAD do script de resumo.
+     * @return SHA1 retornado pelo Redis
+     */
+    public String loadScript() {
+        byte[] script = paymentSummaryScript.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+        return redisTemplate.execute((RedisCallback<String>) connection -> connection.scriptingCommands().scriptLoad(script));
+    }
+
+    private List<Object> evalSummaryScript(SummaryWindow window) {
+        // KEYS: listas de todas as partições do default e depois do fallback
+        List<String> keys = new ArrayList<>(queueShards.historyLists(PaymentProcessorType.DEFAULT));
+        keys.addAll(queueShards.historyLists(PaymentProcessorType.FALLBACK));
+        byte[][] keysAndArgs = new byte[keys.size() + 3][];
+        for (int i = 0; i < keys.size(); i++) {
+            keysAndArgs[i] = keys.get(i).getBytes(StandardCharsets.UTF_8);
+        }
+        keysAndArgs[keys.size()] = Long.toString(window.fromMillis()).getBytes(StandardCharsets.UTF_8);
+        keysAndArgs[keys.size() + 1] = Long.toString(window.toMillis()).getBytes(StandardCharsets.UTF_8);
+        keysAndArgs[keys.size() + 2] = Integer.toString(queueShards.count()).getBytes(StandardCharsets.UTF_8);
+        int numKeys = keys.size();
+        List<Object> result = redisTemplate.execute((RedisCallback<List<Object>>) connection ->
+                connection.scriptingCommands().evalSha(paymentSummaryScript.getSha1(), ReturnType.MULTI, numKeys, keysAndArgs));
+        if (result == null || result.size() != 4) {
+            throw new IllegalStateException("Resposta inesperada do script de resumo: " + result);
+        }
+        return result;
+    }
+
+    private static boolean isNoScript(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains("NOSCRIPT")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static PaymentTotals toTotals(Object count, Object cents) {
+        return new PaymentTotals(((Number) count).longValue(), ((Number) cents).longValue());
+    }
+}
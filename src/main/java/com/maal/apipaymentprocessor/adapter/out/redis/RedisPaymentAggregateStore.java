@@ -0,0 +1,89 @@
+package com.maal.apipaymentprocessor.adapter.out.redis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maal.apipaymentprocessor.domain.model.Payment;
+import com.maal.apipaymentprocessor.domain.model.PaymentProcessorType;
+import com.maal.apipaymentprocessor.domain.model.PaymentTotals;
+import com.maal.apipaymentprocessor.domain.model.SummaryWindow;
+import com.maal.apipaymentprocessor.domain.port.out.PaymentHistoryReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Store de agregados pré-calculados por intervalo de tempo.
+ *
+ * Cada segundo com pagamentos tem um hash "payments:summary:{processador}:s:{epochSecond}" com
+ * os totais do segundo e de cada milissegundo dentro dele, indexado num sorted set
+ * ({@link PaymentSecondBuckets}): uma consulta [from, to) custa O(buckets na janela).
+ *
+ * As listas de histórico são escritas pelo async-worker, então os agregados são mantidos de forma
+ * incremental: antes de consultar, as entradas novas da lista são incorporadas aos buckets
+ * pelo {@link HistoryListTailFolder}.
+ */
+@Component
+@ConditionalOnProperty(name = "rinha.summary.mode", havingValue = "aggregate")
+public class RedisPaymentAggregateStore implements PaymentHistoryReader {
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final HistoryListTailFolder historyFolder;
+    private final PaymentSecondBuckets buckets;
+    private final PaymentQueueShards queueShards;
+
+    public RedisPaymentAggregateStore(RedisTemplate<String, String> redisTemplate, ObjectMapper objectMapper,
+                                      @Value("${rinha.summary.aggregate.fold-batch-size:2000}") int foldBatchSize,
+                                      PaymentQueueShards queueShards) {
+        this.redisTemplate = redisTemplate;
+        this.queueShards = queueShards;
+        this.historyFolder = new HistoryListTailFolder(redisTemplate, objectMapper, foldBatchSize);
+        this.buckets = new PaymentSecondBuckets(redisTemplate,
+                PaymentHistoryKeys::aggregateSeconds, PaymentHistoryKeys::aggregateBucket);
+    }
+
+    @Override
+    public PaymentTotals summarize(PaymentProcessorType processorType, SummaryWindow window) {
+        // Cada partição tem seu cursor; os buckets do processador são compartilhados
+        List<String> historyLists = queueShards.historyLists(processorType);
+        for (int shard = 0; shard < historyLists.size(); shard++) {
+            historyFolder.fold(historyLists.get(shard),
+                    queueShards.shardKey(PaymentHistoryKeys.aggregateCursor(processorType), shard),
+                    (ops, payments, positions) -> writeBuckets(processorType, ops, payments));
+        }
+        return buckets.summarize(processorType, window);
+    }
+
+    @Override
+    public void purge() {
+        List<String> keys = new ArrayList<>();
+        for (PaymentProcessorType processorType : PaymentProcessorType.values()) {
+            keys.addAll(buckets.keys(processorType));
+            for (int shard = 0; shard < queueShards.count(); shard++) {
+                keys.add(queueShards.shardKey(PaymentHistoryKeys.aggregateCursor(processorType), shard));
+            }
+            keys.addAll(queueShards.historyLists(processorType));
+        }
+        redisTemplate.delete(keys);
+    }
+
+    /**
+     * Enfileira os incrementos dos buckets de cada segundo do lote.
+     */
+    private void writeBuckets(PaymentProcessorType processorType, RedisOperations<String, String> ops, List<Payment> payments) {
+        String secondsKey = buckets.secondsKey(processorType);
+        for (Map.Entry<Long, Map<String, long[]>> bucket : PaymentSecondBuckets.group(payments).entrySet()) {
+            long second = bucket.getKey();
+            String bucketKey = buckets.bucketKey(processorType, second);
+            for (Map.Entry<String, long[]> field : bucket.getValue().entrySet()) {
+                ops.opsForHash().increment(bucketKey, PaymentSecondBuckets.COUNT_FIELD + field.getKey(), field.getValue()[0]);
+                ops.opsForHash().increment(bucketKey, PaymentSecondBuckets.AMOUNT_FIELD + field.getKey(), field.getValue()[1]);
+            }
+            ops.opsForZSet().add(secondsKey, Long.toString(second), second);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.maal.apipaymentprocessor.adapter.out.redis;
+
+import com.maal.apipaymentprocessor.domain.exception.DuplicatePaymentException;
+import com.maal.apipaymentprocessor.domain.port.out.OperationMetrics;
+import com.maal.apipaymentprocessor.domain.port.out.PaymentDeduplicator;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Deduplicação de pagamentos por correlationId usada pelos publicadores em lista direct e async
+ * (rinha.dedupe.enabled=true). Os publicadores que confirmam a requisição antes de escrever
+ * (batch, stream e ring) recusam a deduplicação na subida: o 200 sairia antes de o Redis
+ * conferir o id.
+ *
+ * A verificação é o script enqueue-payments.lua: SADD no set de correlationIds aceitos e RPUSH
+ * na fila só quando o id é novo, na mesma ida ao Redis que a publicação já fazia. Os dois
+ * publicadores esperam a resposta do script antes de responder, então toda repetição que o
+ * Redis conhece, inclusive as recebidas pela outra instância, responde 409. A exceção é o Redis
+ * fora do ar com o journal local ligado: o pagamento é confirmado a partir do journal sem
+ * consulta, e uma repetição entre esses pagamentos só é descartada no reenvio à fila.
+ *
+ * Os ids ficam em sets por geração de {@code retention-millis} ("payments:correlation-ids:{geração}"),
+ * com expiração de duas gerações: o script confere a geração anterior e grava na atual, então uma
+ * repetição é detectada por pelo menos {@code retention-millis} e a memória fica limitada aos ids
+ * das duas últimas gerações. Uma eviction do Redis perde só a geração despejada.
+ */
+@Component
+public class RedisPaymentDeduplicator implements PaymentDeduplicator {
+
+    private final RedisTemplate<String, byte[]> ingestRedisTemplate;
+    private final RedisScript<Long> enqueuePaymentsScript;
+    private final OperationMetrics operationMetrics;
+    private final boolean enabled;
+    private final long retentionMillis;
+    private final byte[] ttlArgument;
+
+    public RedisPaymentDeduplicator(@Qualifier("ingestRedisTemplate") RedisTemplate<String, byte[]> ingestRedisTemplate,
+                                    RedisScript<Long> enqueuePaymentsScript,
+                                    @Value("${rinha.dedupe.enabled:false}") boolean enabled,
+                                    @Value("${rinha.dedupe.retention-millis:600000}") long retentionMillis,
+                                    OperationMetrics operationMetrics) {
+        if (retentionMillis <= 0) {
+            throw new IllegalArgumentException("rinha.dedupe.retention-millis deve ser > 0: " + retentionMillis);
+        }
+        this.ingestRedisTemplate = ingestRedisTemplate;
+        this.enqueuePaymentsScript = enqueuePaymentsScript;
+        this.operationMetrics = operationMetrics;
+        this.enabled = enabled;
+        this.retentionMillis = retentionMillis;
+        this.ttlArgument = Long.toString(2 * retentionMillis).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Publica um pagamento na fila (ou partição da fila) checando o correlationId no Redis.
+     * @throws DuplicatePaymentException se o correlationId já tinha sido aceito
+     */
+    public void enqueue(String queueKey, UUID correlationId, byte[] paymentPayload) {
+        Long duplicates = ingestRedisTemplate.execute(enqueuePaymentsScript, List.of(scriptKeys(queueKey)),
+                ttlArgument, correlationIdBytes(correlationId), paymentPayload);
+        rejectIfDuplicate(correlationId, duplicates);
+    }
+
+    /**
+     * Converte a resposta do script de um único pagamento.
+     * @throws DuplicatePaymentException se o script descartou o pagamento
+     */
+    public void rejectIfDuplicate(UUID correlationId, Long duplicates) {
+        if (duplicates != null && duplicates > 0) {
+            countDuplicates(duplicates);
+            throw new DuplicatePaymentException(correlationId);
+        }
+    }
+
+    /**
+     * Publica um lote descartando os correlationIds já aceitos.
+     * @param arguments pares (correlationId em bytes, payload), na ordem da fila
+     * @return quantidade de pagamentos descartados por serem repetidos
+     */
+    public long enqueueAll(String queueKey, List<byte[]> arguments) {
+        return discarded(ingestRedisTemplate.execute(enqueuePaymentsScript, List.of(scriptKeys(queueKey)),
+                scriptArguments(arguments)));
+    }
+
+    /**
+     * Argumentos do script de enfileiramento: expiração dos sets seguida dos pares (correlationId, payload).
+     */
+    public Object[] scriptArguments(List<byte[]> arguments) {
+        Object[] scriptArguments = new Object[arguments.size() + 1];
+        scriptArguments[0] = ttlArgument;
+        for (int i = 0; i < arguments.size(); i++) {
+            scriptArguments[i + 1] = arguments.get(i);
+        }
+        return scriptArguments;
+    }
+
+    private long discarded(Long duplicates) {
+        long discarded = (duplicates == null) ? 0 : duplicates;
+        countDuplicates(discarded);
+        return discarded;
+    }
+
+    public void countDuplicates(long duplicates) {
+        if (duplicates > 0) {
+            operationMetrics.increment(OperationMetrics.Counter.DUPLICATE_PAYMENTS, duplicates);
+        }
+    }
+
+    /** Chaves do script: fila e sets de correlationIds aceitos da geração atual e da anterior */
+    public String[] scriptKeys(String queueKey) {
+        long generation = currentGeneration();
+        return new String[]{queueKey,
+                PaymentHistoryKeys.acceptedCorrelationIds(generation),
+                PaymentHistoryKeys.acceptedCorrelationIds(generation - 1)};
+    }
+
+    /** Expiração dos sets de ids aceitos (duas gerações), primeiro argumento do script */
+    public byte[] ttlArgument() {
+        return ttlArgument;
+    }
+
+    public RedisScript<Long> script() {
+        return enqueuePaymentsScript;
+    }
+
+    /**
+     * Remove os sets das gerações ainda consultadas, inclusive a seguinte, que uma instância com o
+     * relógio um pouco adiantado já pode ter criado. Gerações mais antigas só esperam a expiração.
+     */
+    @Override
+    public void purge() {
+        long generation = currentGeneration();
+        ingestRedisTemplate.delete(List.of(
+                PaymentHistoryKeys.acceptedCorrelationIds(generation - 1),
+                PaymentHistoryKeys.acceptedCorrelationIds(generation),
+                PaymentHistoryKeys.acceptedCorrelationIds(generation + 1)));
+    }
+
+    private long currentGeneration() {
+        return Math.floorDiv(System.currentTimeMillis(), retentionMillis);
+    }
+
+    /** UUID em 16 bytes big-endian, o membro guardado no set do Redis */
+    public static byte[] correlationIdBytes(UUID correlationId) {
+        return ByteBuffer.allocate(16)
+                .putLong(correlationId.getMostSignificantBits())
+                .putLong(correlationId.getLeastSignificantBits())
+                .array();
+    }
+}
@@ -0,0 +1,290 @@
+package com.maal.apipaymentprocessor.adapter.out.redis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maal.apipaymentprocessor.domain.model.Payment;
+import com.maal.apipaymentprocessor.domain.model.PaymentProcessorType;
+import com.maal.apipaymentprocessor.domain.model.PaymentTotals;
+import com.maal.apipaymentprocessor.domain.model.SummaryWindow;
+import com.maal.apipaymentprocessor.domain.port.out.OperationMetrics;
+import com.maal.apipaymentprocessor.domain.port.out.PaymentRollupReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Compactação do histórico (rinha.history.compaction.enabled=true): as entradas das listas
+ * "payments:history:*" com requestedAt mais antigo que {@code horizon-millis} são somadas em
+ * rollups por segundo ({@link PaymentSecondBuckets}, com precisão de milissegundo) e removidas
+ * da lista, que passa a guardar só a cauda recente.
+ *
+ * Só a instância que detém o lease "payments:history:compaction:leader" compacta; o lease é
+ * renovado a cada rodada e, se a líder cair, expira e a outra instância assume. Cada lote é
+ * aplicado por um script que confere o lease e o início da lista, incrementa as rollups, apara
+ * a lista e incrementa a versão das rollups de uma vez, então nenhuma entrada fica nas duas
+ * estruturas nem em nenhuma.
+ *
+ * A compactação para no primeiro pagamento recente de cada lista: entradas antigas atrás dele
+ * ficam na cauda e continuam sendo somadas pela leitura da lista. Vale para os modos de resumo
+ * que leem as listas (scan e lua); aggregate e zset mantêm cursores por posição na lista.
+ */
+@Component
+@ConditionalOnProperty(name = "rinha.history.compaction.enabled", havingValue = "true")
+public class RedisPaymentHistoryCompactor implements PaymentRollupReader, SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisPaymentHistoryCompactor.class);
+
+    private static final long LOST_LEADERSHIP = -1;
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisTemplate<String, byte[]> binaryRedisTemplate;
+    private final RedisScript<Long> compactHistoryScript;
+    private final RedisScript<Long> renewCompactionLeaseScript;
+    private final PaymentHistoryDecoder decoder;
+    private final PaymentSecondBuckets rollups;
+    private final PaymentQueueShards queueShards;
+    private final OperationMetrics operationMetrics;
+    private final long horizonMillis;
+    private final long intervalNanos;
+    private final int batchSize;
+    private final Duration leaseDuration;
+    private final String token = UUID.randomUUID().toString();
+
+    private volatile boolean running;
+    private volatile Thread compactor;
+    /** Só acessado pela thread de compactação */
+    private boolean leader;
+
+    public RedisPaymentHistoryCompactor(RedisTemplate<String, String> redisTemplate,
+                                        RedisTemplate<String, byte[]> binaryRedisTemplate,
+                                        RedisScript<Long> compactHistoryScript,
+                                        RedisScript<Long> renewCompactionLeaseScript,
+                                        ObjectMapper objectMapper,
+                                        PaymentQueueShards queueShards,
+                                        OperationMetrics operationMetrics,
+                                        @Value("${rinha.summary.mode:scan}") String summaryMode,
+                                        @Value("${rinha.history.compaction.horizon-millis:60000}") long horizonMillis,
+                                        @Value("${rinha.history.compaction.interval-millis:5000}") long intervalMillis,
+                                        @Value("${rinha.history.compaction.batch-size:1000}") int batchSize,
+                                        @Value("${rinha.history.compaction.lease-millis:15000}") long leaseMillis) {
+        if (!"scan".equals(summaryMode) && !"lua".equals(summaryMode)) {
+            throw new IllegalStateException("rinha.history.compaction.enabled exige rinha.summary.mode scan ou lua: " + summaryMode);
+        }
+        this.redisTemplate = redisTemplate;
+        this.binaryRedisTemplate = binaryRedisTemplate;
+        this.compactHistoryScript = compactHistoryScript;
+        this.renewCompactionLeaseScript = renewCompactionLeaseScript;
+        this.decoder = new PaymentHistoryDecoder(objectMapper);
+        this.rollups = new PaymentSecondBuckets(redisTemplate,
+                PaymentHistoryKeys::rollupSeconds, PaymentHistoryKeys::rollupBucket);
+        this.queueShards = queueShards;
+        this.operationMetrics = operationMetrics;
+        this.horizonMillis = horizonMillis;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        this.batchSize = batchSize;
+        this.leaseDuration = Duration.ofMillis(leaseMillis);
+    }
+
+    @Override
+    public long version() {
+        String version = redisTemplate.opsForValue().get(PaymentHistoryKeys.rollupVersion());
+        return (version == null) ? 0 : Long.parseLong(version);
+    }
+
+    @Override
+    public Map<PaymentProcessorType, PaymentTotals> summarizeAll(SummaryWindow window) {
+        Map<PaymentProcessorType, PaymentTotals> totals = new EnumMap<>(PaymentProcessorType.class);
+        for (PaymentProcessorType processorType : PaymentProcessorType.values()) {
+            totals.put(processorType, rollups.summarize(processorType, window));
+        }
+        return totals;
+    }
+
+    /**
+     * Remove as rollups e incrementa a versão, para que um resumo em andamento seja refeito.
+     */
+    @Override
+    public void purge() {
+        List<String> keys = new ArrayList<>();
+        for (PaymentProcessorType processorType : PaymentProcessorType.values()) {
+            keys.addAll(rollups.keys(processorType));
+        }
+        redisTemplate.delete(keys);
+        redisTemplate.opsForValue().increment(PaymentHistoryKeys.rollupVersion());
+    }
+
+    private void compactionLoop() {
+        while (running) {
+            try {
+                if (acquireLeadership()) {
+                    compactAll();
+                }
+            } catch (Exception e) {
+                logger.warn("Falha na compactação do histórico: {}", e.getMessage());
+            }
+            LockSupport.parkNanos(this, intervalNanos);
+        }
+    }
+
+    /**
+     * Adquire ou renova o lease da compactação. A renovação confere o token e aplica o PEXPIRE no
+     * mesmo script: um GET seguido de EXPIRE poderia renovar um lease que expirou e já é da outra instância.
+     */
+    private boolean acquireLeadership() {
+        String leaseKey = PaymentHistoryKeys.compactionLeader();
+        boolean acquired = Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(leaseKey, token, leaseDuration));
+        if (!acquired) {
+            Long renewed = redisTemplate.execute(renewCompactionLeaseScript, List.of(leaseKey),
+                    token, Long.toString(leaseDuration.toMillis()));
+            acquired = renewed != null && renewed == 1;
+        }
+        if (acquired != leader) {
+            logger.info(acquired ? "Instância assumiu a compactação do histórico" : "Instância deixou a compactação do histórico");
+            leader = acquired;
+        }
+        return acquired;
+    }
+
+    private void compactAll() {
+        long cutoff = System.currentTimeMillis() - horizonMillis;
+        for (PaymentProcessorType processorType : PaymentProcessorType.values()) {
+            for (String historyKey : queueShards.historyLists(processorType)) {
+                if (compactList(processorType, historyKey, cutoff) == LOST_LEADERSHIP) {
+                    leader = false;
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Compacta, em lotes de até {@code batch-size}, o início da lista anterior a {@code cutoff}.
+     * @return quantidade de entradas compactadas, ou {@link #LOST_LEADERSHIP}
+     */
+    private long compactList(PaymentProcessorType processorType, String historyKey, long cutoff) {
+        long compacted = 0;
+        while (running) {
+            List<byte[]> entries = binaryRedisTemplate.opsForList().range(historyKey, 0, batchSize - 1);
+            if (entries == null || entries.isEmpty()) {
+                break;
+            }
+            List<Payment> expired = new ArrayList<>(entries.size());
+            int count = 0;
+            for (byte[] entry : entries) {
+                Payment payment = decoder.decode(entry);
+                if (payment != null && payment.getRequestedAt().toEpochMilli() >= cutoff) {
+                    break;
+                }
+                // Entradas ilegíveis também saem: a leitura da lista já as ignora
+                if (payment != null) {
+                    expired.add(payment);
+                }
+                count++;
+            }
+            if (count == 0) {
+                break;
+            }
+
+            Long version = binaryRedisTemplate.execute(compactHistoryScript,
+                    List.of(PaymentHistoryKeys.compactionLeader(), historyKey,
+                            rollups.secondsKey(processorType), PaymentHistoryKeys.rollupVersion()),
+                    scriptArguments(processorType, entries.get(0), entries.get(count - 1), count, expired));
+            if (version == null || version == LOST_LEADERSHIP) {
+                return LOST_LEADERSHIP;
+            }
+            if (version < 0) {
+                // Lista mudou entre a leitura e o script (purge): tenta na próxima rodada
+                break;
+            }
+            compacted += count;
+            operationMetrics.increment(OperationMetrics.Counter.HISTORY_COMPACTED_ENTRIES, count);
+            if (count < entries.size()) {
+                break;
+            }
+        }
+        return compacted;
+    }
+
+    private Object[] scriptArguments(PaymentProcessorType processorType, byte[] first, byte[] last,
+                                     int count, List<Payment> expired) {
+        List<byte[]> arguments = new ArrayList<>();
+        arguments.add(bytes(token));
+        arguments.add(bytes(Integer.toString(count)));
+        arguments.add(first);
+        arguments.add(last);
+        arguments.add(bytes(PaymentHistoryKeys.rollupBucketPrefix(processorType)));
+        for (Map.Entry<Long, Map<String, long[]>> bucket : PaymentSecondBuckets.group(expired).entrySet()) {
+            byte[] second = bytes(Long.toString(bucket.getKey()));
+            for (Map.Entry<String, long[]> field : bucket.getValue().entrySet()) {
+                arguments.add(second);
+                arguments.add(bytes(field.getKey()));
+                arguments.add(bytes(Long.toString(field.getValue()[0])));
+                arguments.add(bytes(Long.toString(field.getValue()[1])));
+            }
+        }
+        return arguments.toArray();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        compactor = Thread.ofPlatform().name("payment-history-compactor").daemon(true).start(this::compactionLoop);
+    }
+
+    /**
+     * Para a compactação e libera o lease, para a outra instância assumir sem esperar a expiração.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        Thread current = compactor;
+        if (current == null) {
+            return;
+        }
+        LockSupport.unpark(current);
+        try {
+            current.join(TimeUnit.NANOSECONDS.toMillis(intervalNanos) + 1_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            String leaseKey = PaymentHistoryKeys.compactionLeader();
+            if (token.equals(redisTemplate.opsForValue().get(leaseKey))) {
+                redisTemplate.delete(leaseKey);
+            }
+        } catch (Exception e) {
+            logger.debug("Lease da compactação não liberado: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Para antes da fábrica de conexões do Redis, junto com os publicadores.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
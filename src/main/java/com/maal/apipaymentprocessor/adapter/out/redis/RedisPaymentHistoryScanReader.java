@@ -0,0 +1,223 @@
+package com.maal.apipaymentprocessor.adapter.out.redis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maal.apipaymentprocessor.domain.model.Payment;
+import com.maal.apipaymentprocessor.domain.model.PaymentProcessorType;
+import com.maal.apipaymentprocessor.domain.model.PaymentTotals;
+import com.maal.apipaymentprocessor.domain.model.SummaryWindow;
+import com.maal.apipaymentprocessor.domain.port.out.OperationMetrics;
+import com.maal.apipaymentprocessor.domain.port.out.PaymentHistoryReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Leitura do histórico por varredura completa das listas "payments:history:*".
+ * O(N) onde N é o número de pagamentos já processados - modo padrão e compatível
+ * com qualquer versão do async-worker.
+ *
+ * Com o cache local habilitado (rinha.summary.cache.max-entries > 0), uma janela já consultada
+ * só lê as entradas acrescentadas desde a consulta anterior, usando o LLEN da lista como marca
+ * d'água. O purge incrementa uma época compartilhada no Redis ("payments:purge:epoch") no mesmo
+ * MULTI/EXEC que apaga as listas, e a consulta lê a época junto com o LLEN: uma entrada de outra
+ * época é descartada, então o purge feito em uma instância invalida o cache de todas. Se a lista
+ * encolher sem purge (expurgo do Redis) a janela também é recalculada do zero.
+ *
+ * A lista é percorrida em páginas de LRANGE (rinha.summary.scan.page-size) e cada página é
+ * decodificada e somada sem guardar os pagamentos, então a memória de pico é de uma página
+ * (duas com prefetch, quando a próxima página é buscada enquanto a atual é processada),
+ * independentemente do tamanho do histórico.
+ *
+ * Com a fila particionada (rinha.queue.shards > 1) os totais de um processador são a soma das
+ * listas de todas as partições, cada uma com sua marca d'água no cache.
+ *
+ * Com a compactação do histórico ligada o cache é desligado: a compactação remove entradas do
+ * início da lista, o que invalida a marca d'água por LLEN, e a cauda que sobra é curta.
+ */
+@Component
+@ConditionalOnProperty(name = "rinha.summary.mode", havingValue = "scan", matchIfMissing = true)
+public class RedisPaymentHistoryScanReader implements PaymentHistoryReader {
+
+    private static final ExecutorService PREFETCH_EXECUTOR =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("summary-prefetch-", 0).factory());
+
+    private final RedisTemplate<String, byte[]> binaryRedisTemplate;
+    private final PaymentHistoryDecoder decoder;
+    private final PaymentSummaryCache cache;
+    private final int pageSize;
+    private final boolean prefetch;
+    private final OperationMetrics operationMetrics;
+    private final PaymentQueueShards queueShards;
+
+    public RedisPaymentHistoryScanReader(RedisTemplate<String, byte[]> binaryRedisTemplate, ObjectMapper objectMapper,
+                                         @Value("${rinha.summary.cache.max-entries:256}") int cacheMaxEntries,
+                                         @Value("${rinha.summary.scan.page-size:1000}") int pageSize,
+                                         @Value("${rinha.summary.scan.prefetch:false}") boolean prefetch,
+                                         OperationMetrics operationMetrics,
+                                         PaymentQueueShards queueShards,
+                                         @Value("${rinha.history.compaction.enabled:false}") boolean compactionEnabled) {
+        this.binaryRedisTemplate = binaryRedisTemplate;
+        this.decoder = new PaymentHistoryDecoder(objectMapper);
+        this.cache = new PaymentSummaryCache(compactionEnabled ? 0 : cacheMaxEntries);
+        this.pageSize = pageSize;
+        this.prefetch = prefetch;
+        this.operationMetrics = operationMetrics;
+        this.queueShards = queueShards;
+    }
+
+    @Override
+    public PaymentTotals summarize(PaymentProcessorType processorType, SummaryWindow window) {
+        List<String> historyLists = queueShards.historyLists(processorType);
+        if (historyLists.size() == 1) {
+            return summarizeList(historyLists.get(0), window);
+        }
+        long totalRequests = 0;
+        long totalCents = 0;
+        for (String historyKey : historyLists) {
+            PaymentTotals shardTotals = summarizeList(historyKey, window);
+            totalRequests += shardTotals.totalRequests();
+            totalCents += shardTotals.totalCents();
+        }
+        return new PaymentTotals(totalRequests, totalCents);
+    }
+
+    private PaymentTotals summarizeList(String historyKey, SummaryWindow window) {
+        if (!cache.isEnabled()) {
+            return scan(historyKey, window, 0, -1, 0, 0);
+        }
+
+        HistorySnapshot snapshot = snapshot(historyKey);
+        long watermark = snapshot.listSize();
+        PaymentSummaryCache.Key key = PaymentSummaryCache.Key.of(historyKey, window);
+        PaymentSummaryCache.Entry cached = cache.get(key);
+        if (cached != null && cached.purgeEpoch() != snapshot.purgeEpoch()) {
+            // Lista recriada depois de um purge (nesta ou em outra instância)
+            cached = null;
+        }
+
+        PaymentTotals totals;
+        if (cached != null && cached.watermark() == watermark) {
+            return new PaymentTotals(cached.totalRequests(), cached.totalCents());
+        } else if (cached != null && cached.watermark() < watermark) {
+            // Só o delta acrescentado desde a última consulta desta janela
+            totals = scan(historyKey, window, cached.watermark(), watermark - 1,
+                    cached.totalRequests(), cached.totalCents());
+        } else if (watermark > 0) {
+            // Limita a leitura ao LLEN observado para que a marca d'água corresponda ao que foi lido
+            totals = scan(historyKey, window, 0, watermark - 1, 0, 0);
+        } else {
+            totals = PaymentTotals.EMPTY;
+        }
+        cache.put(key, new PaymentSummaryCache.Entry(snapshot.purgeEpoch(), watermark,
+                totals.totalRequests(), totals.totalCents()));
+        return totals;
+    }
+
+    /** Época de purge e tamanho da lista lidos juntos */
+    private record HistorySnapshot(long purgeEpoch, long listSize) {
+    }
+
+    /**
+     * Lê a época de purge e o LLEN no mesmo MULTI/EXEC: um purge concorrente não cai entre os dois.
+     */
+    private HistorySnapshot snapshot(String historyKey) {
+        List<Object> results = binaryRedisTemplate.execute(new SessionCallback<List<Object>>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> List<Object> execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, byte[]> ops = (RedisOperations<String, byte[]>) operations;
+                ops.multi();
+                ops.opsForValue().get(PaymentHistoryKeys.purgeEpoch());
+                ops.opsForList().size(historyKey);
+                return ops.exec();
+            }
+        });
+        if (results == null || results.size() != 2) {
+            return new HistorySnapshot(0, 0);
+        }
+        long purgeEpoch = (results.get(0) instanceof byte[] epoch)
+                ? Long.parseLong(new String(epoch, StandardCharsets.US_ASCII)) : 0;
+        long listSize = (results.get(1) instanceof Long size) ? size : 0;
+        return new HistorySnapshot(purgeEpoch, listSize);
+    }
+
+    /**
+     * Apaga as listas e incrementa a época de purge atomicamente, invalidando o cache das outras instâncias.
+     */
+    @Override
+    public void purge() {
+        List<String> keys = new ArrayList<>();
+        for (PaymentProcessorType processorType : PaymentProcessorType.values()) {
+            keys.addAll(queueShards.historyLists(processorType));
+        }
+        binaryRedisTemplate.execute(new SessionCallback<List<Object>>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> List<Object> execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, byte[]> ops = (RedisOperations<String, byte[]>) operations;
+                ops.multi();
+                ops.delete(keys);
+                ops.opsForValue().increment(PaymentHistoryKeys.purgeEpoch());
+                return ops.exec();
+            }
+        });
+        cache.clear();
+    }
+
+    /**
+     * Soma aos totais iniciais as entradas [start, end] da lista (end = -1 até o fim) que caem na janela,
+     * página a página.
+     */
+    private PaymentTotals scan(String historyKey, SummaryWindow window, long start, long end,
+                               long totalRequests, long totalCents) {
+        long[] totals = {totalRequests, totalCents};
+        long pageStart = start;
+        List<byte[]> page = readPage(historyKey, pageStart, end);
+        while (page != null && !page.isEmpty()) {
+            long nextStart = pageStart + page.size();
+            boolean hasNext = pageSize > 0 && page.size() == pageSize && (end == -1 || nextStart <= end);
+
+            CompletableFuture<List<byte[]>> nextPage = null;
+            if (hasNext && prefetch) {
+                nextPage = CompletableFuture.supplyAsync(() -> readPage(historyKey, nextStart, end), PREFETCH_EXECUTOR);
+            }
+            accumulate(page, window, totals);
+            if (!hasNext) {
+                break;
+            }
+            page = (nextPage != null) ? nextPage.join() : readPage(historyKey, nextStart, end);
+            pageStart = nextStart;
+        }
+        return new PaymentTotals(totals[0], totals[1]);
+    }
+
+    private List<byte[]> readPage(String historyKey, long pageStart, long end) {
+        long pageEnd = end;
+        if (pageSize > 0) {
+            long lastOfPage = pageStart + pageSize - 1;
+            pageEnd = (end == -1) ? lastOfPage : Math.min(lastOfPage, end);
+        }
+        return binaryRedisTemplate.opsForList().range(historyKey, pageStart, pageEnd);
+    }
+
+    private void accumulate(List<byte[]> page, SummaryWindow window, long[] totals) {
+        operationMetrics.increment(OperationMetrics.Counter.SUMMARY_ENTRIES_SCANNED, page.size());
+        for (byte[] entry : page) {
+            Payment payment = decoder.decode(entry);
+            if (payment != null && window.contains(payment.getRequestedAt().toEpochMilli())) {
+                totals[0]++;
+                totals[1] += payment.getAmountCents();
+            }
+        }
+    }
+}
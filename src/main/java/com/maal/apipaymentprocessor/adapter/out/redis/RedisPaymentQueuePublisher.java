@@ -1,41 +1,63 @@
 package com.maal.apipaymentprocessor.adapter.out.redis;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maal.apipaymentprocessor.domain.exception.DuplicatePaymentException;
 import com.maal.apipaymentprocessor.domain.exception.PaymentProcessingException;
 import com.maal.apipaymentprocessor.domain.model.Payment;
+import com.maal.apipaymentprocessor.domain.port.out.OperationMetrics;
 import com.maal.apipaymentprocessor.domain.port.out.PaymentQueuePublisher;
+import com.maal.apipaymentprocessor.infrastructure.codec.PaymentPayloadFormat;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.data.redis.RedisConnectionFailureException;
 import org.springframework.stereotype.Component;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.UUID;
+
 @Component
+@ConditionalOnProperty(name = "rinha.queue.publisher", havingValue = "direct", matchIfMissing = true)
 public class RedisPaymentQueuePublisher implements PaymentQueuePublisher {
     
 
     private final Logger logger = LoggerFactory.getLogger(RedisPaymentQueuePublisher.class);
 
-    private final RedisTemplate<String, String> redisTemplate;
-    private final ObjectMapper objectMapper;
-
-    @Value("${rinha.queue.payments-main}")
-    private String paymentsMainQueueName;
+    private final PaymentPayloadFormat payloadFormat;
+    private final OperationMetrics operationMetrics;
+    private final RedisListPaymentQueueWriter queueWriter;
+    private final RedisPaymentSpillover spillover;
 
-    public RedisPaymentQueuePublisher(RedisTemplate<String, String> redisTemplate, ObjectMapper objectMapper) {
-        this.redisTemplate = redisTemplate;
-        this.objectMapper = objectMapper;
+    public RedisPaymentQueuePublisher(@Value("${rinha.queue.format:json}") String payloadFormat,
+                                      OperationMetrics operationMetrics,
+                                      RedisListPaymentQueueWriter queueWriter,
+                                      RedisPaymentSpillover spillover) {
+        this.payloadFormat = PaymentPayloadFormat.fromProperty(payloadFormat);
+        this.operationMetrics = operationMetrics;
+        this.queueWriter = queueWriter;
+        this.spillover = spillover;
     }
 
     @Override
     public void publish(Payment payment) {
         try {
-            String paymentJson = objectMapper.writeValueAsString(payment);
-            redisTemplate.opsForList().rightPush(paymentsMainQueueName, paymentJson);
+            UUID correlationId = payment.getCorrelationId();
+            byte[] paymentPayload = payloadFormat.encode(payment);
+            long start = System.nanoTime();
+            if (spillover.isEnabled()) {
+                spillover.writeOrSpill(correlationId, paymentPayload, () -> queueWriter.writeOne(correlationId, paymentPayload));
+            } else {
+                queueWriter.writeOne(correlationId, paymentPayload);
+            }
+            operationMetrics.recordNanos(OperationMetrics.Timer.REDIS_COMMAND, System.nanoTime() - start);
+        } catch (DuplicatePaymentException e) {
+            throw e;
+        } catch (PaymentProcessingException e) {
+            // Redis fora e journal local cheio
+            operationMetrics.increment(OperationMetrics.Counter.PUBLISH_FAILURES, 1);
+            throw e;
         } catch (Exception e) {
+            operationMetrics.increment(OperationMetrics.Counter.PUBLISH_FAILURES, 1);
             logger.warn("Payment publishing failed", e);
             throw new PaymentProcessingException("Failed to publish payment to Redis queue: " + e.getMessage(), e.getCause());
         }
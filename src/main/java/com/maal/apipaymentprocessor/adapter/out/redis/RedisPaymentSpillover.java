@@ -0,0 +1,336 @@
+package com.maal.apipaymentprocessor.adapter.out.redis;
+
+import com.maal.apipaymentprocessor.domain.exception.DuplicatePaymentException;
+import com.maal.apipaymentprocessor.domain.exception.PaymentProcessingException;
+import com.maal.apipaymentprocessor.domain.port.out.OperationMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Estágio de contingência da publicação (rinha.queue.spill.enabled=true): quando a escrita na
+ * fila falha ou não termina em {@code budget-millis}, o pagamento vai para o
+ * {@link PaymentSpillJournal} local e a requisição é confirmada sem esperar o Redis.
+ *
+ * Enquanto o journal tiver pendências os publicadores gravam direto nele, sem pagar o timeout
+ * do Redis a cada requisição. Uma thread de drenagem reenvia o journal à fila em lotes assim que
+ * o Redis responde, avançando o offset só após cada lote confirmado; o que restar no
+ * desligamento é drenado na próxima subida.
+ *
+ * Uma escrita que passou do prazo não é cancelada e pode ainda chegar ao Redis depois de o
+ * pagamento ir para o journal. A drenagem espera o resultado dessa escrita antes de reenviar o
+ * registro e o descarta se ela chegou à fila. Só uma queda da instância (ou um desligamento)
+ * com a escrita ainda sem resultado faz a próxima subida reenviar um pagamento talvez já
+ * enfileirado; com a deduplicação ligada essa cópia é descartada pelo script de enfileiramento.
+ */
+@Component
+public class RedisPaymentSpillover implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisPaymentSpillover.class);
+
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5_000;
+
+    private static final ExecutorService BUDGET_EXECUTOR =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("queue-write-", 0).factory());
+
+    private final boolean enabled;
+    private final Path journalPath;
+    private final int capacityBytes;
+    private final int drainBatchSize;
+    private final long retryNanos;
+    private final long budgetMillis;
+    private final OperationMetrics operationMetrics;
+
+    /** Escritas que estouraram o prazo, por correlationId, até o registro no journal ser confirmado */
+    private final ConcurrentHashMap<UUID, CompletableFuture<Void>> undecidedWrites = new ConcurrentHashMap<>();
+
+    private volatile Consumer<List<QueuedPayment>> replayWriter;
+    private volatile PaymentSpillJournal journal;
+    private volatile boolean running;
+    private volatile Thread drainer;
+    /** Só acessado pela thread de drenagem */
+    private boolean failing;
+
+    public RedisPaymentSpillover(@Value("${rinha.queue.spill.enabled:false}") boolean enabled,
+                                 @Value("${rinha.queue.spill.file:/tmp/payment-spill.journal}") String journalFile,
+                                 @Value("${rinha.queue.spill.capacity-bytes:16777216}") int capacityBytes,
+                                 @Value("${rinha.queue.spill.drain-batch-size:256}") int drainBatchSize,
+                                 @Value("${rinha.queue.spill.retry-millis:100}") long retryMillis,
+                                 @Value("${rinha.queue.spill.budget-millis:50}") long budgetMillis,
+                                 RedisListPaymentQueueWriter queueWriter,
+                                 OperationMetrics operationMetrics) {
+        this.enabled = enabled;
+        this.journalPath = Path.of(journalFile);
+        this.capacityBytes = capacityBytes;
+        this.drainBatchSize = drainBatchSize;
+        this.retryNanos = TimeUnit.MILLISECONDS.toNanos(retryMillis);
+        this.budgetMillis = budgetMillis;
+        this.operationMetrics = operationMetrics;
+        this.replayWriter = queueWriter::writeBatch;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Indica se ainda há pagamentos no journal esperando o Redis.
+     */
+    public boolean hasBacklog() {
+        PaymentSpillJournal current = journal;
+        return current != null && current.pendingRecords() > 0;
+    }
+
+    /**
+     * Escrita usada para reenviar o journal (padrão: filas em lista). Publicadores com outro
+     * destino, como o stream, registram a sua antes de a drenagem começar.
+     */
+    void replayWith(Consumer<List<QueuedPayment>> writer) {
+        this.replayWriter = writer;
+    }
+
+    /**
+     * Executa a escrita no Redis com prazo de {@code budget-millis} (0 = sem prazo próprio, só o
+     * timeout do Redis). Estourado o prazo, falhando a escrita ou havendo pendências no journal,
+     * o pagamento é gravado no journal; estourado o prazo, o reenvio espera a escrita terminar.
+     * @return true se a escrita chegou ao Redis, false se o pagamento foi para o journal
+     * @throws DuplicatePaymentException se a escrita encontrar o correlationId já aceito
+     */
+    public boolean writeOrSpill(UUID correlationId, byte[] paymentPayload, Runnable write) {
+        if (hasBacklog()) {
+            spill(correlationId, paymentPayload);
+            return false;
+        }
+        CompletableFuture<Void> pending = null;
+        try {
+            if (budgetMillis > 0) {
+                pending = CompletableFuture.runAsync(write, BUDGET_EXECUTOR);
+                pending.get(budgetMillis, TimeUnit.MILLISECONDS);
+            } else {
+                write.run();
+            }
+            return true;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DuplicatePaymentException duplicate) {
+                throw duplicate;
+            }
+            logger.debug("Escrita na fila falhou, gravando no journal: {}", e.getCause().getMessage());
+            spill(correlationId, paymentPayload);
+        } catch (TimeoutException e) {
+            spillUndecided(correlationId, paymentPayload, pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            spillUndecided(correlationId, paymentPayload, pending);
+        } catch (DuplicatePaymentException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            logger.debug("Escrita na fila falhou, gravando no journal: {}", e.getMessage());
+            spill(correlationId, paymentPayload);
+        }
+        return false;
+    }
+
+    /**
+     * Grava no journal um pagamento cuja escrita no Redis ainda está em andamento. A escrita é
+     * registrada antes do registro, para que a drenagem nunca leia um sem enxergar o outro.
+     */
+    private void spillUndecided(UUID correlationId, byte[] paymentPayload, CompletableFuture<Void> pending) {
+        undecidedWrites.put(correlationId, pending);
+        try {
+            spill(correlationId, paymentPayload);
+        } catch (PaymentProcessingException e) {
+            undecidedWrites.remove(correlationId, pending);
+            throw e;
+        }
+    }
+
+    /**
+     * Grava um pagamento no journal.
+     * @throws PaymentProcessingException se o journal estiver desligado ou cheio
+     */
+    public void spill(UUID correlationId, byte[] paymentPayload) {
+        PaymentSpillJournal current = journal;
+        if (current == null || !current.append(correlationId, paymentPayload)) {
+            throw new PaymentProcessingException("Redis unavailable and spill journal is "
+                    + (current == null ? "not open" : "full (" + capacityBytes + " bytes)"));
+        }
+        // Sem acordar a drenagem: ela tenta o Redis de novo a cada retry-millis
+        operationMetrics.increment(OperationMetrics.Counter.SPILLED_PAYMENTS, 1);
+    }
+
+    /**
+     * Grava um lote no journal.
+     * @return quantidade de pagamentos que não couberam
+     */
+    int spillAll(List<QueuedPayment> batch) {
+        int rejected = 0;
+        for (QueuedPayment queuedPayment : batch) {
+            try {
+                spill(queuedPayment.correlationId(), queuedPayment.payload());
+            } catch (PaymentProcessingException e) {
+                rejected++;
+            }
+        }
+        return rejected;
+    }
+
+    private void drainLoop() {
+        while (running) {
+            if (!drainBatch()) {
+                LockSupport.parkNanos(this, retryNanos);
+            }
+        }
+        // Desligamento: última passada enquanto o Redis responder
+        while (drainBatch()) {
+            // continua até esvaziar ou falhar
+        }
+    }
+
+    /**
+     * Reenvia um lote do journal à fila.
+     * @return true se um lote foi confirmado pelo Redis
+     */
+    private boolean drainBatch() {
+        PaymentSpillJournal.Batch batch = journal.read(drainBatchSize);
+        if (batch.isEmpty()) {
+            journal.force();
+            return false;
+        }
+        List<QueuedPayment> replay = undecidedWrites.isEmpty() ? batch.payments() : withoutDeliveredWrites(batch.payments());
+        if (replay == null) {
+            // Uma escrita atrasada do lote ainda não terminou: tenta de novo no próximo ciclo
+            return false;
+        }
+        try {
+            if (!replay.isEmpty()) {
+                replayWriter.accept(replay);
+            }
+        } catch (Exception e) {
+            if (!failing) {
+                logger.warn("Redis indisponível; {} pagamentos aguardam no journal {}: {}",
+                        journal.pendingRecords(), journal.path(), e.getMessage());
+                failing = true;
+            }
+            return false;
+        }
+        journal.commit(batch);
+        if (!undecidedWrites.isEmpty()) {
+            for (QueuedPayment queuedPayment : batch.payments()) {
+                undecidedWrites.computeIfPresent(queuedPayment.correlationId(), (id, write) -> write.isDone() ? null : write);
+            }
+        }
+        operationMetrics.increment(OperationMetrics.Counter.SPILL_REPLAYED_PAYMENTS, replay.size());
+        if (failing && !hasBacklog()) {
+            logger.info("Journal {} drenado para a fila", journal.path());
+            failing = false;
+        }
+        return true;
+    }
+
+    /**
+     * Pagamentos do lote que ainda precisam ir para a fila: descarta os de escritas atrasadas que
+     * chegaram ao Redis ou encontraram o correlationId já aceito.
+     * @return null se alguma escrita atrasada do lote ainda não terminou
+     */
+    private List<QueuedPayment> withoutDeliveredWrites(List<QueuedPayment> payments) {
+        List<QueuedPayment> replay = new ArrayList<>(payments.size());
+        for (QueuedPayment queuedPayment : payments) {
+            CompletableFuture<Void> write = undecidedWrites.get(queuedPayment.correlationId());
+            if (write == null) {
+                replay.add(queuedPayment);
+                continue;
+            }
+            switch (write.state()) {
+                case RUNNING -> {
+                    return null;
+                }
+                case SUCCESS -> {
+                    // Já está na fila
+                }
+                case FAILED -> {
+                    if (!(write.exceptionNow() instanceof DuplicatePaymentException)) {
+                        replay.add(queuedPayment);
+                    }
+                }
+                case CANCELLED -> replay.add(queuedPayment);
+            }
+        }
+        return replay;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            journal = PaymentSpillJournal.open(journalPath, capacityBytes);
+        } catch (IOException e) {
+            throw new IllegalStateException("Não foi possível abrir o journal " + journalPath, e);
+        }
+        if (journal.pendingRecords() > 0) {
+            logger.info("{} pagamentos recuperados do journal {}", journal.pendingRecords(), journalPath);
+        }
+        running = true;
+        drainer = Thread.ofPlatform().name("payment-spill-drainer").daemon(true).start(this::drainLoop);
+    }
+
+    /**
+     * Para depois dos publicadores, que ainda podem gravar no journal ao esvaziar seus buffers.
+     * O que não puder ser drenado agora fica no arquivo para a próxima subida.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        Thread current = drainer;
+        if (current != null) {
+            LockSupport.unpark(current);
+            try {
+                current.join(SHUTDOWN_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            drainer = null;
+        }
+        PaymentSpillJournal currentJournal = journal;
+        if (currentJournal == null) {
+            return;
+        }
+        if (currentJournal.pendingRecords() > 0) {
+            logger.warn("{} pagamentos ficaram no journal {} para a próxima subida",
+                    currentJournal.pendingRecords(), journalPath);
+        }
+        try {
+            currentJournal.close();
+        } catch (IOException e) {
+            logger.warn("Falha ao fechar o journal {}: {}", journalPath, e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 8192;
+    }
+}
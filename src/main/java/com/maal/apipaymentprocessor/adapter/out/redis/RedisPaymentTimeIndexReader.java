@@ -0,0 +1,119 @@
+package com.maal.apipaymentprocessor.adapter.out.redis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maal.apipaymentprocessor.domain.model.Payment;
+import com.maal.apipaymentprocessor.domain.model.PaymentProcessorType;
+import com.maal.apipaymentprocessor.domain.model.PaymentTotals;
+import com.maal.apipaymentprocessor.domain.model.SummaryWindow;
+import com.maal.apipaymentprocessor.domain.port.out.PaymentHistoryReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Leitura do histórico através de um índice temporal em sorted set
+ * ("payments:history:{processador}:by-time"), com score = requestedAt em epoch millis e
+ * membro = codificação compacta "{partição}:{posição na lista}:{valor em centavos}".
+ * A posição torna cada entrada da lista um membro distinto: entradas repetidas no histórico
+ * contam duas vezes, como nos modos scan, lua e aggregate.
+ *
+ * A consulta faz um ZRANGEBYSCORE apenas da janela pedida em vez de transferir a lista inteira.
+ * Enquanto o async-worker continuar gravando nas listas "payments:history:*", as entradas
+ * novas (e, na primeira consulta, todo o histórico existente) são migradas para o índice
+ * pelo {@link HistoryListTailFolder}; a lista bruta é mantida intacta para auditoria.
+ *
+ * Custo de memória: o índice é uma segunda cópia do histórico, cerca de 60-70 bytes por pagamento
+ * (membro de ~15 bytes mais o overhead da skiplist), somados às listas brutas. Com
+ * maxmemory/allkeys-lru, esse volume aproxima a expulsão de chaves, inclusive das listas.
+ */
+@Component
+@ConditionalOnProperty(name = "rinha.summary.mode", havingValue = "zset")
+public class RedisPaymentTimeIndexReader implements PaymentHistoryReader {
+
+    private static final char MEMBER_SEPARATOR = ':';
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final HistoryListTailFolder historyFolder;
+    private final PaymentQueueShards queueShards;
+
+    public RedisPaymentTimeIndexReader(RedisTemplate<String, String> redisTemplate, ObjectMapper objectMapper,
+                                       @Value("${rinha.summary.time-index.migration-batch-size:2000}") int migrationBatchSize,
+                                       PaymentQueueShards queueShards) {
+        this.redisTemplate = redisTemplate;
+        this.queueShards = queueShards;
+        this.historyFolder = new HistoryListTailFolder(redisTemplate, objectMapper, migrationBatchSize);
+    }
+
+    @Override
+    public PaymentTotals summarize(PaymentProcessorType processorType, SummaryWindow window) {
+        // Cada partição tem seu cursor; o índice do processador é compartilhado
+        List<String> historyLists = queueShards.historyLists(processorType);
+        for (int shard = 0; shard < historyLists.size(); shard++) {
+            int shardIndex = shard;
+            historyFolder.fold(historyLists.get(shard),
+                    queueShards.shardKey(PaymentHistoryKeys.timeIndexCursor(processorType), shard),
+                    (ops, payments, positions) -> writeIndex(processorType, ops, shardIndex, payments, positions));
+        }
+        if (window.isEmpty()) {
+            return PaymentTotals.EMPTY;
+        }
+
+        // Scores são inteiros (millis), então o limite exclusivo "to" vira to - 1 inclusivo
+        Set<String> members = redisTemplate.opsForZSet()
+                .rangeByScore(PaymentHistoryKeys.timeIndex(processorType), window.fromMillis(), window.toMillis() - 1);
+        if (members == null || members.isEmpty()) {
+            return PaymentTotals.EMPTY;
+        }
+
+        long totalCents = 0;
+        for (String member : members) {
+            totalCents += Long.parseLong(member, member.lastIndexOf(MEMBER_SEPARATOR) + 1, member.length(), 10);
+        }
+        return new PaymentTotals(members.size(), totalCents);
+    }
+
+    @Override
+    public void purge() {
+        List<String> keys = new ArrayList<>();
+        for (PaymentProcessorType processorType : PaymentProcessorType.values()) {
+            keys.add(PaymentHistoryKeys.timeIndex(processorType));
+            for (int shard = 0; shard < queueShards.count(); shard++) {
+                keys.add(queueShards.shardKey(PaymentHistoryKeys.timeIndexCursor(processorType), shard));
+            }
+            keys.addAll(queueShards.historyLists(processorType));
+        }
+        redisTemplate.delete(keys);
+    }
+
+    /**
+     * Codificação compacta de um pagamento como membro do índice temporal.
+     * Partição e posição na lista garantem um membro por entrada; o valor vai em centavos.
+     */
+    static String encodeMember(int shard, long position, Payment payment) {
+        return Integer.toString(shard) + MEMBER_SEPARATOR + position + MEMBER_SEPARATOR + payment.getAmountCents();
+    }
+
+    private void writeIndex(PaymentProcessorType processorType, RedisOperations<String, String> ops,
+                            int shard, List<Payment> payments, long[] positions) {
+        if (payments.isEmpty()) {
+            return;
+        }
+        // Um único ZADD com todos os membros do lote
+        Set<ZSetOperations.TypedTuple<String>> tuples = new HashSet<>(payments.size() * 2);
+        for (int i = 0; i < payments.size(); i++) {
+            Payment payment = payments.get(i);
+            tuples.add(new DefaultTypedTuple<>(encodeMember(shard, positions[i], payment),
+                    (double) payment.getRequestedAt().toEpochMilli()));
+        }
+        ops.opsForZSet().add(PaymentHistoryKeys.timeIndex(processorType), tuples);
+    }
+}
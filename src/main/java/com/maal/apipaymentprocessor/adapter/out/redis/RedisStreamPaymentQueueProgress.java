@@ -0,0 +1,76 @@
+package com.maal.apipaymentprocessor.adapter.out.redis;
+
+import com.maal.apipaymentprocessor.domain.port.out.PaymentQueueProgress;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.stream.PendingMessagesSummary;
+import org.springframework.data.redis.connection.stream.StreamInfo;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.stereotype.Component;
+
+/**
+ * Marcas d'água por id de entrada do Redis Stream ("epochMillis-sequência", crescente).
+ *
+ * O grupo processou tudo até a marca d'água quando já entregou entradas até ela
+ * (last-delivered-id) e nenhuma entrada até ela continua pendente de XACK.
+ */
+@Component
+@ConditionalOnProperty(name = "rinha.queue.publisher", havingValue = "stream")
+public class RedisStreamPaymentQueueProgress implements PaymentQueueProgress {
+
+    private final StreamOperations<String, Object, Object> streamOperations;
+    private final String streamKey;
+    private final String consumerGroup;
+
+    public RedisStreamPaymentQueueProgress(RedisTemplate<String, byte[]> binaryRedisTemplate,
+                                           @Value("${rinha.queue.payments-stream}") String streamKey,
+                                           @Value("${rinha.queue.stream.group:payment-workers}") String consumerGroup) {
+        this.streamOperations = binaryRedisTemplate.opsForStream();
+        this.streamKey = streamKey;
+        this.consumerGroup = consumerGroup;
+    }
+
+    @Override
+    public String currentWatermark() {
+        if (!Boolean.TRUE.equals(streamOperations.getOperations().hasKey(streamKey))) {
+            return null;
+        }
+        String lastId = streamOperations.info(streamKey).lastGeneratedId();
+        return "0-0".equals(lastId) ? null : lastId;
+    }
+
+    @Override
+    public boolean processedThrough(String watermark) {
+        if (watermark == null) {
+            return true;
+        }
+        StreamInfo.XInfoGroup group = streamOperations.groups(streamKey).stream()
+                .filter(candidate -> consumerGroup.equals(candidate.groupName()))
+                .findFirst()
+                .orElse(null);
+        if (group == null || compareIds(group.lastDeliveredId(), watermark) < 0) {
+            return false;
+        }
+        if (group.pendingCount() == 0) {
+            return true;
+        }
+        PendingMessagesSummary pending = streamOperations.pending(streamKey, consumerGroup);
+        return pending.getTotalPendingMessages() == 0 || compareIds(pending.minMessageId(), watermark) > 0;
+    }
+
+    /**
+     * Compara dois ids de stream "millis-sequência" numericamente.
+     */
+    static int compareIds(String left, String right) {
+        int leftSeparator = left.indexOf('-');
+        int rightSeparator = right.indexOf('-');
+        int byMillis = Long.compare(Long.parseLong(left.substring(0, leftSeparator)),
+                Long.parseLong(right.substring(0, rightSeparator)));
+        if (byMillis != 0) {
+            return byMillis;
+        }
+        return Long.compare(Long.parseLong(left.substring(leftSeparator + 1)),
+                Long.parseLong(right.substring(rightSeparator + 1)));
+    }
+}
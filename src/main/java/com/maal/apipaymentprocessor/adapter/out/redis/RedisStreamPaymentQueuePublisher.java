@@ -0,0 +1,115 @@
+package com.maal.apipaymentprocessor.adapter.out.redis;
+
+import com.maal.apipaymentprocessor.domain.port.out.OperationMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.stream.ByteRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Publicador em Redis Stream (rinha.queue.publisher=stream), com o mesmo buffer local e a mesma
+ * thread de flush do publicador em lote: cada lote vira XADDs em pipeline, todos com MAXLEN ~
+ * para limitar o tamanho do stream. Como no publicador em lote, a deduplicação não é suportada.
+ *
+ * Diferente da lista, uma entrada lida pelo async-worker com XREADGROUP continua pendente até o
+ * XACK: um worker que cai no meio do processamento não perde o pagamento, que pode ser
+ * reivindicado (XAUTOCLAIM) por outro consumidor do grupo. O grupo é criado na subida a partir
+ * do início do stream, para que nada publicado antes do primeiro worker seja ignorado.
+ * O corte por MAXLEN ~ não olha pendências: o limite deve folgar bem acima do atraso do worker.
+ * O stream não é particionado (rinha.queue.shards): mais workers entram como consumidores do grupo.
+ */
+@Component
+@ConditionalOnProperty(name = "rinha.queue.publisher", havingValue = "stream")
+public class RedisStreamPaymentQueuePublisher extends BatchingRedisPaymentQueuePublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisStreamPaymentQueuePublisher.class);
+
+    /** Campo de cada entrada do stream com o payload do pagamento (JSON ou binário) */
+    static final String PAYMENT_FIELD = "payment";
+    private static final byte[] PAYMENT_FIELD_BYTES = PAYMENT_FIELD.getBytes(StandardCharsets.UTF_8);
+
+    private final RedisTemplate<String, byte[]> ingestRedisTemplate;
+    private final String streamKey;
+    private final byte[] streamKeyBytes;
+    private final String consumerGroup;
+    private final XAddOptions addOptions;
+
+    public RedisStreamPaymentQueuePublisher(@Qualifier("ingestRedisTemplate") RedisTemplate<String, byte[]> ingestRedisTemplate,
+                                            @Value("${rinha.queue.format:json}") String payloadFormat,
+                                            @Value("${rinha.queue.payments-stream}") String streamKey,
+                                            @Value("${rinha.queue.stream.group:payment-workers}") String consumerGroup,
+                                            @Value("${rinha.queue.stream.max-length:1000000}") long maxLength,
+                                            @Value("${rinha.queue.batch.capacity:8192}") int capacity,
+                                            @Value("${rinha.queue.batch.max-size:64}") int maxBatchSize,
+                                            @Value("${rinha.queue.batch.max-delay-micros:500}") long maxDelayMicros,
+                                            @Value("${rinha.queue.batch.overflow-policy:CALLER_RUNS}") String overflowPolicy,
+                                            @Value("${rinha.queue.batch.block-timeout-millis:50}") long blockTimeoutMillis,
+                                            OperationMetrics operationMetrics,
+                                            RedisPaymentDeduplicator deduplicator,
+                                            RedisListPaymentQueueWriter queueWriter,
+                                            RedisPaymentSpillover spillover) {
+        super(payloadFormat, capacity, maxBatchSize, maxDelayMicros, overflowPolicy, blockTimeoutMillis,
+                operationMetrics, deduplicator, queueWriter, spillover);
+        this.ingestRedisTemplate = ingestRedisTemplate;
+        this.streamKey = streamKey;
+        this.streamKeyBytes = streamKey.getBytes(StandardCharsets.UTF_8);
+        this.consumerGroup = consumerGroup;
+        this.addOptions = (maxLength > 0)
+                ? XAddOptions.maxlen(maxLength).approximateTrimming(true)
+                : XAddOptions.none();
+    }
+
+    @Override
+    void writeOne(UUID correlationId, byte[] paymentPayload) {
+        ingestRedisTemplate.execute((RedisCallback<RecordId>) connection ->
+                connection.streamCommands().xAdd(record(paymentPayload), addOptions));
+    }
+
+    @Override
+    void writeBatch(List<QueuedPayment> batch) {
+        ingestRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (QueuedPayment queuedPayment : batch) {
+                connection.streamCommands().xAdd(record(queuedPayment.payload()), addOptions);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void start() {
+        createConsumerGroup();
+        super.start();
+    }
+
+    private void createConsumerGroup() {
+        try {
+            ingestRedisTemplate.execute((RedisCallback<String>) connection ->
+                    connection.streamCommands().xGroupCreate(streamKeyBytes, consumerGroup, ReadOffset.from("0"), true));
+            logger.info("Grupo de consumidores '{}' criado no stream {}", consumerGroup, streamKey);
+        } catch (Exception e) {
+            if (String.valueOf(e.getMessage()).contains("BUSYGROUP")) {
+                logger.debug("Grupo de consumidores '{}' já existe no stream {}", consumerGroup, streamKey);
+            } else {
+                logger.warn("Não foi possível criar o grupo de consumidores '{}': {}", consumerGroup, e.getMessage());
+            }
+        }
+    }
+
+    private ByteRecord record(byte[] paymentPayload) {
+        return StreamRecords.rawBytes(Map.of(PAYMENT_FIELD_BYTES, paymentPayload)).withStreamKey(streamKeyBytes);
+    }
+}
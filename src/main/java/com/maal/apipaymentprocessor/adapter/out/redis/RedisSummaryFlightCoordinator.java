@@ -0,0 +1,190 @@
+package com.maal.apipaymentprocessor.adapter.out.redis;
+
+import com.maal.apipaymentprocessor.domain.model.PaymentProcessorType;
+import com.maal.apipaymentprocessor.domain.model.PaymentTotals;
+import com.maal.apipaymentprocessor.domain.model.SummaryWindow;
+import com.maal.apipaymentprocessor.domain.port.out.SummaryFlightCoordinator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Coordenação do resumo entre as instâncias da API (rinha.summary.coalesce.cross-instance=true).
+ *
+ * A primeira instância a pedir a janela grava um lease curto (SET NX PX) com o token do seu
+ * cálculo; ao terminar publica os totais em "payments:summary:flight-result:{token}" e libera o
+ * lease. As outras leem o token do lease e consultam o resultado a cada poll-millis; se o lease
+ * sumir ou mudar de dono sem resultado (falha ou queda do cálculo), calculam por conta própria.
+ *
+ * O resultado fica preso ao token, não à janela: só reaproveita quem chegou durante o cálculo,
+ * então uma consulta posterior nunca recebe totais anteriores a ela.
+ */
+@Component
+@ConditionalOnProperty(name = "rinha.summary.coalesce.cross-instance", havingValue = "true")
+public class RedisSummaryFlightCoordinator implements SummaryFlightCoordinator {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisSummaryFlightCoordinator.class);
+
+    private static final PaymentProcessorType[] PROCESSOR_TYPES = PaymentProcessorType.values();
+
+    /** Cálculo local sem lease: ninguém espera por ele */
+    private static final Flight UNCOORDINATED = new Flight() {
+        @Override
+        public Map<PaymentProcessorType, PaymentTotals> sharedResult() {
+            return null;
+        }
+
+        @Override
+        public void complete(Map<PaymentProcessorType, PaymentTotals> totals) {
+        }
+
+        @Override
+        public void abandon() {
+        }
+    };
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisScript<Long> summaryFlightCompleteScript;
+    private final Duration leaseDuration;
+    private final String resultTtlMillis;
+    private final long pollNanos;
+
+    public RedisSummaryFlightCoordinator(RedisTemplate<String, String> redisTemplate,
+                                         RedisScript<Long> summaryFlightCompleteScript,
+                                         @Value("${rinha.summary.coalesce.lease-millis:1500}") long leaseMillis,
+                                         @Value("${rinha.summary.coalesce.result-ttl-millis:2000}") long resultTtlMillis,
+                                         @Value("${rinha.summary.coalesce.poll-millis:2}") long pollMillis) {
+        this.redisTemplate = redisTemplate;
+        this.summaryFlightCompleteScript = summaryFlightCompleteScript;
+        this.leaseDuration = Duration.ofMillis(leaseMillis);
+        this.resultTtlMillis = Long.toString(resultTtlMillis);
+        this.pollNanos = TimeUnit.MILLISECONDS.toNanos(pollMillis);
+    }
+
+    @Override
+    public Flight join(SummaryWindow window, long waitMillis) {
+        String leaseKey = PaymentHistoryKeys.summaryFlightLease(window.fromMillis(), window.toMillis());
+        String token = UUID.randomUUID().toString();
+        try {
+            // Duas tentativas: o lease pode ser liberado entre o SET NX e a leitura do dono
+            for (int attempt = 0; attempt < 2; attempt++) {
+                if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(leaseKey, token, leaseDuration))) {
+                    return new LeasedFlight(leaseKey, token);
+                }
+                String leader = redisTemplate.opsForValue().get(leaseKey);
+                if (leader != null) {
+                    return awaitLeader(leaseKey, leader, waitMillis);
+                }
+            }
+        } catch (Exception e) {
+            logger.debug("Coordenação do resumo indisponível, calculando localmente: {}", e.getMessage());
+        }
+        return UNCOORDINATED;
+    }
+
+    /**
+     * Espera o resultado do cálculo {@code leader}, consultando resultado e lease numa única ida ao Redis.
+     */
+    private Flight awaitLeader(String leaseKey, String leader, long waitMillis) {
+        List<String> keys = List.of(PaymentHistoryKeys.summaryFlightResult(leader), leaseKey);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+        while (true) {
+            List<String> values = redisTemplate.opsForValue().multiGet(keys);
+            if (values == null) {
+                return UNCOORDINATED;
+            }
+            if (values.get(0) != null) {
+                return new SharedFlight(decode(values.get(0)));
+            }
+            if (!leader.equals(values.get(1)) || System.nanoTime() >= deadline) {
+                return UNCOORDINATED;
+            }
+            LockSupport.parkNanos(pollNanos);
+        }
+    }
+
+    private void finish(String leaseKey, String token, String encodedResult) {
+        try {
+            redisTemplate.execute(summaryFlightCompleteScript,
+                    List.of(leaseKey, PaymentHistoryKeys.summaryFlightResult(token)),
+                    token, encodedResult, resultTtlMillis);
+        } catch (Exception e) {
+            // O lease expira sozinho; quem espera calcula por conta própria
+            logger.debug("Não foi possível publicar o resumo coordenado: {}", e.getMessage());
+        }
+    }
+
+    /** "quantidade:centavos" de cada processador, na ordem de {@link PaymentProcessorType#values()} */
+    static String encode(Map<PaymentProcessorType, PaymentTotals> totals) {
+        StringBuilder encoded = new StringBuilder(64);
+        for (PaymentProcessorType processorType : PROCESSOR_TYPES) {
+            PaymentTotals processorTotals = totals.getOrDefault(processorType, PaymentTotals.EMPTY);
+            if (!encoded.isEmpty()) {
+                encoded.append(':');
+            }
+            encoded.append(processorTotals.totalRequests()).append(':').append(processorTotals.totalCents());
+        }
+        return encoded.toString();
+    }
+
+    static Map<PaymentProcessorType, PaymentTotals> decode(String encoded) {
+        String[] fields = encoded.split(":");
+        Map<PaymentProcessorType, PaymentTotals> totals = new EnumMap<>(PaymentProcessorType.class);
+        for (int i = 0; i < PROCESSOR_TYPES.length; i++) {
+            totals.put(PROCESSOR_TYPES[i],
+                    new PaymentTotals(Long.parseLong(fields[2 * i]), Long.parseLong(fields[2 * i + 1])));
+        }
+        return totals;
+    }
+
+    /** Esta instância detém o lease e calcula */
+    private final class LeasedFlight implements Flight {
+
+        private final String leaseKey;
+        private final String token;
+
+        private LeasedFlight(String leaseKey, String token) {
+            this.leaseKey = leaseKey;
+            this.token = token;
+        }
+
+        @Override
+        public Map<PaymentProcessorType, PaymentTotals> sharedResult() {
+            return null;
+        }
+
+        @Override
+        public void complete(Map<PaymentProcessorType, PaymentTotals> totals) {
+            finish(leaseKey, token, encode(totals));
+        }
+
+        @Override
+        public void abandon() {
+            finish(leaseKey, token, "");
+        }
+    }
+
+    /** Resultado calculado por outra instância */
+    private record SharedFlight(Map<PaymentProcessorType, PaymentTotals> sharedResult) implements Flight {
+
+        @Override
+        public void complete(Map<PaymentProcessorType, PaymentTotals> totals) {
+        }
+
+        @Override
+        public void abandon() {
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package com.maal.apipaymentprocessor.adapter.out.redis;
+
+import com.maal.apipaymentprocessor.domain.exception.PaymentProcessingException;
+import com.maal.apipaymentprocessor.domain.model.Payment;
+import com.maal.apipaymentprocessor.domain.port.out.OperationMetrics;
+import com.maal.apipaymentprocessor.domain.port.out.PaymentQueuePublisher;
+import com.maal.apipaymentprocessor.infrastructure.codec.PaymentPayloadFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Publicador com anel pré-alocado (rinha.queue.publisher=ring), no estilo do Disruptor: as
+ * threads das requisições só copiam os campos do pagamento para um {@link Payment} já alocado no
+ * slot, e uma única thread de drenagem serializa e escreve os lotes no Redis. Só ela fala com o
+ * Redis, então as requisições não disputam a conexão do Lettuce.
+ *
+ * Cada produtor reserva uma sequência com CAS (só quando o slot já foi liberado pela drenagem),
+ * preenche o slot e o publica gravando a sequência em {@code published}. A drenagem lê os slots
+ * publicados em ordem e os libera assim que serializa o lote, antes de esperar o Redis. No
+ * desligamento a drenagem espera também as sequências já reservadas e ainda não publicadas, e só
+ * termina fechando o anel com CAS: a partir daí a reserva falha e o pagamento vai direto ao Redis.
+ *
+ * Com o anel cheio por mais de {@code offer-timeout-micros} o pagamento é escrito na própria
+ * thread da requisição. Um lote que esgota as tentativas vai para o journal local, se ligado, ou é
+ * descartado e contabilizado. Como no publicador em lote, a requisição é confirmada antes da
+ * escrita, então a deduplicação (rinha.dedupe.enabled) não é suportada.
+ */
+@Component
+@ConditionalOnProperty(name = "rinha.queue.publisher", havingValue = "ring")
+public class RingBufferPaymentQueuePublisher implements PaymentQueuePublisher, SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(RingBufferPaymentQueuePublisher.class);
+
+    private static final int FLUSH_ATTEMPTS = 3;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5_000;
+    private static final long CLAIM_BACKOFF_NANOS = 10_000;
+    /** Espera máxima, no desligamento, por um slot reservado que não foi publicado */
+    private static final long UNPUBLISHED_WAIT_MILLIS = 1_000;
+    /** Valor de {@code nextSequence} com o anel fechado pelo desligamento */
+    private static final long CLOSED = Long.MIN_VALUE;
+
+    private final PaymentPayloadFormat payloadFormat;
+    private final OperationMetrics operationMetrics;
+    private final RedisListPaymentQueueWriter queueWriter;
+    private final RedisPaymentSpillover spillover;
+    private final int maxBatchSize;
+    private final long idleParkNanos;
+    private final long offerTimeoutNanos;
+
+    /** Slots pré-alocados, reaproveitados a cada volta do anel */
+    private final Payment[] slots;
+    /** Sequência publicada em cada slot (-1 = nunca publicado) */
+    private final AtomicLongArray published;
+    private final int mask;
+    /** Próxima sequência a ser reservada pelos produtores ({@link #CLOSED} após o desligamento) */
+    private final AtomicLong nextSequence = new AtomicLong();
+    /** Última sequência liberada pela drenagem; só a thread de drenagem escreve */
+    private volatile long consumedSequence = -1;
+
+    private final AtomicLong lostPayments = new AtomicLong();
+
+    private volatile boolean running;
+    private volatile Thread drainer;
+
+    public RingBufferPaymentQueuePublisher(@Value("${rinha.queue.format:json}") String payloadFormat,
+                                           @Value("${rinha.queue.ring.capacity:8192}") int capacity,
+                                           @Value("${rinha.queue.ring.max-batch-size:64}") int maxBatchSize,
+                                           @Value("${rinha.queue.ring.idle-park-micros:100}") long idleParkMicros,
+                                           @Value("${rinha.queue.ring.offer-timeout-micros:1000}") long offerTimeoutMicros,
+                                           OperationMetrics operationMetrics,
+                                           RedisPaymentDeduplicator deduplicator,
+                                           RedisListPaymentQueueWriter queueWriter,
+                                           RedisPaymentSpillover spillover) {
+        if (deduplicator.isEnabled()) {
+            throw new IllegalStateException("rinha.dedupe.enabled=true não é suportado com rinha.queue.publisher=ring");
+        }
+        this.payloadFormat = PaymentPayloadFormat.fromProperty(payloadFormat);
+        this.operationMetrics = operationMetrics;
+        this.queueWriter = queueWriter;
+        this.spillover = spillover;
+        this.maxBatchSize = maxBatchSize;
+        this.idleParkNanos = TimeUnit.MICROSECONDS.toNanos(idleParkMicros);
+        this.offerTimeoutNanos = TimeUnit.MICROSECONDS.toNanos(offerTimeoutMicros);
+
+        int size = (capacity <= 1) ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new Payment[size];
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Payment();
+            published.set(i, -1);
+        }
+        this.mask = size - 1;
+    }
+
+    @Override
+    public void publish(Payment payment) {
+        long sequence = running ? claim() : -1;
+        if (sequence < 0) {
+            writeDirect(payment);
+            return;
+        }
+        int index = (int) sequence & mask;
+        Payment slot = slots[index];
+        slot.setCorrelationId(payment.getCorrelationId());
+        slot.setAmountCents(payment.getAmountCents());
+        slot.setAmountScale(payment.getAmountScale());
+        slot.setRequestedAt(payment.getRequestedAt());
+        slot.setPaymentProcessorType(payment.getPaymentProcessorType());
+        slot.setStatus(payment.getStatus());
+        // Escrita com release: a drenagem que ler a sequência enxerga os campos do slot
+        published.lazySet(index, sequence);
+    }
+
+    /**
+     * Com o anel cheio a reserva estaciona a thread por até {@code offer-timeout-micros} e, depois
+     * disso, a escrita vai ao Redis na própria thread da requisição.
+     */
+    @Override
+    public boolean blocksCaller() {
+        return true;
+    }
+
+    /**
+     * Quantidade de pagamentos aceitos que não puderam ser enviados ao Redis.
+     */
+    public long getLostPayments() {
+        return lostPayments.get();
+    }
+
+    /**
+     * Reserva a próxima sequência cujo slot já foi liberado.
+     * @return a sequência, ou -1 se o anel continuou cheio até o timeout ou foi fechado
+     */
+    private long claim() {
+        long deadline = 0;
+        while (true) {
+            long sequence = nextSequence.get();
+            if (sequence == CLOSED) {
+                return -1;
+            }
+            if (sequence - consumedSequence <= slots.length) {
+                if (nextSequence.compareAndSet(sequence, sequence + 1)) {
+                    return sequence;
+                }
+                continue;
+            }
+            long now = System.nanoTime();
+            if (deadline == 0) {
+                deadline = now + offerTimeoutNanos;
+            } else if (now - deadline >= 0) {
+                return -1;
+            }
+            LockSupport.parkNanos(this, CLAIM_BACKOFF_NANOS);
+        }
+    }
+
+    private void writeDirect(Payment payment) {
+        UUID correlationId = payment.getCorrelationId();
+        byte[] paymentPayload = payloadFormat.encode(payment);
+        try {
+            long start = System.nanoTime();
+            if (spillover.isEnabled()) {
+                spillover.writeOrSpill(correlationId, paymentPayload, () -> queueWriter.writeOne(correlationId, paymentPayload));
+            } else {
+                queueWriter.writeOne(correlationId, paymentPayload);
+            }
+            operationMetrics.recordNanos(OperationMetrics.Timer.REDIS_COMMAND, System.nanoTime() - start);
+        } catch (PaymentProcessingException e) {
+            // Redis fora e journal local cheio
+            operationMetrics.increment(OperationMetrics.Counter.PUBLISH_FAILURES, 1);
+            throw e;
+        } catch (Exception e) {
+            operationMetrics.increment(OperationMetrics.Counter.PUBLISH_FAILURES, 1);
+            logger.warn("Payment publishing failed", e);
+            throw new PaymentProcessingException("Failed to publish payment to Redis queue: " + e.getMessage(), e.getCause());
+        }
+    }
+
+    private void drainLoop() {
+        List<QueuedPayment> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            if (!drainBatch(batch)) {
+                LockSupport.parkNanos(this, idleParkNanos);
+            }
+        }
+        drainRemaining(batch);
+    }
+
+    /**
+     * Desligamento: esvazia o anel até a última sequência reservada. Um produtor que leu
+     * {@code running} antes da parada ainda pode reservar e publicar, então o anel só é fechado
+     * quando o CAS confirma que nada foi reservado depois da última drenagem. Um slot reservado e
+     * não publicado em {@link #UNPUBLISHED_WAIT_MILLIS} é contabilizado como perdido.
+     */
+    private void drainRemaining(List<QueuedPayment> batch) {
+        long waitNanos = TimeUnit.MILLISECONDS.toNanos(UNPUBLISHED_WAIT_MILLIS);
+        long deadline = System.nanoTime() + waitNanos;
+        while (true) {
+            if (drainBatch(batch)) {
+                deadline = System.nanoTime() + waitNanos;
+                continue;
+            }
+            long sequence = nextSequence.get();
+            if (sequence - 1 == consumedSequence && nextSequence.compareAndSet(sequence, CLOSED)) {
+                return;
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                long abandoned = nextSequence.getAndSet(CLOSED) - consumedSequence - 1;
+                lostPayments.addAndGet(abandoned);
+                operationMetrics.increment(OperationMetrics.Counter.PUBLISH_FAILURES, abandoned);
+                logger.error("{} pagamentos reservados no anel não foram publicados até o desligamento", abandoned);
+                return;
+            }
+            LockSupport.parkNanos(this, idleParkNanos);
+        }
+    }
+
+    /**
+     * Lê os slots publicados em sequência (até {@code max-batch-size}), libera-os e escreve o lote.
+     * @return false se não havia nada publicado
+     */
+    private boolean drainBatch(List<QueuedPayment> batch) {
+        batch.clear();
+        long first = consumedSequence + 1;
+        while (batch.size() < maxBatchSize) {
+            long sequence = first + batch.size();
+            int index = (int) sequence & mask;
+            if (published.get(index) != sequence) {
+                break;
+            }
+            Payment slot = slots[index];
+            batch.add(new QueuedPayment(slot.getCorrelationId(), payloadFormat.encode(slot)));
+        }
+        if (batch.isEmpty()) {
+            return false;
+        }
+        // Libera os slots antes de ir ao Redis: os produtores não esperam o RTT
+        consumedSequence = first + batch.size() - 1;
+        writeBatch(batch);
+        return true;
+    }
+
+    private void writeBatch(List<QueuedPayment> batch) {
+        if (spillover.hasBacklog()) {
+            // Redis ainda não drenou o journal: não espera o timeout de novo
+            spillToJournal(batch);
+            return;
+        }
+        for (int attempt = 1; attempt <= FLUSH_ATTEMPTS; attempt++) {
+            try {
+                long start = System.nanoTime();
+                queueWriter.writeBatch(batch);
+                operationMetrics.recordNanos(OperationMetrics.Timer.REDIS_COMMAND, System.nanoTime() - start);
+                return;
+            } catch (Exception e) {
+                logger.warn("Ring batch publishing failed (attempt {}/{}): {}", attempt, FLUSH_ATTEMPTS, e.getMessage());
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10L * attempt));
+            }
+        }
+        if (spillover.isEnabled()) {
+            spillToJournal(batch);
+            return;
+        }
+        lostPayments.addAndGet(batch.size());
+        operationMetrics.increment(OperationMetrics.Counter.PUBLISH_FAILURES, batch.size());
+        logger.error("Descartando lote de {} pagamentos após {} tentativas", batch.size(), FLUSH_ATTEMPTS);
+    }
+
+    private void spillToJournal(List<QueuedPayment> batch) {
+        int rejected = spillover.spillAll(batch);
+        if (rejected > 0) {
+            lostPayments.addAndGet(rejected);
+            operationMetrics.increment(OperationMetrics.Counter.PUBLISH_FAILURES, rejected);
+            logger.error("Journal local cheio: descartando {} pagamentos", rejected);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (nextSequence.get() == CLOSED) {
+            // Reinício do contexto: reabre o anel a partir da última sequência drenada
+            nextSequence.set(consumedSequence + 1);
+        }
+        running = true;
+        drainer = Thread.ofPlatform().name("payment-ring-drainer").daemon(true).start(this::drainLoop);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread current = drainer;
+        if (current == null) {
+            return;
+        }
+        LockSupport.unpark(current);
+        try {
+            current.join(SHUTDOWN_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long next = nextSequence.get();
+        long pending = (next == CLOSED) ? 0 : next - consumedSequence - 1;
+        if (pending > 0) {
+            logger.error("{} pagamentos ficaram no anel após o desligamento", pending);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Para depois do servidor web (sem novas requisições) e antes da fábrica de conexões do Redis.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
@@ -2,11 +2,11 @@ package com.maal.apipaymentprocessor.application.service;
 
 import com.maal.apipaymentprocessor.domain.model.Payment;
 import com.maal.apipaymentprocessor.domain.port.in.ProcessPaymentUseCase;
+import com.maal.apipaymentprocessor.domain.port.out.OperationMetrics;
 import com.maal.apipaymentprocessor.domain.port.out.PaymentQueuePublisher;
 import com.maal.apipaymentprocessor.entrypoint.web.dto.PaymentRequest;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
 import java.time.Instant;
 
 /**
@@ -17,15 +17,22 @@ import java.time.Instant;
 public class PaymentService implements ProcessPaymentUseCase {
     
     private final PaymentQueuePublisher paymentQueuePublisher;
+    private final OperationMetrics operationMetrics;
 
-    public PaymentService(PaymentQueuePublisher paymentQueuePublisher) {
+    public PaymentService(PaymentQueuePublisher paymentQueuePublisher, OperationMetrics operationMetrics) {
         this.paymentQueuePublisher = paymentQueuePublisher;
+        this.operationMetrics = operationMetrics;
     }
 
     @Override
     public void receivePayment(PaymentRequest request) {
+        long start = System.nanoTime();
+        // Sem correlationId não há como deduplicar
+        if (request.getCorrelationId() == null) {
+            throw new IllegalArgumentException("Invalid correlationId");
+        }
         // Validação do valor do pagamento
-        if (request.getAmount() == null || request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+        if (request.getAmountCents() <= 0) {
             throw new IllegalArgumentException("Invalid payment amount");
         }
 
@@ -35,12 +42,20 @@ public class PaymentService implements ProcessPaymentUseCase {
         // O PaymentProcessorType será determinado pelo async-worker após processamento
         Payment payment = new Payment(
                 request.getCorrelationId(),
-                request.getAmount(),
+                request.getAmountCents(),
+                request.getAmountScale(),
                 timestamp
         );
         
+        long built = System.nanoTime();
+        operationMetrics.recordNanos(OperationMetrics.Timer.PAYMENT_BUILD, built - start);
+
         // Apenas publica na fila Redis - não salva mais no banco
-        paymentQueuePublisher.publish(payment);
+        try {
+            paymentQueuePublisher.publish(payment);
+        } finally {
+            operationMetrics.recordNanos(OperationMetrics.Timer.QUEUE_PUBLISH, System.nanoTime() - built);
+        }
     }  
 }
 
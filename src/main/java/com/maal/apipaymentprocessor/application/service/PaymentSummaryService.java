@@ -1,20 +1,30 @@
 package com.maal.apipaymentprocessor.application.service;
 
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.maal.apipaymentprocessor.domain.model.Payment;
+import com.maal.apipaymentprocessor.domain.exception.SummaryUnavailableException;
+import com.maal.apipaymentprocessor.domain.model.Money;
+import com.maal.apipaymentprocessor.domain.model.PaymentProcessorType;
+import com.maal.apipaymentprocessor.domain.model.PaymentTotals;
+import com.maal.apipaymentprocessor.domain.model.SummaryWindow;
 import com.maal.apipaymentprocessor.domain.port.in.PaymentSummaryUseCase;
+import com.maal.apipaymentprocessor.domain.port.out.OperationMetrics;
+import com.maal.apipaymentprocessor.domain.port.out.PaymentDeduplicator;
+import com.maal.apipaymentprocessor.domain.port.out.PaymentHistoryReader;
 import com.maal.apipaymentprocessor.entrypoint.web.dto.PaymentSummaryGetResponse;
 import com.maal.apipaymentprocessor.entrypoint.web.dto.SummaryDetails;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
-import java.math.BigDecimal;
-import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
-
-import java.util.Objects;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 
 import org.slf4j.Logger;
@@ -22,23 +32,38 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Serviço de consulta de resumos de pagamentos
- * Consulta dados locais do Redis (salvos pelo async-worker)
- * Muito mais rápido que chamadas HTTP aos Payment Processors
+ * Consulta dados locais do Redis (salvos pelo async-worker), com a estratégia de leitura de rinha.summary.mode
+ * Os processadores são consultados em paralelo (threads virtuais) sob um prazo comum;
+ * se algum falhar ou estourar o prazo a consulta falha com SummaryUnavailableException (503)
  */
 @Service
 public class PaymentSummaryService implements PaymentSummaryUseCase {
     private static final Logger logger = LoggerFactory.getLogger(PaymentSummaryService.class);
 
-    // Chaves para as listas de pagamentos no Redis
-    private static final String DEFAULT_PAYMENTS_LIST_KEY = "payments:history:default";
-    private static final String FALLBACK_PAYMENTS_LIST_KEY = "payments:history:fallback";
-
-    private final RedisTemplate<String, String> redisTemplate;
-    private final ObjectMapper objectMapper;
-
-    public PaymentSummaryService(RedisTemplate<String, String> redisTemplate, ObjectMapper objectMapper) {
-        this.redisTemplate = redisTemplate;
-        this.objectMapper = objectMapper;
+    private final PaymentHistoryReader paymentHistoryReader;
+    private final long deadlineMillis;
+    private final OperationMetrics operationMetrics;
+    private final PaymentDeduplicator paymentDeduplicator;
+    private final QueueSettleAwaiter queueSettleAwaiter;
+    private final SummaryCoalescer summaryCoalescer;
+    private final RollupSummaryCombiner rollupSummaryCombiner;
+    private final ExecutorService summaryExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("payment-summary-", 0).factory());
+
+    public PaymentSummaryService(PaymentHistoryReader paymentHistoryReader,
+                                 @Value("${rinha.summary.deadline-millis:1000}") long deadlineMillis,
+                                 OperationMetrics operationMetrics,
+                                 PaymentDeduplicator paymentDeduplicator,
+                                 QueueSettleAwaiter queueSettleAwaiter,
+                                 SummaryCoalescer summaryCoalescer,
+                                 RollupSummaryCombiner rollupSummaryCombiner) {
+        this.paymentHistoryReader = paymentHistoryReader;
+        this.deadlineMillis = deadlineMillis;
+        this.operationMetrics = operationMetrics;
+        this.paymentDeduplicator = paymentDeduplicator;
+        this.queueSettleAwaiter = queueSettleAwaiter;
+        this.summaryCoalescer = summaryCoalescer;
+        this.rollupSummaryCombiner = rollupSummaryCombiner;
     }
 
       /**
@@ -47,7 +72,10 @@ public class PaymentSummaryService implements PaymentSummaryUseCase {
     @Override
      public void purgeAllPayments() {
         try {
-            redisTemplate.delete(List.of(DEFAULT_PAYMENTS_LIST_KEY, FALLBACK_PAYMENTS_LIST_KEY));
+            paymentHistoryReader.purge();
+            rollupSummaryCombiner.purge();
+            paymentDeduplicator.purge();
+            operationMetrics.reset();
             logger.info("Listas de histórico de pagamento foram limpas do Redis.");
         } catch (Exception e) {
             logger.error("Erro ao limpar histórico de pagamentos: {}", e.getMessage(), e);
@@ -58,49 +86,95 @@ public class PaymentSummaryService implements PaymentSummaryUseCase {
     @Override
     public PaymentSummaryGetResponse getPaymentSummary(String from, String to) {
         // Parsing dos timestamps de entrada
-        Instant fromDate = (from == null) ? Instant.MIN : Instant.parse(from);
-        Instant toDate = (to == null) ? Instant.now() : Instant.parse(to);
+        SummaryWindow window = SummaryWindow.parse(from, to);
 
-        SummaryDetails defaultSummary = calculateSummaryForProcessor(DEFAULT_PAYMENTS_LIST_KEY, fromDate, toDate);
-        SummaryDetails fallbackSummary = calculateSummaryForProcessor(FALLBACK_PAYMENTS_LIST_KEY, fromDate, toDate);
-        return new PaymentSummaryGetResponse(defaultSummary, fallbackSummary);
-    }
-
-    private SummaryDetails calculateSummaryForProcessor(String key, Instant from, Instant to) {
+        long start = System.nanoTime();
+        Map<PaymentProcessorType, PaymentTotals> totals;
         try {
-            // O(N) onde N é o número de pagamentos, pode ser lento.
-            // Para a Rinha, com volume de dados limitado, é aceitável.
-            List<String> paymentJsonList = redisTemplate.opsForList().range(key, 0, -1);
-            if (paymentJsonList == null || paymentJsonList.isEmpty()) {
-                return new SummaryDetails();
-            }
+            totals = summaryCoalescer.summarize(window, this::summarize);
+        } finally {
+            operationMetrics.recordNanos(OperationMetrics.Timer.SUMMARY_COMPUTE, System.nanoTime() - start);
+        }
+        return new PaymentSummaryGetResponse(
+                toSummaryDetails(totals.get(PaymentProcessorType.DEFAULT)),
+                toSummaryDetails(totals.get(PaymentProcessorType.FALLBACK)));
+    }
 
-            List<Payment> payments = paymentJsonList.stream()
-                    .map(this::deserializePayment)
-                    .filter(Objects::nonNull)
-                    .filter(p -> !p.getRequestedAt().isBefore(from) && p.getRequestedAt().isBefore(to))
-                    .toList();
+    private Map<PaymentProcessorType, PaymentTotals> summarize(SummaryWindow window) {
+        queueSettleAwaiter.awaitSettled();
+        return rollupSummaryCombiner.summarize(window, this::summarizeHistory);
+    }
 
-            long totalRequests = payments.size();
-            BigDecimal totalAmount = payments.stream()
-                    .map(Payment::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private Map<PaymentProcessorType, PaymentTotals> summarizeHistory(SummaryWindow window) {
+        return paymentHistoryReader.readsAllProcessorsAtOnce()
+                ? summarizeAllWithDeadline(window)
+                : summarizeInParallel(window);
+    }
 
-            return new SummaryDetails(Math.toIntExact(totalRequests), totalAmount);
+    /**
+     * Uma tarefa por processador; a latência fica sendo a do mais lento, não a soma.
+     */
+    private Map<PaymentProcessorType, PaymentTotals> summarizeInParallel(SummaryWindow window) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+        Map<PaymentProcessorType, Future<PaymentTotals>> futures = new EnumMap<>(PaymentProcessorType.class);
+        for (PaymentProcessorType processorType : PaymentProcessorType.values()) {
+            futures.put(processorType, summaryExecutor.submit(() -> paymentHistoryReader.summarize(processorType, window)));
+        }
 
-        } catch (Exception e) {
-            logger.error("Erro ao calcular resumo para a chave {}: {}", key, e.getMessage(), e);
-            return new SummaryDetails(); // Retorna resumo vazio em caso de erro
+        Map<PaymentProcessorType, PaymentTotals> totals = new EnumMap<>(PaymentProcessorType.class);
+        List<String> failures = new ArrayList<>();
+        for (Map.Entry<PaymentProcessorType, Future<PaymentTotals>> future : futures.entrySet()) {
+            PaymentTotals processorTotals = await(future.getValue(), deadline, future.getKey().name(), failures);
+            if (processorTotals != null) {
+                totals.put(future.getKey(), processorTotals);
+            }
         }
+        failIfIncomplete(failures);
+        return totals;
+    }
+
+    private Map<PaymentProcessorType, PaymentTotals> summarizeAllWithDeadline(SummaryWindow window) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+        List<String> failures = new ArrayList<>();
+        Map<PaymentProcessorType, PaymentTotals> totals =
+                await(summaryExecutor.submit(() -> paymentHistoryReader.summarizeAll(window)), deadline, "ALL", failures);
+        failIfIncomplete(failures);
+        return totals;
     }
 
-    private Payment deserializePayment(String json) {
+    /**
+     * Aguarda o resultado até o prazo comum; falhas e estouros de prazo são acumulados em {@code failures}.
+     */
+    private <T> T await(Future<T> future, long deadlineNanos, String label, List<String> failures) {
         try {
-            return objectMapper.readValue(json, Payment.class);
-        } catch (IOException e) {
-            logger.error("Falha ao deserializar pagamento do JSON: {}", json, e);
-            return null;
+            return future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            failures.add(label + ": " + e.getCause().getMessage());
+            logger.error("Erro ao calcular resumo de pagamentos ({}): {}", label, e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            failures.add(label + ": prazo de " + deadlineMillis + "ms excedido");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            failures.add(label + ": consulta interrompida");
+        }
+        return null;
+    }
+
+    private void failIfIncomplete(List<String> failures) {
+        if (!failures.isEmpty()) {
+            logger.warn("Resumo de pagamentos incompleto: {}", failures);
+            throw new SummaryUnavailableException("Resumo incompleto - " + String.join("; ", failures));
+        }
+    }
+
+    private SummaryDetails toSummaryDetails(PaymentTotals totals) {
+        if (totals == null) {
+            return new SummaryDetails();
         }
+        // Única conversão para BigDecimal: a borda JSON do resumo
+        return new SummaryDetails(Math.toIntExact(totals.totalRequests()), Money.toBigDecimal(totals.totalCents()));
     }
 
 }
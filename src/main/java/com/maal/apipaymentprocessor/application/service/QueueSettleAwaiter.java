@@ -0,0 +1,54 @@
+package com.maal.apipaymentprocessor.application.service;
+
+import com.maal.apipaymentprocessor.domain.port.out.PaymentQueueProgress;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Com a fila em Redis Stream, o resumo pode esperar (rinha.summary.stream.settle-millis) o async-worker
+ * confirmar tudo o que já foi publicado, para refletir os pagamentos aceitos até o momento da consulta.
+ */
+@Component
+public class QueueSettleAwaiter {
+    private static final Logger logger = LoggerFactory.getLogger(QueueSettleAwaiter.class);
+
+    private static final long SETTLE_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+
+    private final PaymentQueueProgress queueProgress;
+    private final long settleMillis;
+
+    public QueueSettleAwaiter(Optional<PaymentQueueProgress> queueProgress,
+                              @Value("${rinha.summary.stream.settle-millis:0}") long settleMillis) {
+        this.queueProgress = queueProgress.orElse(null);
+        this.settleMillis = settleMillis;
+    }
+
+    /**
+     * Espera, no máximo settle-millis, o async-worker confirmar tudo o que estava publicado no início
+     * da consulta. Esgotado o tempo o resumo é calculado mesmo assim com o que já foi processado.
+     */
+    public void awaitSettled() {
+        if (queueProgress == null || settleMillis <= 0) {
+            return;
+        }
+        try {
+            String watermark = queueProgress.currentWatermark();
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(settleMillis);
+            while (!queueProgress.processedThrough(watermark)) {
+                if (System.nanoTime() >= deadline) {
+                    logger.debug("Fila ainda não processada até {} após {} ms", watermark, settleMillis);
+                    return;
+                }
+                LockSupport.parkNanos(SETTLE_POLL_NANOS);
+            }
+        } catch (Exception e) {
+            logger.warn("Não foi possível consultar o progresso da fila: {}", e.getMessage());
+        }
+    }
+}
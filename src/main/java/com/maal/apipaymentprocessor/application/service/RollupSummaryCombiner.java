@@ -0,0 +1,73 @@
+package com.maal.apipaymentprocessor.application.service;
+
+import com.maal.apipaymentprocessor.domain.exception.SummaryUnavailableException;
+import com.maal.apipaymentprocessor.domain.model.PaymentProcessorType;
+import com.maal.apipaymentprocessor.domain.model.PaymentTotals;
+import com.maal.apipaymentprocessor.domain.model.SummaryWindow;
+import com.maal.apipaymentprocessor.domain.port.out.PaymentRollupReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Com a compactação do histórico ligada, o resumo é a soma das rollups com a cauda ainda nas listas.
+ * Sem compactação ({@link PaymentRollupReader} ausente) o resumo é só a leitura das listas.
+ */
+@Component
+public class RollupSummaryCombiner {
+    private static final Logger logger = LoggerFactory.getLogger(RollupSummaryCombiner.class);
+
+    private static final int ROLLUP_READ_ATTEMPTS = 3;
+
+    private final PaymentRollupReader rollupReader;
+
+    public RollupSummaryCombiner(Optional<PaymentRollupReader> rollupReader) {
+        this.rollupReader = rollupReader.orElse(null);
+    }
+
+    /**
+     * Rollups + cauda das listas. Cada entrada está em exatamente um dos dois; a versão das rollups,
+     * igual antes e depois das leituras, garante que nenhum lote foi compactado entre elas.
+     * @param history leitura das listas de histórico
+     */
+    public Map<PaymentProcessorType, PaymentTotals> summarize(
+            SummaryWindow window, Function<SummaryWindow, Map<PaymentProcessorType, PaymentTotals>> history) {
+        if (rollupReader == null) {
+            return history.apply(window);
+        }
+        for (int attempt = 1; attempt <= ROLLUP_READ_ATTEMPTS; attempt++) {
+            long version = rollupReader.version();
+            Map<PaymentProcessorType, PaymentTotals> tail = history.apply(window);
+            Map<PaymentProcessorType, PaymentTotals> rolledUp = rollupReader.summarizeAll(window);
+            if (rollupReader.version() != version) {
+                logger.debug("Histórico compactado durante o resumo (tentativa {}/{})", attempt, ROLLUP_READ_ATTEMPTS);
+                continue;
+            }
+            Map<PaymentProcessorType, PaymentTotals> totals = new EnumMap<>(PaymentProcessorType.class);
+            for (PaymentProcessorType processorType : PaymentProcessorType.values()) {
+                PaymentTotals tailTotals = tail.getOrDefault(processorType, PaymentTotals.EMPTY);
+                PaymentTotals rolledUpTotals = rolledUp.getOrDefault(processorType, PaymentTotals.EMPTY);
+                totals.put(processorType, new PaymentTotals(
+                        tailTotals.totalRequests() + rolledUpTotals.totalRequests(),
+                        tailTotals.totalCents() + rolledUpTotals.totalCents()));
+            }
+            return totals;
+        }
+        throw new SummaryUnavailableException("Resumo incompleto - histórico compactado durante "
+                + ROLLUP_READ_ATTEMPTS + " tentativas");
+    }
+
+    /**
+     * Remove todas as rollups
+     */
+    public void purge() {
+        if (rollupReader != null) {
+            rollupReader.purge();
+        }
+    }
+}
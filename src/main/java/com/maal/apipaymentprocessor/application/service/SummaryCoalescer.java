@@ -0,0 +1,118 @@
+package com.maal.apipaymentprocessor.application.service;
+
+import com.maal.apipaymentprocessor.domain.exception.SummaryUnavailableException;
+import com.maal.apipaymentprocessor.domain.model.PaymentProcessorType;
+import com.maal.apipaymentprocessor.domain.model.PaymentTotals;
+import com.maal.apipaymentprocessor.domain.model.SummaryWindow;
+import com.maal.apipaymentprocessor.domain.port.out.OperationMetrics;
+import com.maal.apipaymentprocessor.domain.port.out.SummaryFlightCoordinator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Consultas simultâneas da mesma janela compartilham um único cálculo (rinha.summary.coalesce.enabled).
+ * Com um {@link SummaryFlightCoordinator} (rinha.summary.coalesce.cross-instance=true) o cálculo
+ * também é compartilhado entre as instâncias.
+ */
+@Component
+public class SummaryCoalescer {
+
+    private final boolean enabled;
+    private final long deadlineMillis;
+    private final OperationMetrics operationMetrics;
+    private final SummaryFlightCoordinator flightCoordinator;
+    /** Cálculos em andamento por janela; quem chega durante um cálculo espera o mesmo resultado */
+    private final ConcurrentHashMap<SummaryWindow, CompletableFuture<Map<PaymentProcessorType, PaymentTotals>>> inFlight =
+            new ConcurrentHashMap<>();
+
+    public SummaryCoalescer(@Value("${rinha.summary.coalesce.enabled:true}") boolean enabled,
+                            @Value("${rinha.summary.deadline-millis:1000}") long deadlineMillis,
+                            OperationMetrics operationMetrics,
+                            Optional<SummaryFlightCoordinator> flightCoordinator) {
+        this.enabled = enabled;
+        this.deadlineMillis = deadlineMillis;
+        this.operationMetrics = operationMetrics;
+        this.flightCoordinator = flightCoordinator.orElse(null);
+    }
+
+    /**
+     * Single-flight local: a primeira consulta da janela calcula, as simultâneas esperam o mesmo
+     * resultado (ou a mesma falha). O cálculo sai do mapa ao terminar, então consultas posteriores
+     * sempre calculam de novo e nunca recebem totais anteriores a elas.
+     */
+    public Map<PaymentProcessorType, PaymentTotals> summarize(
+            SummaryWindow window, Function<SummaryWindow, Map<PaymentProcessorType, PaymentTotals>> calculation) {
+        if (!enabled) {
+            return calculation.apply(window);
+        }
+        CompletableFuture<Map<PaymentProcessorType, PaymentTotals>> flight = new CompletableFuture<>();
+        CompletableFuture<Map<PaymentProcessorType, PaymentTotals>> running = inFlight.putIfAbsent(window, flight);
+        if (running != null) {
+            operationMetrics.increment(OperationMetrics.Counter.SUMMARY_COALESCED, 1);
+            return awaitFlight(running);
+        }
+        try {
+            Map<PaymentProcessorType, PaymentTotals> totals = summarizeShared(window, calculation);
+            flight.complete(totals);
+            return totals;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(window, flight);
+        }
+    }
+
+    /**
+     * Com a coordenação entre instâncias, só uma delas calcula a janela; a espera pelo resultado
+     * da outra é limitada pelo prazo do resumo, que também limita o cálculo dela.
+     */
+    private Map<PaymentProcessorType, PaymentTotals> summarizeShared(
+            SummaryWindow window, Function<SummaryWindow, Map<PaymentProcessorType, PaymentTotals>> calculation) {
+        if (flightCoordinator == null) {
+            return calculation.apply(window);
+        }
+        SummaryFlightCoordinator.Flight flight = flightCoordinator.join(window, deadlineMillis);
+        Map<PaymentProcessorType, PaymentTotals> sharedResult = flight.sharedResult();
+        if (sharedResult != null) {
+            operationMetrics.increment(OperationMetrics.Counter.SUMMARY_COALESCED, 1);
+            return sharedResult;
+        }
+        Map<PaymentProcessorType, PaymentTotals> totals;
+        try {
+            totals = calculation.apply(window);
+        } catch (RuntimeException e) {
+            flight.abandon();
+            throw e;
+        }
+        flight.complete(totals);
+        return totals;
+    }
+
+    private Map<PaymentProcessorType, PaymentTotals> awaitFlight(CompletableFuture<Map<PaymentProcessorType, PaymentTotals>> running) {
+        try {
+            // Coordenado entre instâncias, o cálculo pode esperar a outra instância antes de calcular
+            long waitMillis = (flightCoordinator == null) ? deadlineMillis : 2 * deadlineMillis;
+            return running.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new SummaryUnavailableException("Resumo incompleto - " + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            throw new SummaryUnavailableException("Resumo incompleto - prazo de " + deadlineMillis + "ms excedido");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SummaryUnavailableException("Resumo incompleto - consulta interrompida");
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.maal.apipaymentprocessor.domain.exception;
+
+import java.util.UUID;
+
+/**
+ * Pagamento com correlationId já aceito anteriormente; nunca chega à fila do async-worker.
+ */
+public class DuplicatePaymentException extends RuntimeException {
+
+    private final UUID correlationId;
+
+    public DuplicatePaymentException(UUID correlationId) {
+        super("Payment already received: " + correlationId);
+        this.correlationId = correlationId;
+    }
+
+    public UUID getCorrelationId() {
+        return correlationId;
+    }
+}
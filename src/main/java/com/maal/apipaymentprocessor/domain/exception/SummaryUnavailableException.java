@@ -0,0 +1,15 @@
+package com.maal.apipaymentprocessor.domain.exception;
+
+/**
+ * Resumo de pagamentos que não pôde ser calculado por completo (falha ou prazo excedido
+ * em algum processador). Nunca é respondido um resumo parcial ou zerado no lugar.
+ */
+public class SummaryUnavailableException extends RuntimeException {
+    public SummaryUnavailableException(String message) {
+        super(message);
+    }
+
+    public SummaryUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,149 @@
+package com.maal.apipaymentprocessor.domain.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Valores monetários representados internamente como {@code long} em centavos.
+ *
+ * Regras de conversão:
+ * - a conversão é sempre exata: valores com até duas casas decimais significativas (inclusive
+ *   "19.900") viram centavos sem perda;
+ * - valores com frações de centavo ("19.999") lançam {@link ArithmeticException}, que as bordas
+ *   HTTP respondem com 400, em vez de arredondar em silêncio;
+ * - valores fora da faixa de um long em centavos lançam {@link ArithmeticException}.
+ *
+ * {@link BigDecimal} só aparece nas bordas JSON (requisição, fila e resumo). Requisição e fila
+ * guardam a escala recebida junto com os centavos, então "19.9" volta a ser escrito como 19.9,
+ * exatamente como o Jackson escreveria o BigDecimal lido; o resumo usa sempre escala 2.
+ */
+public final class Money {
+
+    /** Escala dos centavos, usada quando a escala recebida não é conhecida */
+    public static final int CENTS_SCALE = 2;
+
+    /** Maior parte inteira convertida sem risco de overflow no caminho rápido */
+    private static final int MAX_FAST_INTEGER_DIGITS = 16;
+
+    private Money() {
+    }
+
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, CENTS_SCALE);
+    }
+
+    /**
+     * Reconstrói o decimal com a escala recebida; a escala vem do mesmo texto que gerou os
+     * centavos, então a mudança de escala nunca arredonda.
+     */
+    public static BigDecimal toBigDecimal(long cents, int scale) {
+        BigDecimal amount = BigDecimal.valueOf(cents, CENTS_SCALE);
+        return scale == CENTS_SCALE ? amount : amount.setScale(scale, RoundingMode.UNNECESSARY);
+    }
+
+    /**
+     * Converte o texto decimal em [start, end) para centavos sem alocar BigDecimal quando o
+     * número tem o formato comum "123.45"; notação científica, sinal "+" ou mais de duas casas
+     * decimais passam por {@link BigDecimal} com as mesmas regras de {@link #toCents(BigDecimal)}.
+     * @throws NumberFormatException se o texto não for um número válido
+     * @throws ArithmeticException se o valor tiver fração de centavo ou não couber em centavos
+     */
+    public static long parseCents(CharSequence text, int start, int end) {
+        int i = start;
+        boolean negative = i < end && text.charAt(i) == '-';
+        if (negative) {
+            i++;
+        }
+        long integerPart = 0;
+        int integerDigits = 0;
+        while (i < end && isDigit(text.charAt(i))) {
+            integerPart = integerPart * 10 + (text.charAt(i) - '0');
+            integerDigits++;
+            i++;
+        }
+        long fraction = 0;
+        int fractionDigits = 0;
+        if (i < end && text.charAt(i) == '.') {
+            i++;
+            while (i < end && isDigit(text.charAt(i)) && fractionDigits < 3) {
+                fraction = fraction * 10 + (text.charAt(i) - '0');
+                fractionDigits++;
+                i++;
+            }
+        }
+        if (i != end || integerDigits + fractionDigits == 0
+                || integerDigits > MAX_FAST_INTEGER_DIGITS || fractionDigits > 2) {
+            return toCents(new BigDecimal(text.subSequence(start, end).toString()));
+        }
+        long cents = integerPart * 100 + (fractionDigits == 1 ? fraction * 10 : fraction);
+        return negative ? -cents : cents;
+    }
+
+    /**
+     * Escala do texto decimal em [start, end), a mesma de {@code new BigDecimal(texto).scale()}.
+     * Deve ser chamada depois de {@link #parseCents}, que já validou o texto.
+     */
+    public static int scaleOf(CharSequence text, int start, int end) {
+        int point = -1;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '.') {
+                point = i;
+            } else if (c == 'e' || c == 'E') {
+                return new BigDecimal(text.subSequence(start, end).toString()).scale();
+            }
+        }
+        return point < 0 ? 0 : end - point - 1;
+    }
+
+    /**
+     * Escreve os centavos no formato de {@code BigDecimal.valueOf(cents, 2).toString()}, ex.: "19.90".
+     */
+    public static StringBuilder appendDecimal(StringBuilder out, long cents) {
+        if (cents == Long.MIN_VALUE) {
+            return out.append(toBigDecimal(cents));
+        }
+        if (cents < 0) {
+            out.append('-');
+            cents = -cents;
+        }
+        long remainder = cents % 100;
+        out.append(cents / 100).append('.');
+        if (remainder < 10) {
+            out.append('0');
+        }
+        return out.append(remainder);
+    }
+
+    /**
+     * Escreve os centavos no formato de {@code toBigDecimal(cents, scale).toString()}, ex.: "19.9"
+     * com escala 1; escalas 0, 1 e 2 não alocam.
+     */
+    public static StringBuilder appendDecimal(StringBuilder out, long cents, int scale) {
+        if (scale == CENTS_SCALE) {
+            return appendDecimal(out, cents);
+        }
+        if (cents == Long.MIN_VALUE || scale < 0 || scale > CENTS_SCALE
+                || cents % (scale == 0 ? 100 : 10) != 0) {
+            // Fora do caminho rápido; uma escala que perderia centavos lança ArithmeticException
+            return out.append(toBigDecimal(cents, scale));
+        }
+        if (cents < 0) {
+            out.append('-');
+            cents = -cents;
+        }
+        if (scale == 0) {
+            return out.append(cents / 100);
+        }
+        long tenths = cents / 10;
+        return out.append(tenths / 10).append('.').append(tenths % 10);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
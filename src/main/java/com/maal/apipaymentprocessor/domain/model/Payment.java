@@ -1,7 +1,9 @@
 package com.maal.apipaymentprocessor.domain.model;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
@@ -14,13 +16,19 @@ import java.util.Objects;
 @Setter
 @Getter
 @Builder
+@JsonPropertyOrder({"correlationId", "amount", "requestedAt", "paymentProcessorType", "status"})
 public class Payment {
     // Removido final para compatibilidade com Jackson/GraalVM
     @JsonProperty("correlationId")
     private UUID correlationId;
     
-    @JsonProperty("amount") 
-    private BigDecimal amount;
+    // Valor em centavos (ver Money); no JSON continua sendo o decimal "amount"
+    @JsonIgnore
+    private long amountCents;
+
+    // Escala do amount recebido, para a fila receber o mesmo texto que o Jackson escreveria
+    @JsonIgnore
+    private int amountScale;
     
     @JsonProperty("requestedAt")
     private Instant requestedAt;
@@ -32,15 +40,37 @@ public class Payment {
     private PaymentStatus status; // Status do processamento (e.g., PENDING, SUCCESS, FAILED, RETRY)
 
     // Construtor padrão necessário para Jackson
-    public Payment() {}
+    public Payment() {
+        this.amountScale = Money.CENTS_SCALE;
+    }
 
-    public Payment(UUID correlationId, BigDecimal amount, Instant requestedAt) {
+    public Payment(UUID correlationId, long amountCents, Instant requestedAt) {
+        this(correlationId, amountCents, Money.CENTS_SCALE, requestedAt);
+    }
+
+    public Payment(UUID correlationId, long amountCents, int amountScale, Instant requestedAt) {
         this.correlationId = Objects.requireNonNull(correlationId, "correlationId cannot be null");
-        this.amount = Objects.requireNonNull(amount, "amount cannot be null");
+        this.amountCents = amountCents;
+        this.amountScale = amountScale;
         this.requestedAt = Objects.requireNonNull(requestedAt, "requestedAt cannot be null");
         this.status = PaymentStatus.PENDING; // Estado inicial
     }
 
+    public Payment(UUID correlationId, long amountCents, Instant requestedAt,
+                   PaymentProcessorType paymentProcessorType, PaymentStatus status) {
+        this(correlationId, amountCents, Money.CENTS_SCALE, requestedAt, paymentProcessorType, status);
+    }
+
+    public Payment(UUID correlationId, long amountCents, int amountScale, Instant requestedAt,
+                   PaymentProcessorType paymentProcessorType, PaymentStatus status) {
+        this.correlationId = Objects.requireNonNull(correlationId, "correlationId cannot be null");
+        this.amountCents = amountCents;
+        this.amountScale = amountScale;
+        this.requestedAt = Objects.requireNonNull(requestedAt, "requestedAt cannot be null");
+        this.paymentProcessorType = paymentProcessorType;
+        this.status = Objects.requireNonNull(status, "status cannot be null");
+    }
+
     // Construtor para reconstruir do banco de dados, incluindo o tipo de processador e status
     @JsonCreator
     public Payment(@JsonProperty("correlationId") UUID correlationId, 
@@ -48,10 +78,18 @@ public class Payment {
                    @JsonProperty("requestedAt") Instant requestedAt,
                    @JsonProperty("paymentProcessorType") PaymentProcessorType paymentProcessorType, 
                    @JsonProperty("status") PaymentStatus status) {
-        this.correlationId = Objects.requireNonNull(correlationId, "correlationId cannot be null");
-        this.amount = Objects.requireNonNull(amount, "amount cannot be null");
-        this.requestedAt = Objects.requireNonNull(requestedAt, "requestedAt cannot be null");
-        this.paymentProcessorType = paymentProcessorType;
-        this.status = Objects.requireNonNull(status, "status cannot be null");
+        this(correlationId, Money.toCents(Objects.requireNonNull(amount, "amount cannot be null")),
+                amount.scale(), requestedAt, paymentProcessorType, status);
+    }
+
+    @JsonProperty("amount")
+    public BigDecimal getAmount() {
+        return Money.toBigDecimal(amountCents, amountScale);
+    }
+
+    @JsonProperty("amount")
+    public void setAmount(BigDecimal amount) {
+        this.amountCents = Money.toCents(amount);
+        this.amountScale = amount.scale();
     }
 }
\ No newline at end of file
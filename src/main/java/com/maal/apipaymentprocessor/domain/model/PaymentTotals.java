@@ -0,0 +1,9 @@
+package com.maal.apipaymentprocessor.domain.model;
+
+/**
+ * Totais agregados (quantidade e valor em centavos) de pagamentos de um processador.
+ */
+public record PaymentTotals(long totalRequests, long totalCents) {
+
+    public static final PaymentTotals EMPTY = new PaymentTotals(0, 0);
+}
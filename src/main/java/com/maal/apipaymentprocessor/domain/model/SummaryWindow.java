@@ -0,0 +1,25 @@
+package com.maal.apipaymentprocessor.domain.model;
+
+import java.time.Instant;
+
+/**
+ * Janela de tempo [from, to) usada nas consultas de resumo, normalizada em epoch millis.
+ * Parâmetros ausentes viram limites abertos: from = início dos tempos, to = agora.
+ * A comparação é feita com precisão de milissegundo, a mesma dos timestamps enviados pelo auditor.
+ */
+public record SummaryWindow(long fromMillis, long toMillis) {
+
+    public static SummaryWindow parse(String from, String to) {
+        long fromMillis = (from == null) ? Long.MIN_VALUE : Instant.parse(from).toEpochMilli();
+        long toMillis = (to == null) ? System.currentTimeMillis() : Instant.parse(to).toEpochMilli();
+        return new SummaryWindow(fromMillis, toMillis);
+    }
+
+    public boolean contains(long epochMillis) {
+        return epochMillis >= fromMillis && epochMillis < toMillis;
+    }
+
+    public boolean isEmpty() {
+        return toMillis <= fromMillis;
+    }
+}
@@ -0,0 +1,56 @@
+package com.maal.apipaymentprocessor.domain.port.out;
+
+/**
+ * Port (interface) para instrumentação de baixo custo dos hot paths
+ * Gravações não podem alocar: são chamadas em toda requisição
+ */
+public interface OperationMetrics {
+
+    /** Etapas cronometradas */
+    enum Timer {
+        /** Leitura e parsing do corpo de POST /payments */
+        PAYMENT_REQUEST_PARSE,
+        /** POST /payments no controller (validação, criação e publicação) */
+        PAYMENT_REQUEST,
+        /** Validação, Instant.now() e criação do Payment no serviço */
+        PAYMENT_BUILD,
+        /** Publicação na fila como vista pela requisição (codificação + envio ou enfileiramento local) */
+        QUEUE_PUBLISH,
+        /** Comando de escrita na fila executado no Redis */
+        REDIS_COMMAND,
+        /** Cálculo completo de GET /payments-summary */
+        SUMMARY_COMPUTE
+    }
+
+    /** Contadores acumulados */
+    enum Counter {
+        /** Pagamentos aceitos cuja publicação no Redis falhou */
+        PUBLISH_FAILURES,
+        /** Pagamentos rejeitados ou descartados por correlationId repetido */
+        DUPLICATE_PAYMENTS,
+        /** Entradas do histórico lidas pelos cálculos de resumo */
+        SUMMARY_ENTRIES_SCANNED,
+        /** Pagamentos gravados no journal local por falha ou lentidão do Redis */
+        SPILLED_PAYMENTS,
+        /** Pagamentos do journal local reenviados à fila */
+        SPILL_REPLAYED_PAYMENTS,
+        /** Consultas de resumo atendidas pelo cálculo de outra consulta simultânea (local ou de outra instância) */
+        SUMMARY_COALESCED,
+        /** Entradas do histórico movidas das listas para as rollups pela compactação */
+        HISTORY_COMPACTED_ENTRIES
+    }
+
+    void recordNanos(Timer timer, long nanos);
+
+    void increment(Counter counter, long delta);
+
+    /**
+     * Valores atuais em texto plano, uma linha por métrica
+     */
+    String snapshot();
+
+    /**
+     * Zera todas as métricas
+     */
+    void reset();
+}
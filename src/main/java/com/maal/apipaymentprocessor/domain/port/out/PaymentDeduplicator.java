@@ -0,0 +1,13 @@
+package com.maal.apipaymentprocessor.domain.port.out;
+
+/**
+ * Port (interface) para o estado de deduplicação de pagamentos por correlationId
+ * A verificação em si acontece junto com a publicação na fila (ver PaymentQueuePublisher)
+ */
+public interface PaymentDeduplicator {
+
+    /**
+     * Esquece todos os correlationIds já aceitos
+     */
+    void purge();
+}
@@ -0,0 +1,50 @@
+package com.maal.apipaymentprocessor.domain.port.out;
+
+import com.maal.apipaymentprocessor.domain.model.PaymentProcessorType;
+import com.maal.apipaymentprocessor.domain.model.PaymentTotals;
+import com.maal.apipaymentprocessor.domain.model.SummaryWindow;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Port (interface) para leitura do histórico de pagamentos processados
+ * Define o contrato que deve ser implementado pelos adaptadores de saída
+ */
+public interface PaymentHistoryReader {
+
+    /**
+     * Calcula os totais de um processador dentro da janela [from, to)
+     * @param processorType processador (default ou fallback)
+     * @param window janela de tempo da consulta
+     * @return quantidade e valor total dos pagamentos na janela
+     */
+    PaymentTotals summarize(PaymentProcessorType processorType, SummaryWindow window);
+
+    /**
+     * Calcula os totais de todos os processadores dentro da janela [from, to).
+     * Adaptadores capazes de responder tudo em uma única ida ao armazenamento sobrescrevem este método.
+     * @param window janela de tempo da consulta
+     * @return totais por processador
+     */
+    default Map<PaymentProcessorType, PaymentTotals> summarizeAll(SummaryWindow window) {
+        Map<PaymentProcessorType, PaymentTotals> totals = new EnumMap<>(PaymentProcessorType.class);
+        for (PaymentProcessorType processorType : PaymentProcessorType.values()) {
+            totals.put(processorType, summarize(processorType, window));
+        }
+        return totals;
+    }
+
+    /**
+     * Indica se {@link #summarizeAll} responde todos os processadores em uma única operação,
+     * caso em que consultá-los em paralelo com {@link #summarize} só duplicaria o trabalho.
+     */
+    default boolean readsAllProcessorsAtOnce() {
+        return false;
+    }
+
+    /**
+     * Remove todo o histórico (e estruturas derivadas) do armazenamento
+     */
+    void purge();
+}
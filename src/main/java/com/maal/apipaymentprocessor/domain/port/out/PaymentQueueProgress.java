@@ -0,0 +1,20 @@
+package com.maal.apipaymentprocessor.domain.port.out;
+
+/**
+ * Port (interface) para acompanhar o consumo da fila de pagamentos pelo async-worker
+ * Disponível só em filas com confirmação de processamento (Redis Stream com grupo de consumidores)
+ */
+public interface PaymentQueueProgress {
+
+    /**
+     * Marca d'água: posição do último pagamento publicado na fila
+     * @return id da última entrada, ou null se nada foi publicado
+     */
+    String currentWatermark();
+
+    /**
+     * Indica se o async-worker já confirmou todos os pagamentos até a marca d'água, inclusive
+     * @param watermark valor obtido de {@link #currentWatermark()}
+     */
+    boolean processedThrough(String watermark);
+}
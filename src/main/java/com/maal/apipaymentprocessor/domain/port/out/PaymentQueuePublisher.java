@@ -13,4 +13,12 @@ public interface PaymentQueuePublisher {
      * @param payment o pagamento a ser publicado
      */
     void publish(Payment payment);
+
+    /**
+     * Indica se publish pode bloquear a thread chamadora esperando a resposta do Redis.
+     * Publicadores que não bloqueiam podem ser chamados direto do event loop do servidor Netty.
+     */
+    default boolean blocksCaller() {
+        return true;
+    }
 } 
\ No newline at end of file
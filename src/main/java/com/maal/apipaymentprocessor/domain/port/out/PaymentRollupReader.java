@@ -0,0 +1,31 @@
+package com.maal.apipaymentprocessor.domain.port.out;
+
+import com.maal.apipaymentprocessor.domain.model.PaymentProcessorType;
+import com.maal.apipaymentprocessor.domain.model.PaymentTotals;
+import com.maal.apipaymentprocessor.domain.model.SummaryWindow;
+
+import java.util.Map;
+
+/**
+ * Port (interface) para os totais do histórico já compactado em rollups
+ * As entradas compactadas saem das listas de histórico, então o resumo completo é a soma
+ * das rollups com o que {@link PaymentHistoryReader} ainda lê das listas
+ */
+public interface PaymentRollupReader {
+
+    /**
+     * Versão das rollups: muda a cada lote compactado. Duas leituras iguais antes e depois de
+     * um resumo garantem que rollups e listas foram lidas sem compactação no meio
+     */
+    long version();
+
+    /**
+     * Totais compactados de cada processador na janela
+     */
+    Map<PaymentProcessorType, PaymentTotals> summarizeAll(SummaryWindow window);
+
+    /**
+     * Remove todas as rollups
+     */
+    void purge();
+}
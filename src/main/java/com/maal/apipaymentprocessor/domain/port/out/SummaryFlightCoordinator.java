@@ -0,0 +1,40 @@
+package com.maal.apipaymentprocessor.domain.port.out;
+
+import com.maal.apipaymentprocessor.domain.model.PaymentProcessorType;
+import com.maal.apipaymentprocessor.domain.model.PaymentTotals;
+import com.maal.apipaymentprocessor.domain.model.SummaryWindow;
+
+import java.util.Map;
+
+/**
+ * Port (interface) para coordenar entre as instâncias da API o cálculo de resumos simultâneos
+ * da mesma janela: uma instância calcula e as demais reaproveitam o resultado publicado
+ */
+public interface SummaryFlightCoordinator {
+
+    /**
+     * Entra no cálculo da janela: assume o cálculo ou espera, até {@code waitMillis}, o resultado
+     * da instância que já está calculando. A coordenação é só uma otimização: em caso de falha
+     * ou de espera esgotada a instância calcula por conta própria.
+     */
+    Flight join(SummaryWindow window, long waitMillis);
+
+    /** Participação de uma instância no cálculo de uma janela */
+    interface Flight {
+
+        /**
+         * Totais calculados por outra instância; null quando esta instância deve calcular
+         */
+        Map<PaymentProcessorType, PaymentTotals> sharedResult();
+
+        /**
+         * Publica os totais calculados por esta instância para quem estiver esperando
+         */
+        void complete(Map<PaymentProcessorType, PaymentTotals> totals);
+
+        /**
+         * Desiste do cálculo (falha ou prazo excedido); quem espera passa a calcular sozinho
+         */
+        void abandon();
+    }
+}
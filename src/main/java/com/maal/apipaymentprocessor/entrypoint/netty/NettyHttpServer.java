@@ -0,0 +1,134 @@
+package com.maal.apipaymentprocessor.entrypoint.netty;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.IoHandlerFactory;
+import io.netty.channel.MultiThreadIoEventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollIoHandler;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.nio.NioIoHandler;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpServerKeepAliveHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Servidor HTTP Netty opcional (rinha.http.server=netty) que substitui o Tomcat/Spring MVC nos
+ * endpoints da API. Usa epoll quando disponível (NIO caso contrário), keep-alive e buffers diretos
+ * do {@link PooledByteBufAllocator}; o roteamento fica em {@link NettyPaymentHttpHandler}.
+ *
+ * Neste modo o Tomcat não sobe: {@link NettyWebApplicationTypePostProcessor} troca o tipo da
+ * aplicação para none antes de o contexto ser criado.
+ */
+@Component
+@ConditionalOnProperty(name = "rinha.http.server", havingValue = "netty")
+public class NettyHttpServer implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(NettyHttpServer.class);
+
+    private static final long SHUTDOWN_QUIET_PERIOD_MILLIS = 0;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 2_000;
+
+    private final NettyPaymentHttpHandler handler;
+    private final int port;
+    private final int ioThreads;
+    private final int maxContentLength;
+    private final boolean preferEpoll;
+
+    private volatile EventLoopGroup eventLoopGroup;
+    private volatile Channel serverChannel;
+
+    public NettyHttpServer(NettyPaymentHttpHandler handler,
+                           @Value("${server.port:8089}") int port,
+                           @Value("${rinha.http.netty.io-threads:1}") int ioThreads,
+                           @Value("${rinha.http.netty.max-content-length:4096}") int maxContentLength,
+                           @Value("${rinha.http.netty.epoll:true}") boolean preferEpoll) {
+        this.handler = handler;
+        this.port = port;
+        this.ioThreads = ioThreads;
+        this.maxContentLength = maxContentLength;
+        this.preferEpoll = preferEpoll;
+    }
+
+    @Override
+    public void start() {
+        boolean epoll = preferEpoll && Epoll.isAvailable();
+        IoHandlerFactory ioHandlerFactory = epoll ? EpollIoHandler.newFactory() : NioIoHandler.newFactory();
+        Class<? extends ServerChannel> channelClass = epoll ? EpollServerSocketChannel.class : NioServerSocketChannel.class;
+
+        EventLoopGroup group = new MultiThreadIoEventLoopGroup(ioThreads, ioHandlerFactory);
+        try {
+            serverChannel = new ServerBootstrap()
+                    .group(group)
+                    .channel(channelClass)
+                    .option(ChannelOption.SO_BACKLOG, 1024)
+                    .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+                    .childOption(ChannelOption.TCP_NODELAY, true)
+                    .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+                    .childHandler(new ChannelInitializer<SocketChannel>() {
+                        @Override
+                        protected void initChannel(SocketChannel channel) {
+                            channel.pipeline()
+                                    .addLast(new HttpServerCodec())
+                                    .addLast(new HttpServerKeepAliveHandler())
+                                    .addLast(new HttpObjectAggregator(maxContentLength))
+                                    .addLast(handler);
+                        }
+                    })
+                    .bind(port)
+                    .syncUninterruptibly()
+                    .channel();
+        } catch (RuntimeException e) {
+            group.shutdownGracefully(SHUTDOWN_QUIET_PERIOD_MILLIS, SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            throw e;
+        }
+        eventLoopGroup = group;
+        logger.info("Servidor HTTP Netty ouvindo na porta {} ({}, {} thread(s) de I/O)",
+                port, epoll ? "epoll" : "nio", ioThreads);
+    }
+
+    @Override
+    public void stop() {
+        Channel channel = serverChannel;
+        if (channel != null) {
+            channel.close().syncUninterruptibly();
+            serverChannel = null;
+        }
+        // Sem novas conexões; as respostas ainda em virtual threads saem antes de o event loop parar
+        handler.shutdownOffloaded(SHUTDOWN_TIMEOUT_MILLIS);
+        EventLoopGroup group = eventLoopGroup;
+        if (group != null) {
+            group.shutdownGracefully(SHUTDOWN_QUIET_PERIOD_MILLIS, SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)
+                    .syncUninterruptibly();
+            eventLoopGroup = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return serverChannel != null;
+    }
+
+    /**
+     * Sobe depois dos publicadores da fila e para antes deles, como o servidor web do Spring Boot.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 2048;
+    }
+}
@@ -0,0 +1,314 @@
+package com.maal.apipaymentprocessor.entrypoint.netty;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maal.apipaymentprocessor.domain.exception.DuplicatePaymentException;
+import com.maal.apipaymentprocessor.domain.exception.PaymentProcessingException;
+import com.maal.apipaymentprocessor.domain.exception.SummaryUnavailableException;
+import com.maal.apipaymentprocessor.domain.port.in.PaymentSummaryUseCase;
+import com.maal.apipaymentprocessor.domain.port.in.ProcessPaymentUseCase;
+import com.maal.apipaymentprocessor.domain.port.out.OperationMetrics;
+import com.maal.apipaymentprocessor.domain.port.out.PaymentQueuePublisher;
+import com.maal.apipaymentprocessor.entrypoint.web.GlobalExceptionHandler;
+import com.maal.apipaymentprocessor.entrypoint.web.dto.PaymentRequest;
+import com.maal.apipaymentprocessor.infrastructure.json.PaymentJsonCodec;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import io.netty.util.AsciiString;
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Roteamento dos endpoints da API no servidor Netty, chamando os casos de uso direto (sem
+ * DispatcherServlet, filtros ou conversores do Spring MVC). Respostas de erro reaproveitam os
+ * corpos do {@link GlobalExceptionHandler}.
+ *
+ * O event loop nunca espera o Redis: POST /payments roda nele só quando o publicador da fila não
+ * bloqueia ({@link PaymentQueuePublisher#blocksCaller()}; hoje todos podem bloquear); resumo, purge
+ * e publicadores bloqueantes rodam em virtual threads e a resposta é escrita de volta no canal.
+ * Com pipelining HTTP/1.1 as respostas de um canal saem na ordem das requisições, mesmo quando uma
+ * virtual thread termina antes de outra (ver {@link ResponseSequencer}).
+ */
+@Component
+@ConditionalOnProperty(name = "rinha.http.server", havingValue = "netty")
+@ChannelHandler.Sharable
+public class NettyPaymentHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
+
+    private static final Logger logger = LoggerFactory.getLogger(NettyPaymentHttpHandler.class);
+
+    private static final AsciiString TEXT_PLAIN = AsciiString.cached("text/plain;charset=UTF-8");
+    private static final byte[] EMPTY = new byte[0];
+    private static final GlobalExceptionHandler EXCEPTION_HANDLER = new GlobalExceptionHandler();
+    private static final AttributeKey<ResponseSequencer> SEQUENCER = AttributeKey.valueOf("rinha.responseSequencer");
+
+    private final ProcessPaymentUseCase processPaymentUseCase;
+    private final PaymentSummaryUseCase paymentSummaryUseCase;
+    private final OperationMetrics operationMetrics;
+    private final ObjectMapper objectMapper;
+    private final boolean paymentsOnEventLoop;
+
+    private final ExecutorService blockingExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("netty-blocking-", 0).factory());
+
+    public NettyPaymentHttpHandler(ProcessPaymentUseCase processPaymentUseCase,
+                                   PaymentSummaryUseCase paymentSummaryUseCase,
+                                   PaymentQueuePublisher paymentQueuePublisher,
+                                   OperationMetrics operationMetrics,
+                                   ObjectMapper objectMapper) {
+        this.processPaymentUseCase = processPaymentUseCase;
+        this.paymentSummaryUseCase = paymentSummaryUseCase;
+        this.operationMetrics = operationMetrics;
+        this.objectMapper = objectMapper;
+        this.paymentsOnEventLoop = !paymentQueuePublisher.blocksCaller();
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest request) {
+        long sequence = sequencer(ctx).register();
+        QueryStringDecoder uri = new QueryStringDecoder(request.uri());
+        String path = uri.path();
+        HttpMethod method = request.method();
+
+        if (HttpMethod.POST.equals(method) && "/payments".equals(path)) {
+            // O corpo é liberado ao fim deste método; lê antes de sair do event loop
+            PaymentRequest paymentRequest;
+            try {
+                paymentRequest = readPaymentRequest(request.content());
+            } catch (IllegalArgumentException e) {
+                write(ctx, sequence, json(GlobalExceptionHandler.invalidJson("JSON parse error: " + e.getMessage())));
+                return;
+            }
+            if (paymentsOnEventLoop) {
+                write(ctx, sequence, respond(() -> receivePayment(paymentRequest)));
+            } else {
+                offload(ctx, sequence, () -> receivePayment(paymentRequest));
+            }
+        } else if (HttpMethod.GET.equals(method) && "/payments-summary".equals(path)) {
+            String from = parameter(uri, "from");
+            String to = parameter(uri, "to");
+            offload(ctx, sequence, () -> json(HttpResponseStatus.OK, paymentSummaryUseCase.getPaymentSummary(from, to)));
+        } else if (HttpMethod.POST.equals(method) && "/purge-payments".equals(path)) {
+            offload(ctx, sequence, () -> {
+                paymentSummaryUseCase.purgeAllPayments();
+                return new Response(HttpResponseStatus.OK, null, EMPTY);
+            });
+        } else if (HttpMethod.GET.equals(method) && "/internal/metrics".equals(path)) {
+            write(ctx, sequence, new Response(HttpResponseStatus.OK, TEXT_PLAIN,
+                    operationMetrics.snapshot().getBytes(StandardCharsets.UTF_8)));
+        } else {
+            write(ctx, sequence, new Response(HttpResponseStatus.NOT_FOUND, null, EMPTY));
+        }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        ResponseSequencer sequencer = ctx.channel().attr(SEQUENCER).get();
+        if (sequencer != null) {
+            sequencer.close();
+        }
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        logger.debug("Fechando conexão HTTP após erro: {}", cause.getMessage());
+        ctx.close();
+    }
+
+    private PaymentRequest readPaymentRequest(ByteBuf content) {
+        long start = System.nanoTime();
+        try {
+            return PaymentJsonCodec.readPaymentRequest(ByteBufUtil.getBytes(content));
+        } finally {
+            operationMetrics.recordNanos(OperationMetrics.Timer.PAYMENT_REQUEST_PARSE, System.nanoTime() - start);
+        }
+    }
+
+    private Response receivePayment(PaymentRequest paymentRequest) {
+        long start = System.nanoTime();
+        try {
+            processPaymentUseCase.receivePayment(paymentRequest);
+        } finally {
+            operationMetrics.recordNanos(OperationMetrics.Timer.PAYMENT_REQUEST, System.nanoTime() - start);
+        }
+        return new Response(HttpResponseStatus.OK, null, EMPTY);
+    }
+
+    private void offload(ChannelHandlerContext ctx, long sequence, Supplier<Response> action) {
+        try {
+            blockingExecutor.execute(() -> write(ctx, sequence, respond(action)));
+        } catch (RejectedExecutionException e) {
+            // Servidor parando (shutdownOffloaded): a conexão ainda aberta recebe 503
+            write(ctx, sequence, new Response(HttpResponseStatus.SERVICE_UNAVAILABLE, null, EMPTY));
+        }
+    }
+
+    /**
+     * Para de aceitar trabalho em virtual threads e espera, até o timeout, as requisições em
+     * andamento escreverem suas respostas. Chamado por {@link NettyHttpServer#stop()} depois de
+     * fechar o socket de escuta e antes de parar o event loop, que ainda precisa escrevê-las.
+     */
+    void shutdownOffloaded(long timeoutMillis) {
+        blockingExecutor.shutdown();
+        try {
+            if (!blockingExecutor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                logger.warn("Requisições em virtual threads não terminaram em {} ms; interrompendo", timeoutMillis);
+                blockingExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            blockingExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Executa a ação traduzindo as exceções de domínio como o {@link GlobalExceptionHandler}.
+     */
+    private Response respond(Supplier<Response> action) {
+        try {
+            return action.get();
+        } catch (IllegalArgumentException e) {
+            return json(EXCEPTION_HANDLER.handleIllegalArgument(e));
+        } catch (DuplicatePaymentException e) {
+            return json(EXCEPTION_HANDLER.handleDuplicatePayment(e));
+        } catch (PaymentProcessingException e) {
+            return json(EXCEPTION_HANDLER.handlePaymentProcessingException(e));
+        } catch (SummaryUnavailableException e) {
+            return json(EXCEPTION_HANDLER.handleSummaryUnavailable(e));
+        } catch (RuntimeException e) {
+            logger.error("Erro inesperado no servidor HTTP Netty", e);
+            return new Response(HttpResponseStatus.INTERNAL_SERVER_ERROR, null, EMPTY);
+        }
+    }
+
+    private Response json(ResponseEntity<Map<String, Object>> entity) {
+        return json(HttpResponseStatus.valueOf(entity.getStatusCode().value()), entity.getBody());
+    }
+
+    private Response json(HttpResponseStatus status, Object body) {
+        try {
+            return new Response(status, HttpHeaderValues.APPLICATION_JSON, objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar a resposta JSON", e);
+        }
+    }
+
+    private static String parameter(QueryStringDecoder uri, String name) {
+        List<String> values = uri.parameters().get(name);
+        return (values == null || values.isEmpty()) ? null : values.get(0);
+    }
+
+    private static ResponseSequencer sequencer(ChannelHandlerContext ctx) {
+        Attribute<ResponseSequencer> attribute = ctx.channel().attr(SEQUENCER);
+        ResponseSequencer sequencer = attribute.get();
+        if (sequencer == null) {
+            sequencer = new ResponseSequencer();
+            attribute.set(sequencer);
+        }
+        return sequencer;
+    }
+
+    /**
+     * Escreve a resposta da requisição {@code sequence} com Content-Length; o HttpServerKeepAliveHandler
+     * decide se a conexão continua aberta. Pode ser chamado de fora do event loop: a resposta é
+     * montada na thread atual e entregue ao {@link ResponseSequencer} no event loop do canal.
+     */
+    private static void write(ChannelHandlerContext ctx, long sequence, Response response) {
+        FullHttpResponse httpResponse = toHttpResponse(ctx, response);
+        if (ctx.executor().inEventLoop()) {
+            sequencer(ctx).complete(ctx, sequence, httpResponse);
+            return;
+        }
+        try {
+            ctx.executor().execute(() -> sequencer(ctx).complete(ctx, sequence, httpResponse));
+        } catch (RejectedExecutionException e) {
+            // Event loop já parado: a conexão está sendo fechada
+            httpResponse.release();
+        }
+    }
+
+    private static FullHttpResponse toHttpResponse(ChannelHandlerContext ctx, Response response) {
+        ByteBuf content = (response.body().length == 0)
+                ? Unpooled.EMPTY_BUFFER
+                : ctx.alloc().buffer(response.body().length).writeBytes(response.body());
+        FullHttpResponse httpResponse = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, response.status(), content);
+        if (response.contentType() != null) {
+            httpResponse.headers().set(HttpHeaderNames.CONTENT_TYPE, response.contentType());
+        }
+        httpResponse.headers().setInt(HttpHeaderNames.CONTENT_LENGTH, response.body().length);
+        return httpResponse;
+    }
+
+    /**
+     * Ordem das respostas de um canal. Com pipelining o cliente envia várias requisições antes de
+     * ler as respostas, e o HTTP/1.1 exige que elas voltem na ordem dos pedidos; uma resposta pronta
+     * antes da sua vez fica guardada até as anteriores serem escritas. Usado só no event loop do canal.
+     */
+    private static final class ResponseSequencer {
+
+        private final Map<Long, FullHttpResponse> ready = new HashMap<>();
+        private long nextRequest;
+        private long nextResponse;
+        private boolean closed;
+
+        long register() {
+            return nextRequest++;
+        }
+
+        void complete(ChannelHandlerContext ctx, long sequence, FullHttpResponse response) {
+            if (closed) {
+                response.release();
+                return;
+            }
+            if (sequence != nextResponse) {
+                ready.put(sequence, response);
+                return;
+            }
+            ctx.write(response);
+            nextResponse++;
+            for (FullHttpResponse next = ready.remove(nextResponse); next != null; next = ready.remove(nextResponse)) {
+                ctx.write(next);
+                nextResponse++;
+            }
+            ctx.flush();
+        }
+
+        /** Canal fechado: descarta as respostas que esperavam a vez */
+        void close() {
+            closed = true;
+            ready.values().forEach(FullHttpResponse::release);
+            ready.clear();
+        }
+    }
+
+    private record Response(HttpResponseStatus status, CharSequence contentType, byte[] body) {
+    }
+}
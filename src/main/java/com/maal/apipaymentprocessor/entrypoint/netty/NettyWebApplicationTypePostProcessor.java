@@ -0,0 +1,42 @@
+package com.maal.apipaymentprocessor.entrypoint.netty;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.config.ConfigDataEnvironmentPostProcessor;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+
+/**
+ * Com rinha.http.server=netty desliga o servidor web do Spring (spring.main.web-application-type=none)
+ * antes de o contexto ser criado, para que o Tomcat não suba na mesma porta do {@link NettyHttpServer}.
+ * Um web-application-type diferente de none configurado explicitamente junto com netty falha a subida.
+ * Registrado em META-INF/spring.factories; roda depois da leitura do application.properties.
+ */
+public class NettyWebApplicationTypePostProcessor implements EnvironmentPostProcessor, Ordered {
+
+    static final String WEB_APPLICATION_TYPE_PROPERTY = "spring.main.web-application-type";
+    private static final String PROPERTY_SOURCE_NAME = "rinhaNettyWebApplicationType";
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        String httpServer = environment.getProperty("rinha.http.server", "servlet");
+        if (!"netty".equalsIgnoreCase(httpServer.trim())) {
+            return;
+        }
+        String configured = environment.getProperty(WEB_APPLICATION_TYPE_PROPERTY);
+        if (configured != null && !"none".equalsIgnoreCase(configured.trim())) {
+            throw new IllegalStateException("rinha.http.server=netty não pode rodar com "
+                    + WEB_APPLICATION_TYPE_PROPERTY + "=" + configured);
+        }
+        environment.getPropertySources().addFirst(
+                new MapPropertySource(PROPERTY_SOURCE_NAME, Map.of(WEB_APPLICATION_TYPE_PROPERTY, "none")));
+    }
+
+    @Override
+    public int getOrder() {
+        return ConfigDataEnvironmentPostProcessor.ORDER + 1;
+    }
+}
@@ -1,7 +1,8 @@
 package com.maal.apipaymentprocessor.entrypoint.web;
 
+import com.maal.apipaymentprocessor.domain.exception.DuplicatePaymentException;
 import com.maal.apipaymentprocessor.domain.exception.PaymentProcessingException;
-import org.springframework.dao.DuplicateKeyException;
+import com.maal.apipaymentprocessor.domain.exception.SummaryUnavailableException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -12,7 +13,7 @@ import java.util.Map;
 
 /**
  * Manipulador global de exceções para tratar erros de deserialização JSON
- * e erros de banco de dados sem gerar logs de erro desnecessários.
+ * e pagamentos repetidos sem gerar logs de erro desnecessários.
  */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -23,8 +24,14 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(HttpMessageNotReadableException.class)
     public ResponseEntity<Map<String, Object>> handleInvalidJson(HttpMessageNotReadableException ex) {
-        String message = ex.getMessage();
-        
+        return invalidJson(ex.getMessage());
+    }
+
+    /**
+     * Resposta de corpo JSON ilegível a partir da mensagem do erro de leitura;
+     * também usada pelo servidor Netty, que lê o corpo fora do Spring MVC.
+     */
+    public static ResponseEntity<Map<String, Object>> invalidJson(String message) {
         // Detecta erro específico de UUID
         if (message != null && message.contains("UUID")) {
             return ResponseEntity
@@ -58,24 +65,12 @@ public class GlobalExceptionHandler {
     }
     
     /**
-     * Captura erros de chave duplicada no banco de dados (correlationId já existe)
+     * Captura pagamentos com correlationId já aceito
      * e retorna HTTP 409 Conflict com mensagem clara.
      */
-    @ExceptionHandler(DuplicateKeyException.class)
-    public ResponseEntity<Map<String, Object>> handleDuplicateKey(DuplicateKeyException ex) {
-        String message = ex.getMessage();
-        
-        // Extrai o correlationId da mensagem de erro se possível
-        String correlationId = "desconhecido";
-        if (message != null && message.contains("correlation_id")) {
-            // Tenta extrair o UUID da mensagem de erro
-            int start = message.indexOf("(correlation_id)=(") + 18;
-            int end = message.indexOf(")", start);
-            if (start > 17 && end > start) {
-                correlationId = message.substring(start, end);
-            }
-        }
-        
+    @ExceptionHandler(DuplicatePaymentException.class)
+    public ResponseEntity<Map<String, Object>> handleDuplicatePayment(DuplicatePaymentException ex) {
+        String correlationId = String.valueOf(ex.getCorrelationId());
         return ResponseEntity
             .status(HttpStatus.CONFLICT) // 409 Conflict
             .body(Map.of(
@@ -114,4 +109,19 @@ public class GlobalExceptionHandler {
             ));
     }
 
-} 
\ No newline at end of file
+    /**
+     * Resumo incompleto (falha ou prazo excedido em algum processador) vira HTTP 503,
+     * em vez de um resumo zerado que seria indistinguível de "nenhum pagamento".
+     */
+    @ExceptionHandler(SummaryUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handleSummaryUnavailable(SummaryUnavailableException ex) {
+        return ResponseEntity
+            .status(HttpStatus.SERVICE_UNAVAILABLE) // 503 Service Unavailable
+            .body(Map.of(
+                "erro", "Resumo de pagamentos indisponível. Tente novamente mais tarde.",
+                "descricao", ex.getMessage(),
+                "status", 503
+            ));
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.maal.apipaymentprocessor.entrypoint.web;
+
+import com.maal.apipaymentprocessor.domain.port.out.OperationMetrics;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Exposição das métricas internas em texto plano (sem Actuator/Micrometer).
+ * Zeradas junto com os dados por POST /purge-payments.
+ */
+@RestController
+public class InternalMetricsController {
+
+    private final OperationMetrics operationMetrics;
+
+    public InternalMetricsController(OperationMetrics operationMetrics) {
+        this.operationMetrics = operationMetrics;
+    }
+
+    @GetMapping(value = "/internal/metrics", produces = MediaType.TEXT_PLAIN_VALUE)
+    public String metrics() {
+        return operationMetrics.snapshot();
+    }
+}
@@ -3,6 +3,7 @@ package com.maal.apipaymentprocessor.entrypoint.web;
 import com.maal.apipaymentprocessor.domain.exception.PaymentProcessingException;
 import com.maal.apipaymentprocessor.domain.port.in.PaymentSummaryUseCase;
 import com.maal.apipaymentprocessor.domain.port.in.ProcessPaymentUseCase;
+import com.maal.apipaymentprocessor.domain.port.out.OperationMetrics;
 import com.maal.apipaymentprocessor.entrypoint.web.dto.PaymentRequest;
 import com.maal.apipaymentprocessor.entrypoint.web.dto.PaymentSummaryGetResponse;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -18,15 +19,23 @@ public class PaymentController {
 
     private final ProcessPaymentUseCase processPaymentUseCase;
     private final PaymentSummaryUseCase paymentSummaryUseCase;
+    private final OperationMetrics operationMetrics;
 
-    public PaymentController(ProcessPaymentUseCase processPaymentUseCase, PaymentSummaryUseCase paymentSummaryUseCase) {
+    public PaymentController(ProcessPaymentUseCase processPaymentUseCase, PaymentSummaryUseCase paymentSummaryUseCase,
+                             OperationMetrics operationMetrics) {
         this.processPaymentUseCase = processPaymentUseCase;
         this.paymentSummaryUseCase = paymentSummaryUseCase;
+        this.operationMetrics = operationMetrics;
     }
 
     @PostMapping(value = "/payments", consumes = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<Void> receivePayment(@RequestBody PaymentRequest request) {
-        processPaymentUseCase.receivePayment(request);
+        long start = System.nanoTime();
+        try {
+            processPaymentUseCase.receivePayment(request);
+        } finally {
+            operationMetrics.recordNanos(OperationMetrics.Timer.PAYMENT_REQUEST, System.nanoTime() - start);
+        }
         return ResponseEntity.ok().build();
     }
 
@@ -0,0 +1,55 @@
+package com.maal.apipaymentprocessor.entrypoint.web;
+
+import com.maal.apipaymentprocessor.domain.port.out.OperationMetrics;
+import com.maal.apipaymentprocessor.entrypoint.web.dto.PaymentRequest;
+import com.maal.apipaymentprocessor.infrastructure.json.PaymentJsonCodec;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Converte o corpo de POST /payments com o {@link PaymentJsonCodec}, sem passar pelo databind do Jackson,
+ * nos dois sentidos (a escrita gera o mesmo JSON que o Jackson).
+ * Registrado como bean, o Spring Boot o coloca à frente do conversor Jackson padrão.
+ * Erros de leitura viram {@link HttpMessageNotReadableException}, tratada pelo GlobalExceptionHandler.
+ */
+@Component
+public class PaymentRequestHttpMessageConverter extends AbstractHttpMessageConverter<PaymentRequest> {
+
+    private final OperationMetrics operationMetrics;
+
+    public PaymentRequestHttpMessageConverter(OperationMetrics operationMetrics) {
+        super(MediaType.APPLICATION_JSON);
+        this.operationMetrics = operationMetrics;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return PaymentRequest.class == clazz;
+    }
+
+    @Override
+    protected PaymentRequest readInternal(Class<? extends PaymentRequest> clazz, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        long start = System.nanoTime();
+        byte[] body = inputMessage.getBody().readAllBytes();
+        try {
+            return PaymentJsonCodec.readPaymentRequest(body);
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotReadableException("JSON parse error: " + e.getMessage(), e, inputMessage);
+        } finally {
+            operationMetrics.recordNanos(OperationMetrics.Timer.PAYMENT_REQUEST_PARSE, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    protected void writeInternal(PaymentRequest paymentRequest, HttpOutputMessage outputMessage) throws IOException {
+        outputMessage.getBody().write(PaymentJsonCodec.writePaymentRequest(paymentRequest).getBytes(StandardCharsets.UTF_8));
+    }
+}
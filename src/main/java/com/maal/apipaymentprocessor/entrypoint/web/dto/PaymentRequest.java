@@ -1,7 +1,9 @@
 package com.maal.apipaymentprocessor.entrypoint.web.dto;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.maal.apipaymentprocessor.domain.model.Money;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
@@ -17,18 +19,42 @@ public class PaymentRequest {
     @JsonProperty("correlationId")
     private UUID correlationId;
     
-    // amount como BigDecimal conforme especificação  
-    @JsonProperty("amount")
-    private BigDecimal amount;
+    // amount é decimal no JSON conforme especificação, mas fica guardado em centavos (ver Money).
+    // 0 representa valor ausente, rejeitado na validação junto com os não positivos.
+    @JsonIgnore
+    private long amountCents;
+
+    // Escala do amount recebido ("19.9" tem escala 1), repassada ao Payment da fila
+    @JsonIgnore
+    private int amountScale;
 
     // Construtor padrão necessário para Jackson
-    public PaymentRequest() {}
+    public PaymentRequest() {
+        this.amountScale = Money.CENTS_SCALE;
+    }
 
     // Construtor com parâmetros para Jackson
     @JsonCreator
     public PaymentRequest(@JsonProperty("correlationId") UUID correlationId, 
                          @JsonProperty("amount") BigDecimal amount) {
         this.correlationId = correlationId;
-        this.amount = amount;
+        setAmount(amount);
+    }
+
+    public PaymentRequest(UUID correlationId, long amountCents, int amountScale) {
+        this.correlationId = correlationId;
+        this.amountCents = amountCents;
+        this.amountScale = amountScale;
+    }
+
+    @JsonProperty("amount")
+    public BigDecimal getAmount() {
+        return Money.toBigDecimal(amountCents, amountScale);
+    }
+
+    @JsonProperty("amount")
+    public void setAmount(BigDecimal amount) {
+        this.amountCents = (amount == null) ? 0 : Money.toCents(amount);
+        this.amountScale = (amount == null) ? Money.CENTS_SCALE : amount.scale();
     }
 }
\ No newline at end of file
@@ -0,0 +1,103 @@
+package com.maal.apipaymentprocessor.infrastructure.codec;
+
+import com.maal.apipaymentprocessor.domain.model.Payment;
+import com.maal.apipaymentprocessor.domain.model.PaymentProcessorType;
+import com.maal.apipaymentprocessor.domain.model.PaymentStatus;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Codificação binária compacta de {@link Payment} para a fila e o histórico no Redis.
+ *
+ * Layout da versão 1 (35 bytes, big-endian):
+ * <pre>
+ *  0      tag de versão (0x01)
+ *  1..16  correlationId (most + least significant bits)
+ *  17..24 amount em centavos (long)
+ *  25..32 requestedAt em epoch millis (long)
+ *  33     paymentProcessorType (0 = nulo, 1 = DEFAULT, 2 = FALLBACK)
+ *  34     status (0 = PENDING, 1 = PROCESSING, 2 = SUCCESS, 3 = FAILED, 4 = RETRY)
+ * </pre>
+ * A escala do amount recebido não é gravada: o pagamento decodificado volta com escala 2.
+ * Um documento JSON sempre começa com '{' ou espaço, então o primeiro byte basta para
+ * distinguir os formatos durante a migração.
+ */
+public final class PaymentBinaryCodec {
+
+    public static final byte FORMAT_V1 = 0x01;
+    public static final int V1_LENGTH = 35;
+
+    private PaymentBinaryCodec() {
+    }
+
+    public static boolean isBinary(byte[] payload) {
+        return payload.length > 0 && payload[0] == FORMAT_V1;
+    }
+
+    public static byte[] encode(Payment payment) {
+        ByteBuffer buffer = ByteBuffer.allocate(V1_LENGTH);
+        buffer.put(FORMAT_V1);
+        buffer.putLong(payment.getCorrelationId().getMostSignificantBits());
+        buffer.putLong(payment.getCorrelationId().getLeastSignificantBits());
+        buffer.putLong(payment.getAmountCents());
+        buffer.putLong(payment.getRequestedAt().toEpochMilli());
+        buffer.put(processorTypeCode(payment.getPaymentProcessorType()));
+        buffer.put(statusCode(payment.getStatus()));
+        return buffer.array();
+    }
+
+    public static Payment decode(byte[] payload) {
+        if (payload.length < V1_LENGTH || payload[0] != FORMAT_V1) {
+            throw new IllegalArgumentException("Unsupported binary payment format (length " + payload.length + ")");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(payload, 1, V1_LENGTH - 1);
+        UUID correlationId = new UUID(buffer.getLong(), buffer.getLong());
+        long amountCents = buffer.getLong();
+        Instant requestedAt = Instant.ofEpochMilli(buffer.getLong());
+        PaymentProcessorType processorType = processorTypeFromCode(buffer.get());
+        PaymentStatus status = statusFromCode(buffer.get());
+        return new Payment(correlationId, amountCents, requestedAt, processorType, status);
+    }
+
+    private static byte processorTypeCode(PaymentProcessorType processorType) {
+        if (processorType == null) {
+            return 0;
+        }
+        return switch (processorType) {
+            case DEFAULT -> 1;
+            case FALLBACK -> 2;
+        };
+    }
+
+    private static PaymentProcessorType processorTypeFromCode(byte code) {
+        return switch (code) {
+            case 0 -> null;
+            case 1 -> PaymentProcessorType.DEFAULT;
+            case 2 -> PaymentProcessorType.FALLBACK;
+            default -> throw new IllegalArgumentException("Unknown payment processor type code: " + code);
+        };
+    }
+
+    private static byte statusCode(PaymentStatus status) {
+        return switch (status) {
+            case PENDING -> 0;
+            case PROCESSING -> 1;
+            case SUCCESS -> 2;
+            case FAILED -> 3;
+            case RETRY -> 4;
+        };
+    }
+
+    private static PaymentStatus statusFromCode(byte code) {
+        return switch (code) {
+            case 0 -> PaymentStatus.PENDING;
+            case 1 -> PaymentStatus.PROCESSING;
+            case 2 -> PaymentStatus.SUCCESS;
+            case 3 -> PaymentStatus.FAILED;
+            case 4 -> PaymentStatus.RETRY;
+            default -> throw new IllegalArgumentException("Unknown payment status code: " + code);
+        };
+    }
+}
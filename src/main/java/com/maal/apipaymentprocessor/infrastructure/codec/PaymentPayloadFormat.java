@@ -0,0 +1,35 @@
+package com.maal.apipaymentprocessor.infrastructure.codec;
+
+import com.maal.apipaymentprocessor.domain.model.Payment;
+import com.maal.apipaymentprocessor.infrastructure.json.PaymentJsonCodec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Formato do payload publicado na fila de pagamentos (rinha.queue.format).
+ * JSON é o formato atual do async-worker; BINARY só deve ser ligado depois que o worker
+ * souber ler {@link PaymentBinaryCodec}.
+ */
+public enum PaymentPayloadFormat {
+
+    JSON {
+        @Override
+        public byte[] encode(Payment payment) {
+            return PaymentJsonCodec.writePayment(payment).getBytes(StandardCharsets.UTF_8);
+        }
+    },
+
+    BINARY {
+        @Override
+        public byte[] encode(Payment payment) {
+            return PaymentBinaryCodec.encode(payment);
+        }
+    };
+
+    public abstract byte[] encode(Payment payment);
+
+    public static PaymentPayloadFormat fromProperty(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
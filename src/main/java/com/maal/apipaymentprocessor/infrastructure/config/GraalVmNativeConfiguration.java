@@ -70,6 +70,13 @@ public class GraalVmNativeConfiguration implements RuntimeHintsRegistrar {
             .registerType(TypeReference.of("com.fasterxml.jackson.databind.ObjectMapper"), 
                 MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
                 MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        // Registra scripts Lua executados no Redis
+        hints.resources().registerPattern("scripts/*.lua");
+
+        // Biblioteca nativa do epoll (Netty), usada pelo socket Unix do Redis; se não carregar,
+        // RedisTransport detecta na subida e as conexões seguem por TCP
+        hints.resources().registerPattern("META-INF/native/libnetty_transport_native_epoll*.so");
     }
 
 } 
\ No newline at end of file
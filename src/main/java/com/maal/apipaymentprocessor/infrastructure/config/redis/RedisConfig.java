@@ -4,23 +4,123 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.SocketOptions;
+import io.lettuce.core.TimeoutOptions;
+import io.lettuce.core.protocol.DecodeBufferPolicies;
+import io.lettuce.core.protocol.DecodeBufferPolicy;
+import io.lettuce.core.resource.ClientResources;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.scripting.support.ResourceScriptSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
 
 /**
  * Configuração do Redis para cache de health status e filas de pagamentos.
  * Configura RedisTemplate e ObjectMapper otimizados para performance e 
  * compatibilidade com GraalVM Native Image.
+ *
+ * O tráfego de ingestão (publicação na fila) e o de resumo/administração usam conexões Lettuce
+ * separadas, cada uma com seu timeout e política de buffer: uma resposta de vários MB de um
+ * LRANGE do resumo não fica na frente dos RPUSH das requisições na mesma conexão multiplexada.
+ * Os dois timeouts partem de spring.data.redis.timeout (REDIS_TIMEOUT).
  */
 @Configuration
 public class RedisConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(RedisConfig.class);
+
+    /**
+     * Transporte (socket Unix ou TCP) compartilhado por todas as conexões com o Redis.
+     */
+    @Bean
+    public RedisTransport redisTransport(RedisProperties redisProperties,
+                                         @Value("${rinha.redis.socket:}") String socketPath) {
+        return RedisTransport.detect(redisProperties, socketPath);
+    }
+
+    /**
+     * Conexões de resumo e administração (padrão para quem não pede a de ingestão): timeout de
+     * spring.data.redis.timeout, limitado ao prazo do resumo (um comando não espera além do ponto
+     * em que o resumo já respondeu 503), e buffer de decodificação que só é compactado depois de
+     * bem ocupado, para respostas grandes não serem copiadas várias vezes.
+     */
+    @Bean
+    @Primary
+    public LettuceConnectionFactory redisConnectionFactory(RedisTransport redisTransport, ClientResources clientResources,
+                                                           RedisProperties redisProperties,
+                                                           @Value("${rinha.summary.deadline-millis:1000}") long summaryDeadlineMillis) {
+        return connectionFactory(redisTransport, clientResources,
+                boundedTimeout(redisProperties, Duration.ofMillis(summaryDeadlineMillis)), DecodeBufferPolicies.ratio(8));
+    }
+
+    /**
+     * Conexão de ingestão, usada só pela publicação na fila: timeout curto, nunca acima de
+     * spring.data.redis.timeout (a requisição não espera um Redis travado), e buffer de
+     * decodificação liberado a cada resposta, que são pequenas.
+     */
+    @Bean
+    public LettuceConnectionFactory ingestRedisConnectionFactory(RedisTransport redisTransport, ClientResources clientResources,
+                                                                 RedisProperties redisProperties,
+                                                                 @Value("${rinha.redis.ingest.timeout-millis:300}") long timeoutMillis) {
+        return connectionFactory(redisTransport, clientResources,
+                boundedTimeout(redisProperties, Duration.ofMillis(timeoutMillis)), DecodeBufferPolicies.always());
+    }
+
+    /**
+     * spring.data.redis.timeout limitado a {@code limit}; sem o timeout configurado, o próprio limite.
+     */
+    private static Duration boundedTimeout(RedisProperties redisProperties, Duration limit) {
+        Duration timeout = redisProperties.getTimeout();
+        return (timeout == null || timeout.compareTo(limit) > 0) ? limit : timeout;
+    }
+
+    private static LettuceConnectionFactory connectionFactory(RedisTransport redisTransport, ClientResources clientResources,
+                                                              Duration commandTimeout, DecodeBufferPolicy decodeBufferPolicy) {
+        LettuceClientConfiguration clientConfiguration = LettuceClientConfiguration.builder()
+                .clientResources(clientResources)
+                .clientOptions(clientOptions(commandTimeout, decodeBufferPolicy))
+                .commandTimeout(commandTimeout)
+                .build();
+        return new LettuceConnectionFactory(redisTransport.serverConfiguration(), clientConfiguration);
+    }
+
+    private static ClientOptions clientOptions(Duration commandTimeout, DecodeBufferPolicy decodeBufferPolicy) {
+        return ClientOptions.builder()
+                .socketOptions(SocketOptions.builder().tcpNoDelay(true).keepAlive(true).build())
+                .timeoutOptions(TimeoutOptions.enabled(commandTimeout))
+                .decodeBufferPolicy(decodeBufferPolicy)
+                .build();
+    }
+
     /**
      * Configura RedisTemplate para operações com Redis.
      * Usa serialização String para chaves e valores para máxima compatibilidade.
+     * Sem suporte a transações do Spring: quem precisa de MULTI/EXEC usa um SessionCallback,
+     * que prende a conexão só durante o bloco.
      */
     @Bean
     public RedisTemplate<String, String> redisTemplate(RedisConnectionFactory connectionFactory) {
@@ -35,13 +135,40 @@ public class RedisConfig {
         template.setHashKeySerializer(stringSerializer);
         template.setHashValueSerializer(stringSerializer);
         
-        // Habilita transações se necessário
-        template.setEnableTransactionSupport(true);
-        
         template.afterPropertiesSet();
         return template;
     }
     
+    /**
+     * RedisTemplate com valores em bytes crus, usado no histórico de pagamentos,
+     * onde convivem payloads JSON e binários (rinha.queue.format).
+     */
+    @Bean
+    @Primary
+    public RedisTemplate<String, byte[]> binaryRedisTemplate(RedisConnectionFactory connectionFactory) {
+        return binaryTemplate(connectionFactory);
+    }
+
+    /**
+     * RedisTemplate em bytes crus sobre a conexão de ingestão, usado só pela publicação na fila.
+     */
+    @Bean
+    public RedisTemplate<String, byte[]> ingestRedisTemplate(
+            @Qualifier("ingestRedisConnectionFactory") RedisConnectionFactory connectionFactory) {
+        return binaryTemplate(connectionFactory);
+    }
+
+    private static RedisTemplate<String, byte[]> binaryTemplate(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(RedisSerializer.string());
+        template.setValueSerializer(RedisSerializer.byteArray());
+        template.setHashKeySerializer(RedisSerializer.string());
+        template.setHashValueSerializer(RedisSerializer.byteArray());
+        template.afterPropertiesSet();
+        return template;
+    }
+
     /**
      * Configura ObjectMapper para serialização JSON.
      * Otimizado para serializar objetos Payment e HealthStatus.
@@ -69,4 +196,104 @@ public class RedisConfig {
         
         return mapper;
     }
+
+    /**
+     * Script Lua que calcula no Redis o resumo dos dois processadores (rinha.summary.mode=lua).
+     * O SHA1 é calculado localmente a partir do conteúdo do script.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "rinha.summary.mode", havingValue = "lua")
+    public RedisScript<List<Long>> paymentSummaryScript() {
+        DefaultRedisScript<List<Long>> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource("scripts/payment-summary.lua")));
+        return script;
+    }
+
+    /**
+     * Script Lua que publica pagamentos na fila descartando correlationIds já aceitos
+     * (SADD + RPUSH numa única ida ao Redis). Usado pelos publicadores direct e async com rinha.dedupe.enabled=true.
+     */
+    @Bean
+    public RedisScript<Long> enqueuePaymentsScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource("scripts/enqueue-payments.lua")));
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    /**
+     * Script Lua que move o início de uma lista de histórico para as rollups, só se a instância
+     * ainda for a líder da compactação (rinha.history.compaction.enabled=true).
+     */
+    @Bean
+    @ConditionalOnProperty(name = "rinha.history.compaction.enabled", havingValue = "true")
+    public RedisScript<Long> compactHistoryScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource("scripts/compact-history.lua")));
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    /**
+     * Script Lua que renova o lease da compactação do histórico só se ele ainda pertencer à
+     * instância, sem a corrida entre GET e EXPIRE (rinha.history.compaction.enabled=true).
+     */
+    @Bean
+    @ConditionalOnProperty(name = "rinha.history.compaction.enabled", havingValue = "true")
+    public RedisScript<Long> renewCompactionLeaseScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource("scripts/renew-compaction-lease.lua")));
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    /**
+     * Script Lua que publica o resultado de um resumo coordenado entre instâncias e libera o lease
+     * só se ele ainda pertencer ao cálculo (rinha.summary.coalesce.cross-instance=true).
+     */
+    @Bean
+    @ConditionalOnProperty(name = "rinha.summary.coalesce.cross-instance", havingValue = "true")
+    public RedisScript<Long> summaryFlightCompleteScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource("scripts/summary-flight-complete.lua")));
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    /**
+     * Carrega o script de resumo no Redis (SCRIPT LOAD) na inicialização, para que a primeira
+     * consulta já use EVALSHA. Falhas aqui não impedem a subida: o leitor recarrega o script
+     * ou cai para a varredura em Java quando necessário.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "rinha.summary.mode", havingValue = "lua")
+    public ApplicationRunner paymentSummaryScriptLoader(RedisTemplate<String, String> redisTemplate,
+                                                        RedisScript<List<Long>> paymentSummaryScript) {
+        return args -> {
+            try {
+                byte[] script = paymentSummaryScript.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+                String sha = redisTemplate.execute((RedisCallback<String>) connection -> connection.scriptingCommands().scriptLoad(script));
+                logger.info("Script de resumo carregado no Redis: {}", sha);
+            } catch (Exception e) {
+                logger.warn("Não foi possível carregar o script de resumo na inicialização: {}", e.getMessage());
+            }
+        };
+    }
+
+    /**
+     * Cliente Lettuce dedicado à publicação assíncrona (rinha.queue.publisher=async), com o mesmo
+     * perfil da conexão de ingestão.
+     * Reaproveita os ClientResources (event loops) criados pelo Spring Boot para economizar memória.
+     */
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = "rinha.queue.publisher", havingValue = "async")
+    public RedisClient ingestRedisClient(ClientResources clientResources, RedisTransport redisTransport,
+                                         RedisProperties redisProperties,
+                                         @Value("${rinha.redis.ingest.timeout-millis:300}") long timeoutMillis) {
+        Duration timeout = boundedTimeout(redisProperties, Duration.ofMillis(timeoutMillis));
+        RedisURI uri = redisTransport.uriBuilder().withTimeout(timeout).build();
+        RedisClient client = RedisClient.create(clientResources, uri);
+        client.setOptions(clientOptions(timeout, DecodeBufferPolicies.always()));
+        return client;
+    }
 }
@@ -0,0 +1,107 @@
+package com.maal.apipaymentprocessor.infrastructure.config.redis;
+
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.resource.EpollProvider;
+import io.netty.channel.epoll.Epoll;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.data.redis.connection.RedisConfiguration;
+import org.springframework.data.redis.connection.RedisPassword;
+import org.springframework.data.redis.connection.RedisSocketConfiguration;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Transporte das conexões com o Redis, decidido uma vez na subida.
+ *
+ * Com rinha.redis.socket configurado, as conexões usam o socket Unix do Redis (volume
+ * compartilhado no docker-compose), sem a pilha TCP nem o NAT da rede bridge. Isso exige o
+ * transporte nativo epoll do Netty, que pode não carregar (outro SO, biblioteca nativa ausente
+ * na imagem nativa ou io.lettuce.core.epoll=false); nesse caso, ou sem o arquivo do socket,
+ * as conexões usam TCP em host:porta. Em TCP o Lettuce também usa epoll quando disponível.
+ */
+public final class RedisTransport {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisTransport.class);
+
+    private final RedisProperties redisProperties;
+    /** Caminho do socket Unix; null = TCP */
+    private final String socketPath;
+
+    private RedisTransport(RedisProperties redisProperties, String socketPath) {
+        this.redisProperties = redisProperties;
+        this.socketPath = socketPath;
+    }
+
+    /**
+     * Usa o socket Unix se ele estiver configurado, existir e o epoll estiver disponível.
+     */
+    static RedisTransport detect(RedisProperties redisProperties, String socketPath) {
+        boolean nativeTransport = EpollProvider.isAvailable();
+        if (socketPath != null && !socketPath.isBlank()) {
+            if (!nativeTransport) {
+                logger.warn("Socket Unix {} ignorado: transporte nativo epoll indisponível ({}); usando TCP",
+                        socketPath, unavailabilityCause());
+            } else if (!Files.exists(Path.of(socketPath))) {
+                logger.warn("Socket Unix {} não encontrado; usando TCP", socketPath);
+            } else {
+                logger.info("Conexões com o Redis via socket Unix {} (epoll)", socketPath);
+                return new RedisTransport(redisProperties, socketPath);
+            }
+        }
+        logger.info("Conexões com o Redis via TCP {}:{} ({})", redisProperties.getHost(), redisProperties.getPort(),
+                nativeTransport ? "epoll" : "nio");
+        return new RedisTransport(redisProperties, null);
+    }
+
+    public boolean usesSocket() {
+        return socketPath != null;
+    }
+
+    /**
+     * Endereço para as fábricas de conexão do Spring Data Redis.
+     */
+    RedisConfiguration serverConfiguration() {
+        if (usesSocket()) {
+            RedisSocketConfiguration server = new RedisSocketConfiguration(socketPath);
+            server.setDatabase(redisProperties.getDatabase());
+            server.setUsername(redisProperties.getUsername());
+            server.setPassword(password());
+            return server;
+        }
+        RedisStandaloneConfiguration server =
+                new RedisStandaloneConfiguration(redisProperties.getHost(), redisProperties.getPort());
+        server.setDatabase(redisProperties.getDatabase());
+        server.setUsername(redisProperties.getUsername());
+        server.setPassword(password());
+        return server;
+    }
+
+    /**
+     * Endereço para clientes Lettuce criados diretamente (publicação assíncrona).
+     */
+    RedisURI.Builder uriBuilder() {
+        RedisURI.Builder uri = usesSocket()
+                ? RedisURI.Builder.socket(socketPath)
+                : RedisURI.builder().withHost(redisProperties.getHost()).withPort(redisProperties.getPort());
+        uri.withDatabase(redisProperties.getDatabase());
+        if (redisProperties.getUsername() != null && redisProperties.getPassword() != null) {
+            uri.withAuthentication(redisProperties.getUsername(), redisProperties.getPassword());
+        } else if (redisProperties.getPassword() != null) {
+            uri.withPassword(redisProperties.getPassword().toCharArray());
+        }
+        return uri;
+    }
+
+    private RedisPassword password() {
+        return (redisProperties.getPassword() == null) ? RedisPassword.none() : RedisPassword.of(redisProperties.getPassword());
+    }
+
+    private static String unavailabilityCause() {
+        Throwable cause = Epoll.unavailabilityCause();
+        return (cause == null) ? "desabilitado por io.lettuce.core.epoll" : cause.getMessage();
+    }
+}
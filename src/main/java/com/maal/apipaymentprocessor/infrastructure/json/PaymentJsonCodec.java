@@ -0,0 +1,584 @@
+package com.maal.apipaymentprocessor.infrastructure.json;
+
+import com.maal.apipaymentprocessor.domain.model.Money;
+import com.maal.apipaymentprocessor.domain.model.Payment;
+import com.maal.apipaymentprocessor.domain.model.PaymentProcessorType;
+import com.maal.apipaymentprocessor.domain.model.PaymentStatus;
+import com.maal.apipaymentprocessor.entrypoint.web.dto.PaymentRequest;
+
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Codec JSON escrito à mão para os dois documentos de formato fixo do hot path:
+ * o corpo de POST /payments ({@link PaymentRequest}) e o payload da fila/histórico ({@link Payment}).
+ * Os dois são lidos e escritos; a escrita do {@link PaymentRequest} segue a mesma ordem de campos do Jackson.
+ *
+ * A leitura é um parser de passada única que extrai apenas os campos conhecidos (campos
+ * desconhecidos são ignorados, como no ObjectMapper configurado em RedisConfig). Strings com
+ * escapes ("\u0041", "\"") são decodificadas antes da conversão; as sem escape são lidas no lugar. A escrita gera
+ * exatamente os mesmos bytes que o Jackson produz para {@link Payment} - mesma ordem de campos,
+ * amount com a escala recebida e Instant no formato ISO_INSTANT - para que o async-worker
+ * continue consumindo a fila sem mudanças.
+ *
+ * Erros de leitura são reportados com {@link IllegalArgumentException}, com mensagens no mesmo
+ * formato do Jackson ("... type `java.util.UUID` ...").
+ */
+public final class PaymentJsonCodec {
+
+    private static final int PAYMENT_JSON_CAPACITY = 160;
+    private static final int PAYMENT_REQUEST_JSON_CAPACITY = 80;
+
+    private PaymentJsonCodec() {
+    }
+
+    /**
+     * Lê o corpo de POST /payments diretamente dos bytes da requisição.
+     */
+    public static PaymentRequest readPaymentRequest(byte[] json) {
+        JsonCursor cursor = new JsonCursor(new AsciiBytes(json));
+        PaymentRequest request = new PaymentRequest();
+        cursor.beginObject();
+        while (cursor.nextField()) {
+            int keyStart = cursor.stringStart;
+            int keyEnd = cursor.stringEnd;
+            if (cursor.fieldIs(keyStart, keyEnd, "correlationId")) {
+                request.setCorrelationId(cursor.readUuid());
+            } else if (cursor.fieldIs(keyStart, keyEnd, "amount")) {
+                request.setAmountCents(cursor.readCents(0));
+                request.setAmountScale(cursor.decimalScale);
+            } else {
+                cursor.skipValue();
+            }
+        }
+        return request;
+    }
+
+    /**
+     * Lê um {@link Payment} no formato da fila/histórico diretamente dos bytes UTF-8 lidos do Redis.
+     */
+    public static Payment readPayment(byte[] json) {
+        return readPayment(new AsciiBytes(json));
+    }
+
+    /**
+     * Lê um {@link Payment} no formato da fila/histórico.
+     */
+    public static Payment readPayment(CharSequence json) {
+        JsonCursor cursor = new JsonCursor(json);
+        Payment payment = new Payment();
+        boolean hasAmount = false;
+        cursor.beginObject();
+        while (cursor.nextField()) {
+            int keyStart = cursor.stringStart;
+            int keyEnd = cursor.stringEnd;
+            if (cursor.fieldIs(keyStart, keyEnd, "correlationId")) {
+                payment.setCorrelationId(cursor.readUuid());
+            } else if (cursor.fieldIs(keyStart, keyEnd, "amount")) {
+                long cents = cursor.readCents(Long.MIN_VALUE);
+                hasAmount = cents != Long.MIN_VALUE;
+                payment.setAmountCents(hasAmount ? cents : 0);
+                payment.setAmountScale(cursor.decimalScale);
+            } else if (cursor.fieldIs(keyStart, keyEnd, "requestedAt")) {
+                payment.setRequestedAt(cursor.readInstant());
+            } else if (cursor.fieldIs(keyStart, keyEnd, "paymentProcessorType")) {
+                payment.setPaymentProcessorType(cursor.readEnum(PaymentProcessorType.class));
+            } else if (cursor.fieldIs(keyStart, keyEnd, "status")) {
+                payment.setStatus(cursor.readEnum(PaymentStatus.class));
+            } else {
+                cursor.skipValue();
+            }
+        }
+        if (payment.getCorrelationId() == null || !hasAmount
+                || payment.getRequestedAt() == null || payment.getStatus() == null) {
+            throw new IllegalArgumentException("Missing required Payment property in: " + json);
+        }
+        return payment;
+    }
+
+    /**
+     * Serializa um {@link Payment} no formato da fila.
+     */
+    public static String writePayment(Payment payment) {
+        return appendPayment(new StringBuilder(PAYMENT_JSON_CAPACITY), payment).toString();
+    }
+
+    /**
+     * Serializa um {@link Payment} no buffer informado, permitindo reaproveitá-lo entre chamadas.
+     */
+    public static StringBuilder appendPayment(StringBuilder out, Payment payment) {
+        out.append("{\"correlationId\":");
+        appendQuotedOrNull(out, payment.getCorrelationId());
+        out.append(",\"amount\":");
+        Money.appendDecimal(out, payment.getAmountCents(), payment.getAmountScale());
+        out.append(",\"requestedAt\":");
+        appendQuotedOrNull(out, payment.getRequestedAt());
+        out.append(",\"paymentProcessorType\":");
+        appendQuotedOrNull(out, payment.getPaymentProcessorType());
+        out.append(",\"status\":");
+        appendQuotedOrNull(out, payment.getStatus());
+        return out.append('}');
+    }
+
+    /**
+     * Serializa o corpo de POST /payments.
+     */
+    public static String writePaymentRequest(PaymentRequest request) {
+        StringBuilder out = new StringBuilder(PAYMENT_REQUEST_JSON_CAPACITY);
+        out.append("{\"correlationId\":");
+        appendQuotedOrNull(out, request.getCorrelationId());
+        out.append(",\"amount\":");
+        Money.appendDecimal(out, request.getAmountCents(), request.getAmountScale());
+        return out.append('}').toString();
+    }
+
+    private static void appendQuotedOrNull(StringBuilder out, Object value) {
+        if (value == null) {
+            out.append("null");
+        } else {
+            out.append('"').append(value).append('"');
+        }
+    }
+
+    /**
+     * Converte "AAAA-MM-DDTHH:MM:SS[.fração]Z" sem passar pelo DateTimeFormatter.
+     * Outros formatos ISO-8601 aceitos por {@link Instant#parse} caem no caminho padrão.
+     */
+    public static Instant parseInstant(CharSequence text, int start, int end) {
+        int length = end - start;
+        if (length >= 20 && text.charAt(end - 1) == 'Z'
+                && text.charAt(start + 4) == '-' && text.charAt(start + 7) == '-' && text.charAt(start + 10) == 'T'
+                && text.charAt(start + 13) == ':' && text.charAt(start + 16) == ':') {
+            int year = digits(text, start, 4);
+            int month = digits(text, start + 5, 2);
+            int day = digits(text, start + 8, 2);
+            int hour = digits(text, start + 11, 2);
+            int minute = digits(text, start + 14, 2);
+            int second = digits(text, start + 17, 2);
+            int nanos = 0;
+            boolean valid = year >= 0 && month >= 1 && month <= 12 && day >= 1 && day <= lengthOfMonth(year, month)
+                    && hour >= 0 && hour <= 23 && minute >= 0 && minute <= 59 && second >= 0 && second <= 59;
+            if (valid && length > 20) {
+                int fractionDigits = length - 21;
+                valid = text.charAt(start + 19) == '.' && fractionDigits >= 1 && fractionDigits <= 9;
+                if (valid) {
+                    nanos = digits(text, start + 20, fractionDigits);
+                    valid = nanos >= 0;
+                    for (int i = fractionDigits; i < 9; i++) {
+                        nanos *= 10;
+                    }
+                }
+            }
+            if (valid) {
+                long epochSecond = daysFromCivil(year, month, day) * 86_400L + hour * 3_600L + minute * 60L + second;
+                return Instant.ofEpochSecond(epochSecond, nanos);
+            }
+        }
+        return Instant.parse(text.subSequence(start, end));
+    }
+
+    private static int digits(CharSequence text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    /** Dias desde 1970-01-01 no calendário gregoriano proléptico */
+    private static long daysFromCivil(int year, int month, int day) {
+        long y = (month <= 2) ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * ((month + 9) % 12) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    static UUID parseUuid(CharSequence text, int start, int end) {
+        if (end - start != 36 || text.charAt(start + 8) != '-' || text.charAt(start + 13) != '-'
+                || text.charAt(start + 18) != '-' || text.charAt(start + 23) != '-') {
+            throw invalidUuid(text, start, end);
+        }
+        long mostSignificant = hex(text, start, 8, end) << 32
+                | hex(text, start + 9, 4, end) << 16
+                | hex(text, start + 14, 4, end);
+        long leastSignificant = hex(text, start + 19, 4, end) << 48
+                | hex(text, start + 24, 12, end);
+        return new UUID(mostSignificant, leastSignificant);
+    }
+
+    private static long hex(CharSequence text, int start, int count, int end) {
+        long value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = hexDigit(text.charAt(i));
+            if (digit < 0) {
+                throw invalidUuid(text, start, end);
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    /** Dígito hexadecimal ASCII; -1 para qualquer outro caractere, inclusive dígitos Unicode */
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    private static IllegalArgumentException invalidUuid(CharSequence text, int start, int end) {
+        return new IllegalArgumentException("Cannot deserialize value of type `java.util.UUID` from String \""
+                + text.subSequence(start, Math.min(end, text.length())) + "\"");
+    }
+
+    /**
+     * Cursor de leitura sobre o documento JSON. Guarda em {@code stringStart}/{@code stringEnd}
+     * os limites (sem aspas) da última string ou número lido, evitando criar Strings para nomes de campos.
+     * Só uma string com escape é copiada, já decodificada, para {@code decoded}; os leitores usam
+     * {@link #valueText()}, {@link #valueStart()} e {@link #valueEnd()} para não distinguir os dois casos.
+     */
+    private static final class JsonCursor {
+
+        private final CharSequence json;
+        private int position;
+        private int stringStart;
+        private int stringEnd;
+        /** Última string lida, decodificada; null quando ela não tinha escapes */
+        private String decoded;
+        /** Escala do último valor lido por {@link #readCents} */
+        private int decimalScale = Money.CENTS_SCALE;
+        private boolean firstField = true;
+
+        private JsonCursor(CharSequence json) {
+            this.json = json;
+        }
+
+        void beginObject() {
+            skipWhitespace();
+            expect('{');
+        }
+
+        /**
+         * Avança para o próximo campo do objeto e consome o ':' após o nome.
+         * @return false quando o objeto terminou
+         */
+        boolean nextField() {
+            skipWhitespace();
+            if (peek() == '}') {
+                position++;
+                return false;
+            }
+            if (!firstField) {
+                expect(',');
+                skipWhitespace();
+            }
+            firstField = false;
+            readStringBounds();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            return true;
+        }
+
+        boolean fieldIs(int start, int end, String name) {
+            if (decoded != null) {
+                return decoded.equals(name);
+            }
+            if (end - start != name.length()) {
+                return false;
+            }
+            for (int i = 0; i < name.length(); i++) {
+                if (json.charAt(start + i) != name.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        UUID readUuid() {
+            if (readNull()) {
+                return null;
+            }
+            if (peek() != '"') {
+                throw new IllegalArgumentException("Cannot deserialize value of type `java.util.UUID` from non-String token");
+            }
+            readStringBounds();
+            return parseUuid(valueText(), valueStart(), valueEnd());
+        }
+
+        /**
+         * Lê o valor monetário em centavos (ver {@link Money#parseCents}).
+         * @param nullValue valor devolvido quando o campo é null
+         */
+        long readCents(long nullValue) {
+            if (readNull()) {
+                decimalScale = Money.CENTS_SCALE;
+                return nullValue;
+            }
+            readDecimalBounds();
+            try {
+                long cents = Money.parseCents(valueText(), valueStart(), valueEnd());
+                decimalScale = Money.scaleOf(valueText(), valueStart(), valueEnd());
+                return cents;
+            } catch (NumberFormatException | ArithmeticException e) {
+                throw invalidDecimal(e);
+            }
+        }
+
+        BigDecimal readBigDecimal() {
+            if (readNull()) {
+                return null;
+            }
+            readDecimalBounds();
+            try {
+                return new BigDecimal(valueText().subSequence(valueStart(), valueEnd()).toString());
+            } catch (NumberFormatException e) {
+                throw invalidDecimal(e);
+            }
+        }
+
+        /**
+         * Lê os limites de um número, literal ou entre aspas (como o Jackson aceita para BigDecimal).
+         */
+        private void readDecimalBounds() {
+            if (peek() == '"') {
+                readStringBounds();
+                return;
+            }
+            decoded = null;
+            stringStart = position;
+            while (position < json.length() && isNumberChar(json.charAt(position))) {
+                position++;
+            }
+            stringEnd = position;
+        }
+
+        private IllegalArgumentException invalidDecimal(RuntimeException cause) {
+            return new IllegalArgumentException("Cannot deserialize value of type `java.math.BigDecimal` from \""
+                    + valueText().subSequence(valueStart(), valueEnd()) + "\"", cause);
+        }
+
+        Instant readInstant() {
+            if (readNull()) {
+                return null;
+            }
+            if (peek() == '"') {
+                readStringBounds();
+                try {
+                    return parseInstant(valueText(), valueStart(), valueEnd());
+                } catch (DateTimeException e) {
+                    throw new IllegalArgumentException("Cannot deserialize value of type `java.time.Instant` from String \""
+                            + valueText().subSequence(valueStart(), valueEnd()) + "\"", e);
+                }
+            }
+            // Timestamp numérico (segundos com fração), formato do Jackson com WRITE_DATES_AS_TIMESTAMPS
+            BigDecimal seconds = readBigDecimal();
+            return Instant.ofEpochSecond(seconds.longValue(),
+                    seconds.remainder(BigDecimal.ONE).movePointRight(9).intValue());
+        }
+
+        <E extends Enum<E>> E readEnum(Class<E> type) {
+            if (readNull()) {
+                return null;
+            }
+            readStringBounds();
+            return Enum.valueOf(type, valueText().subSequence(valueStart(), valueEnd()).toString());
+        }
+
+        void skipValue() {
+            char c = peek();
+            if (c == '"') {
+                readStringBounds();
+            } else if (c == '{' || c == '[') {
+                skipContainer();
+            } else {
+                while (position < json.length()) {
+                    char current = json.charAt(position);
+                    if (current == ',' || current == '}' || current == ']' || isWhitespace(current)) {
+                        break;
+                    }
+                    position++;
+                }
+            }
+        }
+
+        private void skipContainer() {
+            int depth = 0;
+            while (position < json.length()) {
+                char c = json.charAt(position);
+                if (c == '"') {
+                    readStringBounds();
+                    continue;
+                }
+                position++;
+                if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                    if (depth == 0) {
+                        return;
+                    }
+                }
+            }
+            throw unexpectedEnd();
+        }
+
+        private boolean readNull() {
+            if (position + 4 <= json.length() && json.charAt(position) == 'n' && json.charAt(position + 1) == 'u'
+                    && json.charAt(position + 2) == 'l' && json.charAt(position + 3) == 'l') {
+                position += 4;
+                return true;
+            }
+            return false;
+        }
+
+        private void readStringBounds() {
+            expect('"');
+            stringStart = position;
+            boolean escaped = false;
+            while (position < json.length()) {
+                char c = json.charAt(position);
+                if (c == '\\') {
+                    escaped = true;
+                    position += 2;
+                } else if (c == '"') {
+                    stringEnd = position++;
+                    decoded = escaped ? unescape(stringStart, stringEnd) : null;
+                    return;
+                } else {
+                    position++;
+                }
+            }
+            throw unexpectedEnd();
+        }
+
+        private String unescape(int start, int end) {
+            StringBuilder out = new StringBuilder(end - start);
+            for (int i = start; i < end; i++) {
+                char c = json.charAt(i);
+                if (c != '\\') {
+                    out.append(c);
+                    continue;
+                }
+                char escape = json.charAt(++i);
+                switch (escape) {
+                    case '"', '\\', '/' -> out.append(escape);
+                    case 'b' -> out.append('\b');
+                    case 'f' -> out.append('\f');
+                    case 'n' -> out.append('\n');
+                    case 'r' -> out.append('\r');
+                    case 't' -> out.append('\t');
+                    case 'u' -> {
+                        int code = 0;
+                        for (int k = 1; k <= 4; k++) {
+                            int digit = (i + k < end) ? hexDigit(json.charAt(i + k)) : -1;
+                            if (digit < 0) {
+                                throw new IllegalArgumentException("Invalid unicode escape at position " + i);
+                            }
+                            code = (code << 4) | digit;
+                        }
+                        out.append((char) code);
+                        i += 4;
+                    }
+                    default -> throw new IllegalArgumentException("Unrecognized character escape '" + escape
+                            + "' at position " + i);
+                }
+            }
+            return out.toString();
+        }
+
+        private CharSequence valueText() {
+            return decoded != null ? decoded : json;
+        }
+
+        private int valueStart() {
+            return decoded != null ? 0 : stringStart;
+        }
+
+        private int valueEnd() {
+            return decoded != null ? decoded.length() : stringEnd;
+        }
+
+        private void skipWhitespace() {
+            while (position < json.length() && isWhitespace(json.charAt(position))) {
+                position++;
+            }
+        }
+
+        private char peek() {
+            if (position >= json.length()) {
+                throw unexpectedEnd();
+            }
+            return json.charAt(position);
+        }
+
+        private void expect(char expected) {
+            if (peek() != expected) {
+                throw new IllegalArgumentException("Unexpected character '" + json.charAt(position)
+                        + "' at position " + position + ", expected '" + expected + "'");
+            }
+            position++;
+        }
+
+        private IllegalArgumentException unexpectedEnd() {
+            return new IllegalArgumentException("Unexpected end of JSON input at position " + position);
+        }
+
+        private static boolean isWhitespace(char c) {
+            return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+        }
+
+        private static boolean isNumberChar(char c) {
+            return (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E';
+        }
+    }
+
+    /**
+     * Visão de um byte[] UTF-8 como CharSequence. Os caracteres estruturais do JSON e os valores
+     * interpretados (UUID, números, datas, enums) são ASCII, então cada byte vira um char sem cópia.
+     */
+    private record AsciiBytes(byte[] bytes) implements CharSequence {
+
+        @Override
+        public int length() {
+            return bytes.length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (bytes[index] & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new String(bytes, start, end - start, java.nio.charset.StandardCharsets.ISO_8859_1);
+        }
+
+        @Override
+        public String toString() {
+            return new String(bytes, java.nio.charset.StandardCharsets.UTF_8);
+        }
+    }
+}
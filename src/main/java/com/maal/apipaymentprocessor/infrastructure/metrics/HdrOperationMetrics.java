@@ -0,0 +1,86 @@
+package com.maal.apipaymentprocessor.infrastructure.metrics;
+
+import com.maal.apipaymentprocessor.domain.port.out.OperationMetrics;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas dos hot paths com HdrHistogram: cada etapa grava num {@link Recorder} (sem locks e sem
+ * alocação por gravação); na leitura o intervalo gravado é somado a um histograma acumulado,
+ * que só é zerado por {@link #reset()} (chamado por /purge-payments).
+ */
+@Component
+public class HdrOperationMetrics implements OperationMetrics {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final Map<Timer, Recorder> recorders = new EnumMap<>(Timer.class);
+    private final Map<Timer, Histogram> accumulated = new EnumMap<>(Timer.class);
+    private final Map<Timer, Histogram> intervals = new EnumMap<>(Timer.class);
+    private final Map<Counter, LongAdder> counters = new EnumMap<>(Counter.class);
+
+    public HdrOperationMetrics() {
+        for (Timer timer : Timer.values()) {
+            recorders.put(timer, new Recorder(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS));
+            accumulated.put(timer, new Histogram(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS));
+        }
+        for (Counter counter : Counter.values()) {
+            counters.put(counter, new LongAdder());
+        }
+    }
+
+    @Override
+    public void recordNanos(Timer timer, long nanos) {
+        recorders.get(timer).recordValue(Math.min(Math.max(nanos, 0), HIGHEST_TRACKABLE_NANOS));
+    }
+
+    @Override
+    public void increment(Counter counter, long delta) {
+        counters.get(counter).add(delta);
+    }
+
+    @Override
+    public synchronized String snapshot() {
+        StringBuilder out = new StringBuilder(1024);
+        for (Timer timer : Timer.values()) {
+            // Reaproveita o histograma do intervalo anterior para não alocar a cada leitura
+            Histogram interval = recorders.get(timer).getIntervalHistogram(intervals.get(timer));
+            intervals.put(timer, interval);
+            Histogram histogram = accumulated.get(timer);
+            histogram.add(interval);
+
+            String name = timer.name().toLowerCase(Locale.ROOT);
+            out.append(name).append("_count ").append(histogram.getTotalCount()).append('\n');
+            appendMicros(out, name, "p50", histogram.getValueAtPercentile(50));
+            appendMicros(out, name, "p99", histogram.getValueAtPercentile(99));
+            appendMicros(out, name, "p999", histogram.getValueAtPercentile(99.9));
+            appendMicros(out, name, "max", histogram.getMaxValue());
+        }
+        for (Counter counter : Counter.values()) {
+            out.append(counter.name().toLowerCase(Locale.ROOT)).append("_total ").append(counters.get(counter).sum()).append('\n');
+        }
+        return out.toString();
+    }
+
+    @Override
+    public synchronized void reset() {
+        for (Timer timer : Timer.values()) {
+            recorders.get(timer).reset();
+            accumulated.get(timer).reset();
+        }
+        counters.values().forEach(LongAdder::reset);
+    }
+
+    private static void appendMicros(StringBuilder out, String name, String statistic, long nanos) {
+        out.append(name).append('_').append(statistic).append("_micros ")
+                .append(TimeUnit.NANOSECONDS.toMicros(nanos)).append('\n');
+    }
+}
@@ -0,0 +1,30 @@
+-- Move as n primeiras entradas de uma lista de histórico para as rollups, atomicamente.
+-- KEYS[1] = lease da líder da compactação
+-- KEYS[2] = lista de histórico
+-- KEYS[3] = sorted set com os segundos que possuem rollup
+-- KEYS[4] = versão das rollups
+-- ARGV[1] = token da instância líder
+-- ARGV[2] = n, quantidade de entradas compactadas
+-- ARGV[3] = primeira entrada lida (conferida antes de aparar a lista)
+-- ARGV[4] = n-ésima entrada lida
+-- ARGV[5] = prefixo das chaves dos buckets por segundo
+-- ARGV[6..] = quádruplas (segundo, milissegundo ou '' para o total do segundo, quantidade, centavos)
+-- Retorno: nova versão das rollups; -1 se a instância perdeu a liderança, -2 se a lista mudou
+
+if redis.call('GET', KEYS[1]) ~= ARGV[1] then
+    return -1
+end
+local n = tonumber(ARGV[2])
+if redis.call('LINDEX', KEYS[2], 0) ~= ARGV[3] or redis.call('LINDEX', KEYS[2], n - 1) ~= ARGV[4] then
+    return -2
+end
+for i = 6, #ARGV, 4 do
+    local bucket = ARGV[5] .. ARGV[i]
+    redis.call('HINCRBY', bucket, 'c' .. ARGV[i + 1], ARGV[i + 2])
+    redis.call('HINCRBY', bucket, 'a' .. ARGV[i + 1], ARGV[i + 3])
+    if ARGV[i + 1] == '' then
+        redis.call('ZADD', KEYS[3], ARGV[i], ARGV[i])
+    end
+end
+redis.call('LTRIM', KEYS[2], n, -1)
+return redis.call('INCR', KEYS[4])
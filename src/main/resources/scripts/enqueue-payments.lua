@@ -0,0 +1,22 @@
+-- Enfileiramento com deduplicação por correlationId, numa única ida ao Redis.
+-- KEYS[1] = fila principal de pagamentos
+-- KEYS[2] = set com os correlationIds aceitos na geração atual (UUID em 16 bytes)
+-- KEYS[3] = set da geração anterior, só consultado
+-- ARGV[1] = expiração do set da geração atual em milissegundos
+-- ARGV[2..] = pares (correlationId, payload), um por pagamento
+-- Retorno: quantidade de pagamentos descartados por correlationId repetido
+
+local duplicates = 0
+local accepted = false
+for i = 2, #ARGV, 2 do
+    if redis.call('SISMEMBER', KEYS[3], ARGV[i]) == 0 and redis.call('SADD', KEYS[2], ARGV[i]) == 1 then
+        redis.call('RPUSH', KEYS[1], ARGV[i + 1])
+        accepted = true
+    else
+        duplicates = duplicates + 1
+    end
+end
+if accepted then
+    redis.call('PEXPIRE', KEYS[2], ARGV[1])
+end
+return duplicates
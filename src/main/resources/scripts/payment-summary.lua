@@ -0,0 +1,113 @@
+-- Resumo de pagamentos calculado no próprio Redis.
+-- KEYS[1..N]    = listas de histórico do processador default (uma por partição da fila)
+-- KEYS[N+1..2N] = listas de histórico do processador fallback
+-- ARGV[1] = início da janela (epoch millis, inclusivo)
+-- ARGV[2] = fim da janela (epoch millis, exclusivo)
+-- ARGV[3] = N, quantidade de partições (opcional, padrão 1)
+-- Retorno: { quantidade default, centavos default, quantidade fallback, centavos fallback }
+-- As listas podem conter JSON e o formato binário v1 (PaymentBinaryCodec): byte 0x01,
+-- UUID (16 bytes), centavos (int64) e requestedAt em epoch millis (int64), big-endian.
+-- Amounts JSON são convertidos em centavos pelos dígitos do texto, sem ponto flutuante. Um amount
+-- fora do formato "-?123.45" (expoente, fração de centavo, mais de 13 dígitos inteiros) encerra o
+-- script com erro e o leitor refaz a consulta em Java, com as regras exatas de Money.
+
+local from = tonumber(ARGV[1])
+local to = tonumber(ARGV[2])
+local shards = tonumber(ARGV[3] or '1')
+
+-- Converte "AAAA-MM-DDTHH:MM:SS[.fração]Z" (formato ISO_INSTANT do Jackson) em epoch millis
+local function iso_to_millis(ts)
+    local y, mo, d, h, mi, s, frac = string.match(ts, '^(%d+)-(%d+)-(%d+)T(%d+):(%d+):(%d+)%.?(%d*)Z$')
+    if not y then
+        return nil
+    end
+    y = tonumber(y)
+    mo = tonumber(mo)
+    if mo <= 2 then
+        y = y - 1
+    end
+    -- days_from_civil (calendário gregoriano proléptico)
+    local era = math.floor(y / 400)
+    local yoe = y - era * 400
+    local doy = math.floor((153 * ((mo + 9) % 12) + 2) / 5) + tonumber(d) - 1
+    local doe = yoe * 365 + math.floor(yoe / 4) - math.floor(yoe / 100) + doy
+    local days = era * 146097 + doe - 719468
+    local millis = 0
+    if frac ~= '' then
+        millis = tonumber(string.sub(frac .. '00', 1, 3))
+    end
+    return ((days * 24 + tonumber(h)) * 60 + tonumber(mi)) * 60000 + tonumber(s) * 1000 + millis
+end
+
+local function requested_at_millis(entry)
+    local iso = string.match(entry, '"requestedAt"%s*:%s*"([^"]+)"')
+    if iso then
+        return iso_to_millis(iso)
+    end
+    -- Timestamps numéricos do Jackson (segundos com fração)
+    local seconds = string.match(entry, '"requestedAt"%s*:%s*([%d%.]+)')
+    if seconds then
+        return math.floor(tonumber(seconds) * 1000)
+    end
+    return nil
+end
+
+-- Centavos exatos do amount de uma entrada JSON, ou nil se a entrada não tiver amount
+local function amount_cents(entry)
+    local amount = string.match(entry, '"amount"%s*:%s*"?([%d%.%-eE+]+)')
+    if not amount then
+        return nil
+    end
+    local sign, integer, fraction = string.match(amount, '^(%-?)(%d+)%.?(%d*)$')
+    if not integer or #integer > 13 or (#fraction > 2 and not string.match(fraction, '^%d%d0+$')) then
+        error('amount fora do formato exato: ' .. amount)
+    end
+    local cents = tonumber(integer) * 100 + tonumber(string.sub(fraction .. '00', 1, 2))
+    if sign == '-' then
+        return -cents
+    end
+    return cents
+end
+
+local function summarize(key)
+    local count = 0
+    local cents = 0
+    local entries = redis.call('LRANGE', key, 0, -1)
+    for i = 1, #entries do
+        local entry = entries[i]
+        if string.byte(entry, 1) == 1 then
+            if #entry >= 35 then
+                local entryCents, millis = struct.unpack('>i8i8', entry, 18)
+                if millis >= from and millis < to then
+                    count = count + 1
+                    cents = cents + entryCents
+                end
+            end
+        else
+            local millis = requested_at_millis(entry)
+            if millis and millis >= from and millis < to then
+                local entryCents = amount_cents(entry)
+                if entryCents then
+                    count = count + 1
+                    cents = cents + entryCents
+                end
+            end
+        end
+    end
+    return count, cents
+end
+
+local function summarize_shards(first)
+    local count = 0
+    local cents = 0
+    for i = first, first + shards - 1 do
+        local shardCount, shardCents = summarize(KEYS[i])
+        count = count + shardCount
+        cents = cents + shardCents
+    end
+    return count, cents
+end
+
+local defaultCount, defaultCents = summarize_shards(1)
+local fallbackCount, fallbackCents = summarize_shards(shards + 1)
+return { defaultCount, defaultCents, fallbackCount, fallbackCents }
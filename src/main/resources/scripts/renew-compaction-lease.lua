@@ -0,0 +1,11 @@
+-- Renova o lease da compactação do histórico só se ele ainda pertencer a esta instância.
+-- KEYS[1] = lease da compactação
+-- ARGV[1] = token da instância
+-- ARGV[2] = validade do lease em milissegundos
+-- Retorno: 1 se o lease era desta instância e foi renovado
+
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    redis.call('PEXPIRE', KEYS[1], ARGV[2])
+    return 1
+end
+return 0
@@ -0,0 +1,16 @@
+-- Encerra um cálculo de resumo coordenado entre instâncias, numa única ida ao Redis.
+-- KEYS[1] = lease da janela
+-- KEYS[2] = chave do resultado do cálculo
+-- ARGV[1] = token do cálculo
+-- ARGV[2] = resultado codificado ('' = cálculo abandonado, nada a publicar)
+-- ARGV[3] = validade do resultado em milissegundos
+-- Retorno: 1 se o lease ainda era deste cálculo e foi liberado
+
+if ARGV[2] ~= '' then
+    redis.call('SET', KEYS[2], ARGV[2], 'PX', ARGV[3])
+end
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    redis.call('DEL', KEYS[1])
+    return 1
+end
+return 0
@@ -0,0 +1,179 @@
+package com.maal.apipaymentprocessor.adapter.out.redis;
+
+import com.maal.apipaymentprocessor.domain.exception.PaymentProcessingException;
+import com.maal.apipaymentprocessor.domain.model.Payment;
+import com.maal.apipaymentprocessor.infrastructure.metrics.HdrOperationMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Buffer do publicador em lote com um Redis simulado: esvaziamento no desligamento e as
+ * políticas de buffer cheio. O flush pode ser segurado para encher o buffer de forma determinística.
+ */
+class BatchingRedisPaymentQueuePublisherTest {
+
+    private final List<UUID> written = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> writtenBy = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch flushEntered = new CountDownLatch(1);
+    private final CountDownLatch releaseFlush = new CountDownLatch(1);
+    private volatile boolean holdFlush;
+
+    private RedisListPaymentQueueWriter queueWriter;
+    private RedisPaymentSpillover spillover;
+    private RedisPaymentDeduplicator deduplicator;
+    private BatchingRedisPaymentQueuePublisher publisher;
+
+    @BeforeEach
+    void simulateRedis() {
+        queueWriter = mock(RedisListPaymentQueueWriter.class);
+        spillover = mock(RedisPaymentSpillover.class);
+        deduplicator = mock(RedisPaymentDeduplicator.class);
+        doAnswer(invocation -> {
+            List<QueuedPayment> batch = invocation.getArgument(0);
+            if (holdFlush) {
+                flushEntered.countDown();
+                releaseFlush.await();
+            }
+            batch.forEach(queuedPayment -> {
+                written.add(queuedPayment.correlationId());
+                writtenBy.add(Thread.currentThread().getName());
+            });
+            return null;
+        }).when(queueWriter).writeBatch(anyList());
+        doAnswer(invocation -> {
+            written.add(invocation.getArgument(0));
+            writtenBy.add(Thread.currentThread().getName());
+            return null;
+        }).when(queueWriter).writeOne(any(UUID.class), any(byte[].class));
+    }
+
+    @AfterEach
+    void stopPublisher() {
+        releaseFlush.countDown();
+        if (publisher != null && publisher.isRunning()) {
+            publisher.stop();
+        }
+    }
+
+    @Test
+    void shutdownDrainsEveryBufferedPayment() {
+        publisher = start(8192, 64, TimeUnit.SECONDS.toMicros(10), "CALLER_RUNS", 50);
+        List<UUID> published = publish(500);
+
+        publisher.stop();
+
+        assertThat(written).containsExactlyInAnyOrderElementsOf(published);
+        assertThat(writtenBy).containsOnly("payment-batch-flusher");
+        assertThat(publisher.getLostPayments()).isZero();
+    }
+
+    @Test
+    void publishAfterShutdownGoesStraightToRedis() {
+        publisher = start(8192, 64, 500, "REJECT", 50);
+        publisher.stop();
+
+        UUID late = publish(1).get(0);
+
+        assertThat(written).containsExactly(late);
+        assertThat(writtenBy).containsExactly(Thread.currentThread().getName());
+    }
+
+    @Test
+    void rejectPolicyFailsWhenBufferIsFull() throws InterruptedException {
+        publisher = start(2, 1, 500, "REJECT", 50);
+        List<UUID> accepted = fillBuffer();
+
+        assertThatThrownBy(() -> publish(1)).isInstanceOf(PaymentProcessingException.class);
+
+        releaseFlush.countDown();
+        publisher.stop();
+        assertThat(written).containsExactlyInAnyOrderElementsOf(accepted);
+    }
+
+    @Test
+    void callerRunsPolicyWritesOnRequestThreadWhenBufferIsFull() throws InterruptedException {
+        publisher = start(2, 1, 500, "CALLER_RUNS", 50);
+        List<UUID> accepted = fillBuffer();
+
+        UUID overflow = publish(1).get(0);
+
+        assertThat(written).containsExactly(overflow);
+        assertThat(writtenBy).containsExactly(Thread.currentThread().getName());
+        releaseFlush.countDown();
+        publisher.stop();
+        accepted.add(overflow);
+        assertThat(written).containsExactlyInAnyOrderElementsOf(accepted);
+    }
+
+    @Test
+    void blockPolicyWaitsForFreeSlot() throws Exception {
+        publisher = start(2, 1, 500, "BLOCK", 5_000);
+        List<UUID> accepted = fillBuffer();
+
+        CompletableFuture<List<UUID>> blocked = CompletableFuture.supplyAsync(() -> publish(1));
+        Thread.sleep(50);
+        assertThat(blocked).isNotDone();
+
+        releaseFlush.countDown();
+        accepted.addAll(blocked.get(5, TimeUnit.SECONDS));
+        publisher.stop();
+        assertThat(written).containsExactlyInAnyOrderElementsOf(accepted);
+        assertThat(writtenBy).containsOnly("payment-batch-flusher");
+    }
+
+    @Test
+    void blockPolicyFailsAfterTimeout() throws InterruptedException {
+        publisher = start(2, 1, 500, "BLOCK", 20);
+        fillBuffer();
+
+        assertThatThrownBy(() -> publish(1)).isInstanceOf(PaymentProcessingException.class);
+    }
+
+    /**
+     * Segura o flusher dentro da escrita do primeiro pagamento e ocupa as duas vagas do buffer.
+     * @return os três pagamentos aceitos
+     */
+    private List<UUID> fillBuffer() throws InterruptedException {
+        holdFlush = true;
+        List<UUID> accepted = new ArrayList<>(publish(1));
+        assertThat(flushEntered.await(5, TimeUnit.SECONDS)).isTrue();
+        accepted.addAll(publish(2));
+        return accepted;
+    }
+
+    private BatchingRedisPaymentQueuePublisher start(int capacity, int maxBatchSize, long maxDelayMicros,
+                                                     String overflowPolicy, long blockTimeoutMillis) {
+        BatchingRedisPaymentQueuePublisher started = new BatchingRedisPaymentQueuePublisher("json", capacity,
+                maxBatchSize, maxDelayMicros, overflowPolicy, blockTimeoutMillis, new HdrOperationMetrics(),
+                deduplicator, queueWriter, spillover);
+        started.start();
+        return started;
+    }
+
+    private List<UUID> publish(int count) {
+        List<UUID> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            UUID correlationId = UUID.randomUUID();
+            publisher.publish(new Payment(correlationId, 1990, Instant.now()));
+            ids.add(correlationId);
+        }
+        return ids;
+    }
+}
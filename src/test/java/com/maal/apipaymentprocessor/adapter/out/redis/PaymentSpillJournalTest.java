@@ -0,0 +1,235 @@
+package com.maal.apipaymentprocessor.adapter.out.redis;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Recuperação do journal a partir do arquivo: registros com CRC inválido ou interrompidos no meio,
+ * volta ao início depois de drenado e reabertura com a cauda incompleta.
+ */
+class PaymentSpillJournalTest {
+
+    private static final int CAPACITY = 64 * 1024;
+    private static final int HEADER_SIZE = 64;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int ID_SIZE = 16;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopenRecoversEveryPendingRecordInOrder() throws IOException {
+        List<QueuedPayment> appended = new ArrayList<>();
+        try (PaymentSpillJournal journal = open()) {
+            appended.addAll(append(journal, 3));
+        }
+
+        try (PaymentSpillJournal journal = open()) {
+            assertThat(journal.pendingRecords()).isEqualTo(3);
+            assertSameRecords(journal.read(10).payments(), appended);
+        }
+    }
+
+    @Test
+    void recordWithInvalidCrcEndsRecovery() throws IOException {
+        List<QueuedPayment> appended;
+        try (PaymentSpillJournal journal = open()) {
+            appended = append(journal, 3);
+        }
+        // Um byte trocado no payload do terceiro registro
+        int third = recordOffset(appended, 2);
+        writeFile(third + RECORD_HEADER_SIZE + ID_SIZE, new byte[]{'#'});
+
+        try (PaymentSpillJournal journal = open()) {
+            assertThat(journal.pendingRecords()).isEqualTo(2);
+            assertSameRecords(journal.read(10).payments(), appended.subList(0, 2));
+        }
+    }
+
+    @Test
+    void tornRecordIsDiscardedAndItsSpaceReused() throws IOException {
+        List<QueuedPayment> appended;
+        try (PaymentSpillJournal journal = open()) {
+            appended = append(journal, 2);
+        }
+        // Queda antes de gravar o tamanho: corpo e CRC no arquivo, tamanho ainda zero
+        int tail = recordOffset(appended, 2);
+        byte[] body = body(UUID.randomUUID(), payload(99));
+        writeFile(tail + Integer.BYTES, ByteBuffer.allocate(Integer.BYTES + body.length)
+                .putInt(crc(body)).put(body).array());
+
+        try (PaymentSpillJournal journal = open()) {
+            assertThat(journal.pendingRecords()).isEqualTo(2);
+            appended.addAll(append(journal, 1));
+        }
+
+        try (PaymentSpillJournal journal = open()) {
+            assertThat(journal.pendingRecords()).isEqualTo(3);
+            assertSameRecords(journal.read(10).payments(), appended);
+        }
+    }
+
+    @Test
+    void reopenWithTruncatedTailKeepsCompleteRecords() throws IOException {
+        List<QueuedPayment> appended;
+        try (PaymentSpillJournal journal = open()) {
+            appended = append(journal, 3);
+        }
+        // Arquivo cortado no meio do terceiro registro (ex.: cópia interrompida)
+        try (FileChannel channel = FileChannel.open(journalPath(), StandardOpenOption.WRITE)) {
+            channel.truncate(recordOffset(appended, 2) + RECORD_HEADER_SIZE + ID_SIZE + 3);
+        }
+
+        try (PaymentSpillJournal journal = open()) {
+            assertThat(journal.pendingRecords()).isEqualTo(2);
+            assertSameRecords(journal.read(10).payments(), appended.subList(0, 2));
+            appended = new ArrayList<>(appended.subList(0, 2));
+            appended.addAll(append(journal, 1));
+        }
+
+        try (PaymentSpillJournal journal = open()) {
+            assertSameRecords(journal.read(10).payments(), appended);
+        }
+    }
+
+    @Test
+    void partialCommitSurvivesReopen() throws IOException {
+        List<QueuedPayment> appended;
+        try (PaymentSpillJournal journal = open()) {
+            appended = append(journal, 3);
+            journal.commit(journal.read(2));
+            assertThat(journal.pendingRecords()).isEqualTo(1);
+        }
+
+        try (PaymentSpillJournal journal = open()) {
+            assertThat(journal.pendingRecords()).isEqualTo(1);
+            assertSameRecords(journal.read(10).payments(), appended.subList(2, 3));
+        }
+    }
+
+    @Test
+    void drainedJournalStartsOverFromTheHeader() throws IOException {
+        try (PaymentSpillJournal journal = open()) {
+            append(journal, 3);
+            journal.commit(journal.read(10));
+            assertThat(journal.pendingRecords()).isZero();
+            assertThat(journal.read(10).isEmpty()).isTrue();
+
+            List<QueuedPayment> next = append(journal, 1);
+            assertSameRecords(journal.read(10).payments(), next);
+        }
+
+        ByteBuffer file = readFile();
+        assertThat(file.getLong(8)).isEqualTo(HEADER_SIZE);
+        assertThat(file.getInt(HEADER_SIZE)).isEqualTo(ID_SIZE + payload(0).length);
+        try (PaymentSpillJournal journal = open()) {
+            assertThat(journal.pendingRecords()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void drainedJournalReopensEmpty() throws IOException {
+        try (PaymentSpillJournal journal = open()) {
+            append(journal, 3);
+            journal.commit(journal.read(10));
+        }
+
+        try (PaymentSpillJournal journal = open()) {
+            assertThat(journal.pendingRecords()).isZero();
+            assertThat(journal.read(10).isEmpty()).isTrue();
+        }
+    }
+
+    @Test
+    void appendFailsWhenJournalIsFull() throws IOException {
+        int recordSize = RECORD_HEADER_SIZE + ID_SIZE + payload(0).length;
+        int capacity = HEADER_SIZE + 2 * recordSize + Integer.BYTES;
+        try (PaymentSpillJournal journal = PaymentSpillJournal.open(journalPath(), capacity)) {
+            assertThat(journal.append(UUID.randomUUID(), payload(0))).isTrue();
+            assertThat(journal.append(UUID.randomUUID(), payload(1))).isTrue();
+            assertThat(journal.append(UUID.randomUUID(), payload(2))).isFalse();
+            assertThat(journal.pendingRecords()).isEqualTo(2);
+        }
+    }
+
+    private PaymentSpillJournal open() throws IOException {
+        return PaymentSpillJournal.open(journalPath(), CAPACITY);
+    }
+
+    private Path journalPath() {
+        return directory.resolve("payment-spill.journal");
+    }
+
+    private static List<QueuedPayment> append(PaymentSpillJournal journal, int count) {
+        List<QueuedPayment> appended = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            QueuedPayment payment = new QueuedPayment(UUID.randomUUID(), payload(i));
+            assertThat(journal.append(payment.correlationId(), payment.payload())).isTrue();
+            appended.add(payment);
+        }
+        return appended;
+    }
+
+    /** Payloads de tamanhos diferentes, para que um offset errado não passe despercebido */
+    private static byte[] payload(int index) {
+        return ("{\"amount\":" + (index + 1) + "9.90}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int recordOffset(List<QueuedPayment> records, int index) {
+        int offset = HEADER_SIZE;
+        for (int i = 0; i < index; i++) {
+            offset += RECORD_HEADER_SIZE + ID_SIZE + records.get(i).payload().length;
+        }
+        return offset;
+    }
+
+    private static byte[] body(UUID correlationId, byte[] payload) {
+        return ByteBuffer.allocate(ID_SIZE + payload.length)
+                .putLong(correlationId.getMostSignificantBits())
+                .putLong(correlationId.getLeastSignificantBits())
+                .put(payload)
+                .array();
+    }
+
+    private static int crc(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    private void writeFile(long position, byte[] bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(journalPath(), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes), position);
+        }
+    }
+
+    private ByteBuffer readFile() throws IOException {
+        try (FileChannel channel = FileChannel.open(journalPath(), StandardOpenOption.READ)) {
+            ByteBuffer file = ByteBuffer.allocate((int) channel.size());
+            channel.read(file, 0);
+            return file.flip();
+        }
+    }
+
+    private static void assertSameRecords(List<QueuedPayment> actual, List<QueuedPayment> expected) {
+        assertThat(actual).hasSize(expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(actual.get(i).correlationId()).isEqualTo(expected.get(i).correlationId());
+            assertThat(new String(actual.get(i).payload(), StandardCharsets.UTF_8))
+                    .isEqualTo(new String(expected.get(i).payload(), StandardCharsets.UTF_8));
+        }
+    }
+}
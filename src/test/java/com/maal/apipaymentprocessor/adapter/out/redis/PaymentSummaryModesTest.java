@@ -0,0 +1,192 @@
+package com.maal.apipaymentprocessor.adapter.out.redis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maal.apipaymentprocessor.domain.model.Money;
+import com.maal.apipaymentprocessor.domain.model.Payment;
+import com.maal.apipaymentprocessor.domain.model.PaymentProcessorType;
+import com.maal.apipaymentprocessor.domain.model.PaymentStatus;
+import com.maal.apipaymentprocessor.domain.model.PaymentTotals;
+import com.maal.apipaymentprocessor.domain.model.SummaryWindow;
+import com.maal.apipaymentprocessor.domain.port.out.PaymentHistoryReader;
+import com.maal.apipaymentprocessor.infrastructure.codec.PaymentBinaryCodec;
+import com.maal.apipaymentprocessor.infrastructure.config.redis.RedisConfig;
+import com.maal.apipaymentprocessor.infrastructure.metrics.HdrOperationMetrics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Todos os modos de resumo devem chegar aos mesmos totais que a soma em BigDecimal do histórico
+ * (a implementação anterior aos centavos), sobre o mesmo histórico com entradas JSON e binárias.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class PaymentSummaryModesTest {
+
+    private static final Instant BASE = Instant.parse("2025-07-15T12:00:00Z");
+    private static final int PAYMENTS = 2_000;
+
+    @Container
+    private static final GenericContainer<?> REDIS =
+            new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+
+    private static final RedisConfig REDIS_CONFIG = new RedisConfig();
+    private static final ObjectMapper OBJECT_MAPPER = REDIS_CONFIG.objectMapper();
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static RedisTemplate<String, String> redisTemplate;
+    private static RedisTemplate<String, byte[]> binaryRedisTemplate;
+    private static PaymentQueueShards queueShards;
+    private static List<HistoryEntry> history;
+
+    /** Pagamento do histórico com o amount exatamente como o async-worker o gravou */
+    private record HistoryEntry(PaymentProcessorType processorType, BigDecimal amount, Instant requestedAt) {
+    }
+
+    enum Mode {
+        SCAN {
+            @Override
+            PaymentHistoryReader reader() {
+                return new RedisPaymentHistoryScanReader(binaryRedisTemplate, OBJECT_MAPPER, 256, 97, false,
+                        new HdrOperationMetrics(), queueShards, false);
+            }
+        },
+        AGGREGATE {
+            @Override
+            PaymentHistoryReader reader() {
+                return new RedisPaymentAggregateStore(redisTemplate, OBJECT_MAPPER, 97, queueShards);
+            }
+        },
+        ZSET {
+            @Override
+            PaymentHistoryReader reader() {
+                return new RedisPaymentTimeIndexReader(redisTemplate, OBJECT_MAPPER, 97, queueShards);
+            }
+        },
+        LUA {
+            @Override
+            PaymentHistoryReader reader() {
+                return new RedisLuaPaymentSummaryReader(redisTemplate, binaryRedisTemplate, OBJECT_MAPPER,
+                        REDIS_CONFIG.paymentSummaryScript(), new HdrOperationMetrics(), queueShards);
+            }
+        };
+
+        abstract PaymentHistoryReader reader();
+    }
+
+    @BeforeAll
+    static void writeHistory() {
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(REDIS.getHost(), REDIS.getMappedPort(6379)));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = REDIS_CONFIG.redisTemplate(connectionFactory);
+        binaryRedisTemplate = REDIS_CONFIG.binaryRedisTemplate(connectionFactory);
+        queueShards = new PaymentQueueShards(redisTemplate, "rinha-payments-main-queue", 1, "hash");
+
+        Random random = new Random(20250715);
+        history = new ArrayList<>(PAYMENTS);
+        for (int i = 0; i < PAYMENTS; i++) {
+            PaymentProcessorType processorType = random.nextInt(4) == 0
+                    ? PaymentProcessorType.FALLBACK : PaymentProcessorType.DEFAULT;
+            // Escalas 0, 1 e 2, como chegam em POST /payments ("20", "19.9", "19.90")
+            BigDecimal amount = BigDecimal.valueOf(random.nextLong(1, 10_000_000), random.nextInt(3));
+            Instant requestedAt = BASE.plusMillis(random.nextInt(60_000));
+            HistoryEntry entry = new HistoryEntry(processorType, amount, requestedAt);
+            history.add(entry);
+            binaryRedisTemplate.opsForList().rightPush(PaymentHistoryKeys.historyList(processorType),
+                    (i % 3 == 0) ? binaryEntry(entry) : jsonEntry(entry));
+        }
+    }
+
+    @AfterAll
+    static void closeConnection() {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(Mode.class)
+    void wholeHistoryMatchesBigDecimalSum(Mode mode) {
+        assertMatchesBigDecimalSum(mode.reader(),
+                new SummaryWindow(BASE.toEpochMilli() - 1_000, BASE.toEpochMilli() + 61_000));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Mode.class)
+    void partialWindowMatchesBigDecimalSum(Mode mode) {
+        assertMatchesBigDecimalSum(mode.reader(),
+                new SummaryWindow(BASE.toEpochMilli() + 12_345, BASE.toEpochMilli() + 47_891));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Mode.class)
+    void windowBoundedByPaymentTimestampsMatchesBigDecimalSum(Mode mode) {
+        // [from, to) com os limites caindo exatamente em pagamentos do histórico
+        long first = history.get(10).requestedAt().toEpochMilli();
+        long second = history.get(20).requestedAt().toEpochMilli();
+        assertMatchesBigDecimalSum(mode.reader(), new SummaryWindow(Math.min(first, second), Math.max(first, second)));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Mode.class)
+    void windowBeforeHistoryIsEmpty(Mode mode) {
+        Map<PaymentProcessorType, PaymentTotals> totals = mode.reader()
+                .summarizeAll(new SummaryWindow(BASE.toEpochMilli() - 60_000, BASE.toEpochMilli()));
+
+        assertThat(totals.values()).allSatisfy(processorTotals -> assertThat(processorTotals).isEqualTo(PaymentTotals.EMPTY));
+    }
+
+    private static void assertMatchesBigDecimalSum(PaymentHistoryReader reader, SummaryWindow window) {
+        Map<PaymentProcessorType, PaymentTotals> totals = reader.summarizeAll(window);
+
+        for (PaymentProcessorType processorType : PaymentProcessorType.values()) {
+            List<HistoryEntry> inWindow = history.stream()
+                    .filter(entry -> entry.processorType() == processorType)
+                    .filter(entry -> window.contains(entry.requestedAt().toEpochMilli()))
+                    .toList();
+            BigDecimal expectedAmount = inWindow.stream()
+                    .map(HistoryEntry::amount)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+            PaymentTotals processorTotals = totals.get(processorType);
+            assertThat(processorTotals.totalRequests()).as("%s totalRequests", processorType).isEqualTo(inWindow.size());
+            assertThat(Money.toBigDecimal(processorTotals.totalCents())).as("%s totalAmount", processorType)
+                    .isEqualByComparingTo(expectedAmount);
+        }
+    }
+
+    /** JSON no formato do Jackson para Payment, com o amount na escala em que foi recebido */
+    private static byte[] jsonEntry(HistoryEntry entry) {
+        String json = "{\"correlationId\":\"" + UUID.randomUUID()
+                + "\",\"amount\":" + entry.amount().toPlainString()
+                + ",\"requestedAt\":\"" + entry.requestedAt()
+                + "\",\"paymentProcessorType\":\"" + entry.processorType()
+                + "\",\"status\":\"" + PaymentStatus.SUCCESS + "\"}";
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] binaryEntry(HistoryEntry entry) {
+        return PaymentBinaryCodec.encode(new Payment(UUID.randomUUID(), Money.toCents(entry.amount()),
+                entry.requestedAt(), entry.processorType(), PaymentStatus.SUCCESS));
+    }
+}
@@ -0,0 +1,173 @@
+package com.maal.apipaymentprocessor.adapter.out.redis;
+
+import com.maal.apipaymentprocessor.domain.model.Payment;
+import com.maal.apipaymentprocessor.infrastructure.metrics.HdrOperationMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Anel do publicador com um Redis simulado: várias voltas com produtores concorrentes e o
+ * esvaziamento no desligamento enquanto ainda há produtores publicando.
+ */
+class RingBufferPaymentQueuePublisherTest {
+
+    private static final int PRODUCERS = 8;
+
+    private final List<UUID> written = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> writtenBy = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> mismatched = Collections.synchronizedList(new ArrayList<>());
+
+    private RedisListPaymentQueueWriter queueWriter;
+    private RedisPaymentSpillover spillover;
+    private RedisPaymentDeduplicator deduplicator;
+    private RingBufferPaymentQueuePublisher publisher;
+
+    @BeforeEach
+    void simulateRedis() {
+        queueWriter = mock(RedisListPaymentQueueWriter.class);
+        spillover = mock(RedisPaymentSpillover.class);
+        deduplicator = mock(RedisPaymentDeduplicator.class);
+        doAnswer(invocation -> {
+            List<QueuedPayment> batch = invocation.getArgument(0);
+            batch.forEach(queuedPayment -> record(queuedPayment.correlationId(), queuedPayment.payload()));
+            return null;
+        }).when(queueWriter).writeBatch(anyList());
+        doAnswer(invocation -> {
+            record(invocation.getArgument(0), invocation.getArgument(1));
+            return null;
+        }).when(queueWriter).writeOne(any(UUID.class), any(byte[].class));
+    }
+
+    @AfterEach
+    void stopPublisher() {
+        if (publisher != null && publisher.isRunning()) {
+            publisher.stop();
+        }
+    }
+
+    @Test
+    void concurrentProducersWrapAroundWithoutLosingOrMixingSlots() throws Exception {
+        // 8 slots e 4000 pagamentos: cada slot é reaproveitado centenas de vezes
+        publisher = start(8, 4, TimeUnit.SECONDS.toMicros(10));
+
+        List<UUID> published = publishConcurrently(500);
+        publisher.stop();
+
+        assertThat(written).containsExactlyInAnyOrderElementsOf(published);
+        assertThat(writtenBy).containsOnly("payment-ring-drainer");
+        assertThat(mismatched).isEmpty();
+        assertThat(publisher.getLostPayments()).isZero();
+    }
+
+    @Test
+    void shutdownDrainsProducersThatAreStillPublishing() throws Exception {
+        publisher = start(8, 4, TimeUnit.SECONDS.toMicros(10));
+        AtomicBoolean producing = new AtomicBoolean(true);
+        CountDownLatch started = new CountDownLatch(PRODUCERS);
+        List<CompletableFuture<List<UUID>>> producers = new ArrayList<>(PRODUCERS);
+        for (int i = 0; i < PRODUCERS; i++) {
+            producers.add(CompletableFuture.supplyAsync(() -> {
+                List<UUID> ids = new ArrayList<>(publish(1));
+                started.countDown();
+                while (producing.get()) {
+                    ids.addAll(publish(1));
+                }
+                return ids;
+            }, Thread::startVirtualThread));
+        }
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        publisher.stop();
+        // Depois da parada os produtores continuam, agora escrevendo direto no Redis
+        List<UUID> afterStop = publish(10);
+        producing.set(false);
+
+        List<UUID> published = new ArrayList<>(afterStop);
+        for (CompletableFuture<List<UUID>> producer : producers) {
+            published.addAll(producer.get(5, TimeUnit.SECONDS));
+        }
+        assertThat(written).containsExactlyInAnyOrderElementsOf(published);
+        assertThat(mismatched).isEmpty();
+        assertThat(publisher.getLostPayments()).isZero();
+    }
+
+    @Test
+    void publishAfterShutdownGoesStraightToRedis() {
+        publisher = start(8, 4, 500);
+        publisher.stop();
+
+        UUID late = publish(1).get(0);
+
+        assertThat(written).containsExactly(late);
+        assertThat(writtenBy).containsExactly(Thread.currentThread().getName());
+    }
+
+    /**
+     * Registra a escrita e confere que o payload é do mesmo pagamento: um slot reaproveitado antes
+     * de ser lido misturaria o id de um pagamento com o payload de outro.
+     */
+    private void record(UUID correlationId, byte[] payload) {
+        written.add(correlationId);
+        writtenBy.add(Thread.currentThread().getName());
+        if (!new String(payload, StandardCharsets.UTF_8).contains(correlationId.toString())) {
+            mismatched.add(correlationId.toString());
+        }
+    }
+
+    private List<UUID> publishConcurrently(int perProducer) throws Exception {
+        CountDownLatch go = new CountDownLatch(1);
+        List<CompletableFuture<List<UUID>>> producers = new ArrayList<>(PRODUCERS);
+        for (int i = 0; i < PRODUCERS; i++) {
+            producers.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return publish(perProducer);
+            }, Thread::startVirtualThread));
+        }
+        go.countDown();
+        List<UUID> published = new ArrayList<>(PRODUCERS * perProducer);
+        for (CompletableFuture<List<UUID>> producer : producers) {
+            published.addAll(producer.get(10, TimeUnit.SECONDS));
+        }
+        return published;
+    }
+
+    private RingBufferPaymentQueuePublisher start(int capacity, int maxBatchSize, long offerTimeoutMicros) {
+        RingBufferPaymentQueuePublisher started = new RingBufferPaymentQueuePublisher("json", capacity,
+                maxBatchSize, 50, offerTimeoutMicros, new HdrOperationMetrics(), deduplicator, queueWriter,
+                spillover);
+        started.start();
+        return started;
+    }
+
+    private List<UUID> publish(int count) {
+        List<UUID> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            UUID correlationId = UUID.randomUUID();
+            publisher.publish(new Payment(correlationId, 1990, Instant.now()));
+            ids.add(correlationId);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,96 @@
+package com.maal.apipaymentprocessor.domain.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0.01", "19.9", "19.90", "19.900", "20", "1000.00", "123456789.12", "-5.5", "0"})
+    void toCentsIsExactUpToTwoSignificantDecimals(String amount) {
+        BigDecimal decimal = new BigDecimal(amount);
+
+        long cents = Money.toCents(decimal);
+
+        assertThat(Money.toBigDecimal(cents)).isEqualByComparingTo(decimal);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"19.999", "0.001", "19.905", "1E-3"})
+    void toCentsRejectsFractionsOfCent(String amount) {
+        assertThatThrownBy(() -> Money.toCents(new BigDecimal(amount)))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void toCentsRejectsValuesOutsideLongRange() {
+        assertThatThrownBy(() -> Money.toCents(new BigDecimal("92233720368547758.08")))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void toBigDecimalAlwaysHasScaleTwo() {
+        assertThat(Money.toBigDecimal(1990)).hasToString("19.90");
+        assertThat(Money.toBigDecimal(2000)).hasToString("20.00");
+        assertThat(Money.toBigDecimal(-1)).hasToString("-0.01");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"19.90", "19.9", "20", "0.01", "-5.5", "19.900", "+3.25", "1e2", "1.5E1",
+            "9999999999999999.99", "12345678901234567"})
+    void parseCentsMatchesBigDecimalConversion(String amount) {
+        assertThat(Money.parseCents(amount, 0, amount.length()))
+                .isEqualTo(Money.toCents(new BigDecimal(amount)));
+    }
+
+    @Test
+    void parseCentsReadsOnlyTheGivenRange() {
+        String json = "{\"amount\":19.90}";
+
+        assertThat(Money.parseCents(json, 10, 15)).isEqualTo(1990);
+    }
+
+    @Test
+    void parseCentsRejectsFractionsOfCent() {
+        assertThatThrownBy(() -> Money.parseCents("19.995", 0, 6))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "-", ".", "abc", "19.9x", "1..2"})
+    void parseCentsRejectsInvalidNumbers(String amount) {
+        assertThatThrownBy(() -> Money.parseCents(amount, 0, amount.length()))
+                .isInstanceOf(NumberFormatException.class);
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {0, 1, 9, 10, 99, 100, 1990, 2000, 123456, -1, -1990, Long.MAX_VALUE, Long.MIN_VALUE})
+    void appendDecimalMatchesBigDecimalToString(long cents) {
+        assertThat(Money.appendDecimal(new StringBuilder(), cents))
+                .hasToString(BigDecimal.valueOf(cents, 2).toString());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"19.9", "19.90", "19.900", "20", "0.10", "-5.5", "+3.25", "1e2", "1.5E1", "-0"})
+    void receivedScaleIsWrittenBackLikeBigDecimal(String amount) {
+        BigDecimal decimal = new BigDecimal(amount);
+        long cents = Money.parseCents(amount, 0, amount.length());
+        int scale = Money.scaleOf(amount, 0, amount.length());
+
+        assertThat(scale).isEqualTo(decimal.scale());
+        assertThat(Money.appendDecimal(new StringBuilder(), cents, scale)).hasToString(decimal.toString());
+        assertThat(Money.toBigDecimal(cents, scale)).isEqualTo(decimal);
+    }
+
+    @Test
+    void appendDecimalRefusesScaleThatDropsCents() {
+        assertThatThrownBy(() -> Money.appendDecimal(new StringBuilder(), 1999, 1))
+                .isInstanceOf(ArithmeticException.class);
+    }
+}
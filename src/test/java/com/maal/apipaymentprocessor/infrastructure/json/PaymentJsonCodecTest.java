@@ -0,0 +1,195 @@
+package com.maal.apipaymentprocessor.infrastructure.json;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maal.apipaymentprocessor.domain.model.Payment;
+import com.maal.apipaymentprocessor.domain.model.PaymentProcessorType;
+import com.maal.apipaymentprocessor.domain.model.PaymentStatus;
+import com.maal.apipaymentprocessor.entrypoint.web.dto.PaymentRequest;
+import com.maal.apipaymentprocessor.infrastructure.config.redis.RedisConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * O codec escrito à mão comparado com o ObjectMapper de {@link RedisConfig}: a leitura precisa
+ * aceitar e recusar os mesmos documentos, e a escrita precisa gerar os mesmos bytes que o Jackson
+ * gerava para o Payment com amount BigDecimal, consumido pelo async-worker.
+ */
+class PaymentJsonCodecTest {
+
+    private static final String ID = "3fa85f64-5717-4562-b3fc-2c963f66afa6";
+    private static final String UPPERCASE_ID = "3FA85F64-5717-4562-B3FC-2C963F66AFA6";
+
+    private final ObjectMapper mapper = new RedisConfig().objectMapper();
+
+    /** Forma do Payment antes da troca para centavos; é o que o async-worker sabe ler */
+    @JsonPropertyOrder({"correlationId", "amount", "requestedAt", "paymentProcessorType", "status"})
+    record BaselinePayment(UUID correlationId, BigDecimal amount, Instant requestedAt,
+                           PaymentProcessorType paymentProcessorType, PaymentStatus status) {
+    }
+
+    record BaselineRequest(UUID correlationId, BigDecimal amount) {
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"correlationId\":\"" + ID + "\",\"amount\":19.90}",
+            " {\n\t\"amount\" : 19.9 ,\r\n \"correlationId\" : \"" + ID + "\" } ",
+            "{\"correlationId\":\"" + ID + "\",\"amount\":\"19.90\"}",
+            "{\"correlationId\":\"" + UPPERCASE_ID + "\",\"amount\":1e2}",
+            "{\"correlationId\":\"" + ID + "\",\"amount\":1.5E1,\"extra\":[1,{\"a\":\"]}\"}],\"more\":{\"b\":null}}",
+            "{\"note\":\"aspas \\\" e chaves } no meio\",\"correlationId\":\"" + ID + "\",\"amount\":0.01}",
+            "{\"correlationId\":\"\\u0033fa85f64-5717-4562-b3fc-2c963f66afa6\",\"amo\\u0075nt\":\"2\\u0030.5\"}",
+            "{\"correlationId\":null,\"amount\":null}",
+            "{\"amount\":-5.5}",
+            "{}"
+    })
+    void readsPaymentRequestLikeJackson(String json) throws Exception {
+        PaymentRequest expected = mapper.readValue(json, PaymentRequest.class);
+        BaselineRequest baseline = mapper.readValue(json, BaselineRequest.class);
+
+        PaymentRequest actual = PaymentJsonCodec.readPaymentRequest(json.getBytes(StandardCharsets.UTF_8));
+
+        assertThat(actual.getCorrelationId()).isEqualTo(expected.getCorrelationId());
+        assertThat(actual.getAmountCents()).isEqualTo(expected.getAmountCents());
+        assertThat(actual.getAmountScale()).isEqualTo(expected.getAmountScale());
+        assertThat(actual.getAmount()).isEqualTo(expected.getAmount());
+        if (baseline.amount() != null) {
+            assertThat(actual.getAmount()).isEqualTo(baseline.amount());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"correlationId\":\"" + ID + "\",\"amount\":19.90,\"requestedAt\":\"2025-07-15T12:34:56.789Z\",\"paymentProcessorType\":\"DEFAULT\",\"status\":\"SUCCESS\"}",
+            "{\"status\":\"PENDING\",\"requestedAt\":\"2024-02-29T23:59:59Z\",\"amount\":\"7\",\"correlationId\":\"" + ID + "\"}",
+            "{ \"correlationId\" : \"" + ID + "\" , \"amount\" : 0.1 , \"requestedAt\" : \"2025-07-15T12:34:56.123456789Z\" , \"paymentProcessorType\" : null , \"status\" : \"RETRY\" }",
+            "{\"correlationId\":\"" + ID + "\",\"amount\":19.900,\"requestedAt\":1752582896.789,\"paymentProcessorType\":\"FALLBACK\",\"status\":\"FAILED\",\"worker\":{\"id\":[1,2,{\"x\":\"}\"}]}}",
+            "{\"correlationId\":\"" + ID + "\",\"amount\":1,\"requestedAt\":1752582896,\"status\":\"PROCESSING\"}",
+            "{\"correlationId\":\"" + ID + "\",\"amount\":2.5,\"requestedAt\":\"2025-07-15T24:00:00Z\",\"status\":\"SUCCESS\"}",
+            "{\"correlationId\":\"" + ID + "\",\"amount\":2.5,\"requestedAt\":\"2025-07-15T12:00:00+03:00\",\"status\":\"SUCCESS\"}",
+            "{\"correlationId\":\"" + ID + "\",\"amount\":2.5,\"requestedAt\":\"2025-07-15T12:00:00Z\",\"status\":\"\\u0053UCCESS\"}"
+    })
+    void readsPaymentLikeJackson(String json) throws Exception {
+        Payment expected = mapper.readValue(json, Payment.class);
+
+        assertSamePayment(PaymentJsonCodec.readPayment(json.getBytes(StandardCharsets.UTF_8)), expected);
+        assertSamePayment(PaymentJsonCodec.readPayment(json), expected);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"correlationId\":\"not-a-uuid\",\"amount\":1}",
+            "{\"correlationId\":\"3fa85f64-5717-4562-b3fc-2c963f66afa\",\"amount\":1}",
+            "{\"correlationId\":\"3fa85f64x5717-4562-b3fc-2c963f66afa6\",\"amount\":1}",
+            "{\"correlationId\":\"3fa85f64-5717-4562-b3fc-2c963f66afag\",\"amount\":1}",
+            "{\"correlationId\":123,\"amount\":1}",
+            "{\"correlationId\":\"" + ID + "\",\"amount\":19.999}",
+            "{\"correlationId\":\"" + ID + "\",\"amount\":\"abc\"}",
+            "{\"correlationId\":\"" + ID + "\",\"amount\":92233720368547758.08}",
+            "{\"correlationId\":\"" + ID + "\",\"amount\":1",
+            "{\"correlationId\":\"" + ID + "\" \"amount\":1}",
+            "{\"correlationId\":\"\\x41\",\"amount\":1}",
+            "[\"" + ID + "\",1]"
+    })
+    void rejectsMalformedPaymentRequestLikeJackson(String json) {
+        assertThatThrownBy(() -> mapper.readValue(json, PaymentRequest.class)).isInstanceOf(Exception.class);
+        assertThatThrownBy(() -> PaymentJsonCodec.readPaymentRequest(json.getBytes(StandardCharsets.UTF_8)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "2025-02-29T12:00:00Z",
+            "2025-04-31T12:00:00Z",
+            "2025-13-01T12:00:00Z",
+            "2025-07-00T12:00:00Z",
+            "2025-07-15T25:00:00Z",
+            "2025-07-15T12:60:00Z",
+            "2025-07-15T12:00:00.1234567890Z",
+            "2025-07-15 12:00:00Z",
+            "2025-07-15T12:00:00",
+            "15/07/2025"
+    })
+    void rejectsMalformedInstantLikeJackson(String requestedAt) {
+        String json = "{\"correlationId\":\"" + ID + "\",\"amount\":1,\"requestedAt\":\"" + requestedAt
+                + "\",\"status\":\"SUCCESS\"}";
+
+        assertThatThrownBy(() -> mapper.readValue(json, Payment.class)).isInstanceOf(Exception.class);
+        assertThatThrownBy(() -> PaymentJsonCodec.readPayment(json)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"amount\":1,\"requestedAt\":\"2025-07-15T12:00:00Z\",\"status\":\"SUCCESS\"}",
+            "{\"correlationId\":\"" + ID + "\",\"requestedAt\":\"2025-07-15T12:00:00Z\",\"status\":\"SUCCESS\"}",
+            "{\"correlationId\":\"" + ID + "\",\"amount\":null,\"requestedAt\":\"2025-07-15T12:00:00Z\",\"status\":\"SUCCESS\"}",
+            "{\"correlationId\":\"" + ID + "\",\"amount\":1,\"status\":\"SUCCESS\"}",
+            "{\"correlationId\":\"" + ID + "\",\"amount\":1,\"requestedAt\":\"2025-07-15T12:00:00Z\"}",
+            "{\"correlationId\":\"" + ID + "\",\"amount\":1,\"requestedAt\":\"2025-07-15T12:00:00Z\",\"status\":\"DONE\"}"
+    })
+    void rejectsIncompletePaymentLikeJackson(String json) {
+        assertThatThrownBy(() -> mapper.readValue(json, Payment.class)).isInstanceOf(Exception.class);
+        assertThatThrownBy(() -> PaymentJsonCodec.readPayment(json)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"19.90", "19.9", "19.900", "20", "0.01", "0.10", "1e2", "1.5E1", "123456789.12"})
+    void writesSameBytesAsBaselineJackson(String amount) throws Exception {
+        String request = "{\"correlationId\":\"" + ID + "\",\"amount\":" + amount + "}";
+        BaselineRequest baselineRequest = mapper.readValue(request, BaselineRequest.class);
+        PaymentRequest parsed = PaymentJsonCodec.readPaymentRequest(request.getBytes(StandardCharsets.UTF_8));
+
+        for (Instant requestedAt : new Instant[]{Instant.parse("2025-07-15T12:34:56Z"),
+                Instant.parse("2025-07-15T12:34:56.789Z"), Instant.parse("2025-07-15T12:34:56.000123456Z")}) {
+            for (PaymentProcessorType processorType : new PaymentProcessorType[]{null, PaymentProcessorType.DEFAULT}) {
+                Payment payment = new Payment(parsed.getCorrelationId(), parsed.getAmountCents(),
+                        parsed.getAmountScale(), requestedAt, processorType, PaymentStatus.PENDING);
+                String baseline = mapper.writeValueAsString(new BaselinePayment(baselineRequest.correlationId(),
+                        baselineRequest.amount(), requestedAt, processorType, PaymentStatus.PENDING));
+
+                assertThat(PaymentJsonCodec.writePayment(payment)).isEqualTo(baseline);
+                assertThat(mapper.writeValueAsString(payment)).isEqualTo(baseline);
+            }
+        }
+    }
+
+    @Test
+    void writesPaymentRequestLikeJackson() throws Exception {
+        PaymentRequest request = PaymentJsonCodec.readPaymentRequest(
+                ("{\"correlationId\":\"" + ID + "\",\"amount\":19.9}").getBytes(StandardCharsets.UTF_8));
+
+        assertThat(PaymentJsonCodec.writePaymentRequest(request)).isEqualTo(mapper.writeValueAsString(request))
+                .isEqualTo("{\"correlationId\":\"" + ID + "\",\"amount\":19.9}");
+    }
+
+    @Test
+    void roundTripKeepsEveryField() {
+        Payment payment = new Payment(UUID.fromString(ID), 1990, 1, Instant.parse("2025-07-15T12:34:56.789Z"),
+                PaymentProcessorType.FALLBACK, PaymentStatus.SUCCESS);
+
+        String json = PaymentJsonCodec.writePayment(payment);
+
+        assertSamePayment(PaymentJsonCodec.readPayment(json.getBytes(StandardCharsets.UTF_8)), payment);
+        assertThat(json).isEqualTo("{\"correlationId\":\"" + ID + "\",\"amount\":19.9,"
+                + "\"requestedAt\":\"2025-07-15T12:34:56.789Z\",\"paymentProcessorType\":\"FALLBACK\",\"status\":\"SUCCESS\"}");
+    }
+
+    private static void assertSamePayment(Payment actual, Payment expected) {
+        assertThat(actual.getCorrelationId()).isEqualTo(expected.getCorrelationId());
+        assertThat(actual.getAmountCents()).isEqualTo(expected.getAmountCents());
+        assertThat(actual.getAmountScale()).isEqualTo(expected.getAmountScale());
+        assertThat(actual.getRequestedAt()).isEqualTo(expected.getRequestedAt());
+        assertThat(actual.getPaymentProcessorType()).isEqualTo(expected.getPaymentProcessorType());
+        assertThat(actual.getStatus()).isEqualTo(expected.getStatus());
+    }
+}